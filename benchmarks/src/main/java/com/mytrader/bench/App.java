@@ -0,0 +1,53 @@
+package com.mytrader.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+/**
+ * The application classes live in the unnamed package, which a named package cannot import.
+ * Benchmarks bind to them through method handles instead, erased to Object for application types,
+ * and keep them in static final fields so the JIT inlines the calls like direct ones.
+ */
+final class App {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private App() {
+    }
+
+    static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("application class not on the classpath: " + className, e);
+        }
+    }
+
+    /**
+     * Public static or instance method; an instance method takes the receiver as its first argument.
+     */
+    static MethodHandle method(String className, String name, Class<?>... params) {
+        try {
+            Method m = type(className).getMethod(name, params);
+            MethodHandle h = LOOKUP.unreflect(m);
+            return h.asType(h.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(className + "." + name, e);
+        }
+    }
+
+    static MethodHandle constructor(String className, Class<?>... params) {
+        try {
+            MethodHandle h = LOOKUP.unreflectConstructor(type(className).getConstructor(params));
+            return h.asType(h.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(className + ".<init>", e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object enumConstant(String className, String name) {
+        return Enum.valueOf((Class) type(className), name);
+    }
+}
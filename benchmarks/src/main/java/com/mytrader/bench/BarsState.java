@@ -0,0 +1,57 @@
+package com.mytrader.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+/**
+ * Parsed bars of a payload, in both the boxed List form and the primitive column form the indicators take.
+ */
+@State(Scope.Benchmark)
+public class BarsState {
+
+    private static final MethodHandle PARSE_DAILY_BARS = App.method("PriceJsonParser", "parseDailyBars", String.class);
+
+    @Param({"100", "20y"})
+    public String payload;
+
+    Object bars;
+    int size;
+
+    List<Double> closeList;
+    List<Double> highList;
+    List<Double> lowList;
+    List<Long> volumeList;
+
+    double[] closes;
+    double[] highs;
+    double[] lows;
+    long[] volumes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Throwable {
+        bars = (Object) PARSE_DAILY_BARS.invokeExact((Object) Payloads.daily(payload));
+        closeList = (List<Double>) call("closeList");
+        highList = (List<Double>) call("highList");
+        lowList = (List<Double>) call("lowList");
+        volumeList = (List<Long>) call("volumeList");
+        closes = (double[]) call("closes");
+        highs = (double[]) call("highs");
+        lows = (double[]) call("lows");
+        volumes = (long[]) call("volumes");
+        size = closes.length;
+    }
+
+    private Object call(String accessor) throws Throwable {
+        return App.method("BarSeries", accessor).invoke(bars);
+    }
+
+    double[] newOutput() {
+        return new double[size];
+    }
+}
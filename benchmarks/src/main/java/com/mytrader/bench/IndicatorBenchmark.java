@@ -0,0 +1,254 @@
+package com.mytrader.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every indicator class through both APIs: list* the boxed List adapters, array* the primitive double[]
+ * versions writing into preallocated outputs. pipeline* is the fused IndicatorPipeline pass, and
+ * incremental* replays the series through IndicatorState one bar at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IndicatorBenchmark {
+
+    private static final Class<?> D = double[].class;
+    private static final Class<?> L = long[].class;
+    private static final Class<?> LIST = List.class;
+    private static final Class<?> I = int.class;
+
+    private static final MethodHandle SMA_LIST = App.method("TechnicalAnalysisModel", "calculateSMA", LIST, I);
+    private static final MethodHandle SMA_ARRAY = App.method("TechnicalAnalysisModel", "calculateSMA", D, I, D);
+    private static final MethodHandle RSI_LIST = App.method("RSI", "calculateRSI", LIST, I);
+    private static final MethodHandle RSI_ARRAY = App.method("RSI", "calculateRSI", D, I, D);
+    private static final MethodHandle MACD_LIST = App.method("MACD", "calculateMACD", LIST);
+    private static final MethodHandle MACD_ARRAY = App.method("MACD", "calculateMACD", D, D, D);
+    private static final MethodHandle ADX_LIST = App.method("ADX", "calculateADX", LIST, LIST, LIST, I);
+    private static final MethodHandle ADX_ARRAY = App.method("ADX", "calculateADX", D, D, D, I, D, D, D);
+    private static final MethodHandle ATR_LIST = App.method("ATR", "calculateATR", LIST, LIST, LIST, I);
+    private static final MethodHandle ATR_ARRAY = App.method("ATR", "calculateATR", D, D, D, I, D);
+    private static final MethodHandle BANDS_LIST = App.method("BollingerBands", "calculateBands", LIST, I, double.class);
+    private static final MethodHandle BANDS_ARRAY = App.method("BollingerBands", "calculateBands", D, I, double.class, D, D, D);
+    private static final MethodHandle CCI_LIST = App.method("CCI", "calculateCCI", LIST, LIST, LIST, I);
+    private static final MethodHandle CCI_ARRAY = App.method("CCI", "calculateCCI", D, D, D, I, D);
+    private static final MethodHandle CMF_LIST = App.method("CMF", "calculateCMF", LIST, LIST, LIST, LIST, I);
+    private static final MethodHandle CMF_ARRAY = App.method("CMF", "calculateCMF", D, D, D, L, I, D);
+    private static final MethodHandle MFI_LIST = App.method("MFI", "calculateMFI", LIST, LIST, LIST, LIST, I);
+    private static final MethodHandle MFI_ARRAY = App.method("MFI", "calculateMFI", D, D, D, L, I, D);
+    private static final MethodHandle OBV_LIST = App.method("OBV", "calculateOBV", LIST, LIST);
+    private static final MethodHandle OBV_ARRAY = App.method("OBV", "calculateOBV", D, L, L);
+    private static final MethodHandle AD_LIST = App.method("ADLine", "calculateADLine", LIST, LIST, LIST, LIST);
+    private static final MethodHandle AD_ARRAY = App.method("ADLine", "calculateADLine", D, D, D, L, D);
+    private static final MethodHandle STOCH_LIST = App.method("Stochastic", "calculateStochastic", LIST, LIST, LIST, I, I);
+    private static final MethodHandle STOCH_ARRAY = App.method("Stochastic", "calculateStochastic", D, D, D, I, I, D, D);
+
+    private static final MethodHandle PIPELINE_COMPUTE = App.method("IndicatorPipeline", "compute", App.type("BarSeries"));
+    private static final MethodHandle STATE_DEFAULTS = App.method("IndicatorState", "defaults");
+    private static final MethodHandle STATE_ADVANCE = App.method("IndicatorState", "advance", App.type("BarSeries"));
+
+    private double[] out1;
+    private double[] out2;
+    private double[] out3;
+    private long[] longOut;
+    private Object scannerPipeline;
+    private Object fullPipeline;
+
+    @Setup
+    public void setup(BarsState b) throws Throwable {
+        out1 = b.newOutput();
+        out2 = b.newOutput();
+        out3 = b.newOutput();
+        longOut = new long[b.size];
+        // The scanner set (StockScannerRunner) and everything Main prints
+        scannerPipeline = pipeline(new Object[][]{{"sma", 20}, {"rsi", 14}, {"macd"}, {"adx", 14}});
+        fullPipeline = pipeline(new Object[][]{{"sma", 20}, {"rsi", 14}, {"macd"}, {"stochastic", 14, 3}, {"bollinger", 20, 2.0},
+                {"adx", 14}, {"atr", 14}, {"cmf", 20}, {"adLine"}, {"cci", 20}});
+    }
+
+    private static Object pipeline(Object[][] steps) throws Throwable {
+        Object p = App.constructor("IndicatorPipeline").invoke();
+        for (Object[] step : steps) {
+            Class<?>[] types = new Class<?>[step.length - 1];
+            for (int i = 1; i < step.length; i++) {
+                types[i - 1] = step[i] instanceof Double ? double.class : int.class;
+            }
+            Object[] args = new Object[step.length];
+            args[0] = p;
+            System.arraycopy(step, 1, args, 1, step.length - 1);
+            p = App.method("IndicatorPipeline", (String) step[0], types).invokeWithArguments(args);
+        }
+        return p;
+    }
+
+    @Benchmark
+    public Object listSMA(BarsState b) throws Throwable {
+        return (Object) SMA_LIST.invokeExact((Object) b.closeList, 20);
+    }
+
+    @Benchmark
+    public double[] arraySMA(BarsState b) throws Throwable {
+        SMA_ARRAY.invokeExact((Object) b.closes, 20, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listRSI(BarsState b) throws Throwable {
+        return (Object) RSI_LIST.invokeExact((Object) b.closeList, 14);
+    }
+
+    @Benchmark
+    public double[] arrayRSI(BarsState b) throws Throwable {
+        RSI_ARRAY.invokeExact((Object) b.closes, 14, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listMACD(BarsState b) throws Throwable {
+        return (Object) MACD_LIST.invokeExact((Object) b.closeList);
+    }
+
+    @Benchmark
+    public void arrayMACD(BarsState b, Blackhole bh) throws Throwable {
+        MACD_ARRAY.invokeExact((Object) b.closes, (Object) out1, (Object) out2);
+        bh.consume(out1);
+        bh.consume(out2);
+    }
+
+    @Benchmark
+    public Object listADX(BarsState b) throws Throwable {
+        return (Object) ADX_LIST.invokeExact((Object) b.highList, (Object) b.lowList, (Object) b.closeList, 14);
+    }
+
+    @Benchmark
+    public void arrayADX(BarsState b, Blackhole bh) throws Throwable {
+        ADX_ARRAY.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, 14, (Object) out1, (Object) out2, (Object) out3);
+        bh.consume(out1);
+        bh.consume(out2);
+        bh.consume(out3);
+    }
+
+    @Benchmark
+    public Object listATR(BarsState b) throws Throwable {
+        return (Object) ATR_LIST.invokeExact((Object) b.highList, (Object) b.lowList, (Object) b.closeList, 14);
+    }
+
+    @Benchmark
+    public double[] arrayATR(BarsState b) throws Throwable {
+        ATR_ARRAY.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, 14, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listBollingerBands(BarsState b) throws Throwable {
+        return (Object) BANDS_LIST.invokeExact((Object) b.closeList, 20, 2.0);
+    }
+
+    @Benchmark
+    public void arrayBollingerBands(BarsState b, Blackhole bh) throws Throwable {
+        BANDS_ARRAY.invokeExact((Object) b.closes, 20, 2.0, (Object) out1, (Object) out2, (Object) out3);
+        bh.consume(out1);
+        bh.consume(out2);
+        bh.consume(out3);
+    }
+
+    @Benchmark
+    public Object listCCI(BarsState b) throws Throwable {
+        return (Object) CCI_LIST.invokeExact((Object) b.highList, (Object) b.lowList, (Object) b.closeList, 20);
+    }
+
+    @Benchmark
+    public double[] arrayCCI(BarsState b) throws Throwable {
+        CCI_ARRAY.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, 20, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listCMF(BarsState b) throws Throwable {
+        return (Object) CMF_LIST.invokeExact((Object) b.highList, (Object) b.lowList, (Object) b.closeList, (Object) b.volumeList, 20);
+    }
+
+    @Benchmark
+    public double[] arrayCMF(BarsState b) throws Throwable {
+        CMF_ARRAY.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, (Object) b.volumes, 20, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listMFI(BarsState b) throws Throwable {
+        return (Object) MFI_LIST.invokeExact((Object) b.highList, (Object) b.lowList, (Object) b.closeList, (Object) b.volumeList, 14);
+    }
+
+    @Benchmark
+    public double[] arrayMFI(BarsState b) throws Throwable {
+        MFI_ARRAY.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, (Object) b.volumes, 14, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listOBV(BarsState b) throws Throwable {
+        return (Object) OBV_LIST.invokeExact((Object) b.closeList, (Object) b.volumeList);
+    }
+
+    @Benchmark
+    public long[] arrayOBV(BarsState b) throws Throwable {
+        OBV_ARRAY.invokeExact((Object) b.closes, (Object) b.volumes, (Object) longOut);
+        return longOut;
+    }
+
+    @Benchmark
+    public Object listADLine(BarsState b) throws Throwable {
+        return (Object) AD_LIST.invokeExact((Object) b.highList, (Object) b.lowList, (Object) b.closeList, (Object) b.volumeList);
+    }
+
+    @Benchmark
+    public double[] arrayADLine(BarsState b) throws Throwable {
+        AD_ARRAY.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, (Object) b.volumes, (Object) out1);
+        return out1;
+    }
+
+    @Benchmark
+    public Object listStochastic(BarsState b) throws Throwable {
+        return (Object) STOCH_LIST.invokeExact((Object) b.closeList, (Object) b.highList, (Object) b.lowList, 14, 3);
+    }
+
+    @Benchmark
+    public void arrayStochastic(BarsState b, Blackhole bh) throws Throwable {
+        STOCH_ARRAY.invokeExact((Object) b.closes, (Object) b.highs, (Object) b.lows, 14, 3, (Object) out1, (Object) out2);
+        bh.consume(out1);
+        bh.consume(out2);
+    }
+
+    @Benchmark
+    public Object pipelineScanner(BarsState b) throws Throwable {
+        return (Object) PIPELINE_COMPUTE.invokeExact(scannerPipeline, b.bars);
+    }
+
+    @Benchmark
+    public Object pipelineFull(BarsState b) throws Throwable {
+        return (Object) PIPELINE_COMPUTE.invokeExact(fullPipeline, b.bars);
+    }
+
+    @Benchmark
+    public Object incrementalReplay(BarsState b, Blackhole bh) throws Throwable {
+        Object state = (Object) STATE_DEFAULTS.invokeExact();
+        bh.consume((int) STATE_ADVANCE.invokeExact(state, b.bars));
+        return state;
+    }
+}
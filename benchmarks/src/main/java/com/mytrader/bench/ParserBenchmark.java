@@ -0,0 +1,122 @@
+package com.mytrader.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PriceJsonParser: every extract* method plus the columnar parseDailyBars/parseFinnhubBars.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    private static final String PARSER = "PriceJsonParser";
+
+    private static final MethodHandle PARSE_DAILY_BARS = App.method(PARSER, "parseDailyBars", String.class);
+    private static final MethodHandle CLOSING_PRICES = App.method(PARSER, "extractClosingPrices", String.class);
+    private static final MethodHandle CLOSE_BY_DATE = App.method(PARSER, "extractCloseByDate", String.class);
+    private static final MethodHandle HIGH_PRICES = App.method(PARSER, "extractHighPrices", String.class);
+    private static final MethodHandle LOW_PRICES = App.method(PARSER, "extractLowPrices", String.class);
+    private static final MethodHandle VOLUME = App.method(PARSER, "extractVolumeData", String.class);
+    private static final MethodHandle VOLUME_LNG = App.method(PARSER, "extractVolumeDataLng", String.class);
+    private static final MethodHandle SERVICE_MESSAGE = App.method(PARSER, "extractServiceMessage", String.class);
+
+    private static final MethodHandle PARSE_FINNHUB_BARS = App.method(PARSER, "parseFinnhubBars", String.class);
+    private static final MethodHandle FINNHUB_CLOSES = App.method(PARSER, "extractClosingPricesFromFinnhub", String.class);
+    private static final MethodHandle FINNHUB_HIGHS = App.method(PARSER, "extractHighPricesFromFinnhub", String.class);
+    private static final MethodHandle FINNHUB_LOWS = App.method(PARSER, "extractLowPricesFromFinnhub", String.class);
+    private static final MethodHandle FINNHUB_VOLUME = App.method(PARSER, "extractVolumeFromFinnhub", String.class);
+
+    @Param({"100", "20y"})
+    public String payload;
+
+    private String daily;
+    private String finnhub;
+
+    @Setup
+    public void setup() {
+        daily = Payloads.daily(payload);
+        finnhub = Payloads.finnhub();
+    }
+
+    @Benchmark
+    public Object parseDailyBars() throws Throwable {
+        return (Object) PARSE_DAILY_BARS.invokeExact((Object) daily);
+    }
+
+    @Benchmark
+    public Object extractClosingPrices() throws Throwable {
+        return (Object) CLOSING_PRICES.invokeExact((Object) daily);
+    }
+
+    @Benchmark
+    public Object extractCloseByDate() throws Throwable {
+        return (Object) CLOSE_BY_DATE.invokeExact((Object) daily);
+    }
+
+    @Benchmark
+    public Object extractHighPrices() throws Throwable {
+        return (Object) HIGH_PRICES.invokeExact((Object) daily);
+    }
+
+    @Benchmark
+    public Object extractLowPrices() throws Throwable {
+        return (Object) LOW_PRICES.invokeExact((Object) daily);
+    }
+
+    @Benchmark
+    public Object extractVolumeData() throws Throwable {
+        return (Object) VOLUME.invokeExact((Object) daily);
+    }
+
+    @Benchmark
+    public Object extractVolumeDataLng() throws Throwable {
+        return (Object) VOLUME_LNG.invokeExact((Object) daily);
+    }
+
+    // What Main used to do per symbol: four separate extract calls over the same payload
+    @Benchmark
+    public Object extractAllFourColumns() throws Throwable {
+        Object c = (Object) CLOSING_PRICES.invokeExact((Object) daily);
+        Object h = (Object) HIGH_PRICES.invokeExact((Object) daily);
+        Object l = (Object) LOW_PRICES.invokeExact((Object) daily);
+        Object v = (Object) VOLUME.invokeExact((Object) daily);
+        return new Object[]{c, h, l, v};
+    }
+
+    @Benchmark
+    public Object extractServiceMessage() throws Throwable {
+        return (Object) SERVICE_MESSAGE.invokeExact((Object) daily);
+    }
+
+    // Finnhub candles only come in one size; the payload parameter does not apply
+    @Benchmark
+    public Object parseFinnhubBars() throws Throwable {
+        return (Object) PARSE_FINNHUB_BARS.invokeExact((Object) finnhub);
+    }
+
+    @Benchmark
+    public Object extractFromFinnhub() throws Throwable {
+        Object c = (Object) FINNHUB_CLOSES.invokeExact((Object) finnhub);
+        Object h = (Object) FINNHUB_HIGHS.invokeExact((Object) finnhub);
+        Object l = (Object) FINNHUB_LOWS.invokeExact((Object) finnhub);
+        Object v = (Object) FINNHUB_VOLUME.invokeExact((Object) finnhub);
+        return new Object[]{c, h, l, v};
+    }
+}
@@ -0,0 +1,36 @@
+package com.mytrader.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Payloads checked in under src/test/resources/payloads of the main project:
+ * daily-100.json   - a real TIME_SERIES_DAILY compact response (AAPL, 100 bars)
+ * daily-20y.json   - a TIME_SERIES_DAILY full-size response, 20 years of synthetic bars
+ * finnhub-100.json - Finnhub candles for the same 100 days as daily-100.json
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    // "100" / "20y" as used in the @Param values
+    static String daily(String size) {
+        return load("daily-" + size + ".json");
+    }
+
+    static String finnhub() {
+        return load("finnhub-100.json");
+    }
+
+    static String load(String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) throw new IllegalStateException("missing payload: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mytrader.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StockScannerRunner.analyzeSingleStock without the network: the payload stands in for DataFetcher,
+ * so this measures parse + indicators + decision logic per symbol.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScannerBenchmark {
+
+    private static final MethodHandle ANALYZE = App.method("StockScannerRunner", "analyzeSingleStock", String.class, String.class);
+
+    @Param({"100", "20y"})
+    public String payload;
+
+    private String daily;
+
+    @Setup
+    public void setup() {
+        daily = Payloads.daily(payload);
+    }
+
+    @Benchmark
+    public Object analyzeSingleStock() throws Throwable {
+        return (Object) ANALYZE.invokeExact((Object) "BENCH", (Object) daily);
+    }
+}
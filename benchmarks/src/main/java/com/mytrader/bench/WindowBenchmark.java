@@ -0,0 +1,71 @@
+package com.mytrader.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Windowed statistics across window lengths: cost per bar should stay flat as the period grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WindowBenchmark {
+
+    private static final Class<?> D = double[].class;
+
+    private static final MethodHandle BANDS = App.method("BollingerBands", "calculateBands", D, int.class, double.class, D, D, D);
+    private static final MethodHandle CCI = App.method("CCI", "calculateCCI", D, D, D, int.class, App.type("CCI$Deviation"), D);
+    private static final Object STANDARD = App.enumConstant("CCI$Deviation", "STANDARD");
+    private static final Object MEAN_ABSOLUTE = App.enumConstant("CCI$Deviation", "MEAN_ABSOLUTE");
+
+    @Param({"20", "50", "200"})
+    public int period;
+
+    private double[] upper;
+    private double[] middle;
+    private double[] lower;
+    private double[] out;
+
+    @Setup
+    public void setup(BarsState b) {
+        upper = b.newOutput();
+        middle = b.newOutput();
+        lower = b.newOutput();
+        out = b.newOutput();
+    }
+
+    @Benchmark
+    public void bollingerBands(BarsState b, Blackhole bh) throws Throwable {
+        BANDS.invokeExact((Object) b.closes, period, 2.0, (Object) upper, (Object) middle, (Object) lower);
+        bh.consume(upper);
+        bh.consume(lower);
+    }
+
+    @Benchmark
+    public double[] cciStandardDeviation(BarsState b) throws Throwable {
+        CCI.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, period, STANDARD, (Object) out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] cciMeanAbsoluteDeviation(BarsState b) throws Throwable {
+        CCI.invokeExact((Object) b.highs, (Object) b.lows, (Object) b.closes, period, MEAN_ABSOLUTE, (Object) out);
+        return out;
+    }
+}
@@ -14,36 +14,32 @@ public class ADLine {
      */
     public static List<Double> calculateADLine(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices, List<Long> volumeData) {
 
-        List<Double> adLineValues = new ArrayList<>();
-
         if (closingPrices.size() != volumeData.size() || closingPrices.isEmpty()) {
-            return adLineValues;
+            return new ArrayList<>();
         }
+        double[] out = new double[closingPrices.size()];
+        calculateADLine(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices),
+                IndicatorArrays.toArray(closingPrices), IndicatorArrays.toLongArray(volumeData), out);
+        return IndicatorArrays.toList(out);
+    }
 
-        double currentADL = 0;
-
-        for (int i = 0; i < closingPrices.size(); i++) {
-            double high = highPrices.get(i);
-            double low = lowPrices.get(i);
-            double close = closingPrices.get(i);
-            long volume = volumeData.get(i);
-
-            // 1. חישוב Money Flow Multiplier (MFM)
-            double highMinusLow = high - low;
-            double mfm = 0;
-            if (highMinusLow > 0) {
-                // המכפיל מודד היכן נסגר המחיר ביחס לטווח היומי (High-Low)
-                mfm = ((close - low) - (high - close)) / highMinusLow;
-            }
-
-            // 2. חישוב Money Flow Volume (MFV)
-            double mfv = mfm * volume;
+    /**
+     * גרסה פרימיטיבית של A/D Line: כותבת את הערך המצטבר למערך הפלט של הקורא.
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param closingPrices מחירי סגירה.
+     * @param volumeData נפחי המסחר.
+     * @param out מערך פלט באורך closingPrices.length לפחות.
+     */
+    public static void calculateADLine(double[] highPrices, double[] lowPrices, double[] closingPrices, long[] volumeData, double[] out) {
+        int n = closingPrices.length;
+        IndicatorArrays.requireOutput(out, n);
 
-            // 3. צבירה: הוספה ל-A/D Line הקיים
-            currentADL += mfv;
-            adLineValues.add(currentADL);
+        double currentADL = 0;
+        for (int i = 0; i < n; i++) {
+            // Money Flow Volume (MFV) = MFM * Volume, נצבר ל-A/D Line
+            currentADL += CMF.moneyFlowMultiplier(highPrices[i], lowPrices[i], closingPrices[i]) * volumeData[i];
+            out[i] = currentADL;
         }
-
-        return adLineValues;
     }
-}
\ No newline at end of file
+}
@@ -6,31 +6,6 @@ public class ADX {
 
     // ADX הוא חישוב מורכב שדורש DMI (Directional Movement Index)
 
-    // פונקציית עזר לחישוב ממוצע אקספוננציאלי חלק (Wilder's Smoothing)
-    private static List<Double> calculateWildersSmoothing(List<Double> values, int period) {
-        List<Double> result = new ArrayList<>();
-        if (values.size() < period) return result;
-
-        // התקופה הראשונה היא ממוצע פשוט
-        double initialSum = 0;
-        for (int i = 0; i < period; i++) {
-            Double v = values.get(i);
-            initialSum += (v != null ? v : 0.0);
-            result.add(null); // מוסיף nullים בהתחלה
-        }
-        double smoothValue = initialSum / period;
-        result.set(period - 1, smoothValue);
-
-        // חישוב עוקב
-        for (int i = period; i < values.size(); i++) {
-            Double v = values.get(i);
-            double add = (v != null ? v : 0.0);
-            smoothValue = ((smoothValue * (period - 1)) + add) / period;
-            result.add(smoothValue);
-        }
-        return result;
-    }
-
     /**
      * מחשב את אינדיקטור ADX (Average Directional Index).
      * @param highPrices רשימת מחירי שיא.
@@ -40,69 +15,92 @@ public class ADX {
      * @return רשימה של Double[] כאשר [0]=ADX, [1]=+DI, [2]=-DI.
      */
     public static List<Double[]> calculateADX(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices, int period) {
+        int n = highPrices.size();
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        double[] adx = new double[n];
+        double[] plusDI = new double[n];
+        double[] minusDI = new double[n];
+        calculateADX(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices),
+                IndicatorArrays.toArray(closingPrices), period, adx, plusDI, minusDI);
+        return IndicatorArrays.toRows(adx, plusDI, minusDI);
+    }
+
+    /**
+     * גרסה פרימיטיבית של ADX במעבר יחיד: TR, +DM ו-DM- מוחלקים ב-Wilder's Smoothing כסקלרים, ללא רשימות ביניים.
+     * NaN היכן שאין ערך (לפני period-1, או כאשר ה-TR המוחלק הוא 0).
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param closingPrices מחירי סגירה.
+     * @param period תקופת החישוב (לרוב 14).
+     * @param adxOut מערך פלט ל-ADX.
+     * @param plusDIOut מערך פלט ל-+DI.
+     * @param minusDIOut מערך פלט ל-DI-.
+     */
+    public static void calculateADX(double[] highPrices, double[] lowPrices, double[] closingPrices, int period,
+                                    double[] adxOut, double[] plusDIOut, double[] minusDIOut) {
+        int n = highPrices.length;
+        IndicatorArrays.requireOutput(adxOut, n);
+        IndicatorArrays.requireOutput(plusDIOut, n);
+        IndicatorArrays.requireOutput(minusDIOut, n);
+        java.util.Arrays.fill(adxOut, 0, n, Double.NaN);
+        java.util.Arrays.fill(plusDIOut, 0, n, Double.NaN);
+        java.util.Arrays.fill(minusDIOut, 0, n, Double.NaN);
+        if (n < period) {
+            return;
+        }
 
-        List<Double> trValues = new ArrayList<>(); // True Range
-        List<Double> plusDM = new ArrayList<>();   // Plus Directional Movement
-        List<Double> minusDM = new ArrayList<>();  // Minus Directional Movement
+        double smoothTR = 0;
+        double smoothPlusDM = 0;
+        double smoothMinusDM = 0;
+        double adx = 0;
 
-        for (int i = 0; i < highPrices.size(); i++) {
-            double high = highPrices.get(i);
-            double low = lowPrices.get(i);
-            double closePrev = (i > 0) ? closingPrices.get(i - 1) : high; // משתמש ב-High אם אין סגירה קודמת
+        for (int i = 0; i < n; i++) {
+            double high = highPrices[i];
+            double low = lowPrices[i];
+            double closePrev = (i > 0) ? closingPrices[i - 1] : high; // משתמש ב-High אם אין סגירה קודמת
 
             // 1. חישוב True Range (TR)
             double tr = Math.max(high - low, Math.max(Math.abs(high - closePrev), Math.abs(low - closePrev)));
-            trValues.add(tr);
 
             // 2. חישוב Directional Movement (DM)
-            double upMove = high - highPrices.get(i > 0 ? i - 1 : i);
-            double downMove = lowPrices.get(i > 0 ? i - 1 : i) - low;
-
+            double upMove = high - highPrices[i > 0 ? i - 1 : i];
+            double downMove = lowPrices[i > 0 ? i - 1 : i] - low;
             double pDM = (upMove > downMove && upMove > 0) ? upMove : 0;
             double mDM = (downMove > upMove && downMove > 0) ? downMove : 0;
 
-            plusDM.add(pDM);
-            minusDM.add(mDM);
-        }
-
-        // 3. החלקת TR, +DM ו-DM-
-        List<Double> smoothTR = calculateWildersSmoothing(trValues, period);
-        List<Double> smoothPlusDM = calculateWildersSmoothing(plusDM, period);
-        List<Double> smoothMinusDM = calculateWildersSmoothing(minusDM, period);
-
-        List<Double> plusDI = new ArrayList<>();
-        List<Double> minusDI = new ArrayList<>();
-        List<Double> dxValues = new ArrayList<>();
-
-        for (int i = 0; i < highPrices.size(); i++) {
-            Double pDI = null;
-            Double mDI = null;
-            Double dx = null;
-
-            if (smoothTR.get(i) != null && smoothTR.get(i) != 0) {
-                // 4. חישוב DI (+DI ו-DI-)
-                pDI = 100 * (smoothPlusDM.get(i) / smoothTR.get(i));
-                mDI = 100 * (smoothMinusDM.get(i) / smoothTR.get(i));
+            // 3. החלקת TR, +DM ו-DM- (התקופה הראשונה היא ממוצע פשוט)
+            if (i < period) {
+                smoothTR += tr;
+                smoothPlusDM += pDM;
+                smoothMinusDM += mDM;
+                if (i < period - 1) continue;
+                smoothTR /= period;
+                smoothPlusDM /= period;
+                smoothMinusDM /= period;
+            } else {
+                smoothTR = ((smoothTR * (period - 1)) + tr) / period;
+                smoothPlusDM = ((smoothPlusDM * (period - 1)) + pDM) / period;
+                smoothMinusDM = ((smoothMinusDM * (period - 1)) + mDM) / period;
+            }
 
-                // 5. חישוב DX
+            // 4. חישוב DI ו-DX (DX חסר נספר כ-0 בהחלקת ה-ADX)
+            double dx = 0.0;
+            if (smoothTR != 0) {
+                double pDI = 100 * (smoothPlusDM / smoothTR);
+                double mDI = 100 * (smoothMinusDM / smoothTR);
+                plusDIOut[i] = pDI;
+                minusDIOut[i] = mDI;
                 double sumDI = pDI + mDI;
                 if (sumDI != 0) {
                     dx = 100 * (Math.abs(pDI - mDI) / sumDI);
                 }
             }
-            plusDI.add(pDI);
-            minusDI.add(mDI);
-            dxValues.add(dx);
-        }
-
-        // 6. חישוב ADX (Wilder's Smoothing של DX)
-        List<Double> adxValues = calculateWildersSmoothing(dxValues, period);
 
-        List<Double[]> results = new ArrayList<>();
-        for (int i = 0; i < highPrices.size(); i++) {
-            // [ADX, +DI, -DI]
-            results.add(new Double[]{adxValues.get(i), plusDI.get(i), minusDI.get(i)});
+            // 5. חישוב ADX (Wilder's Smoothing של DX)
+            adx = (i == period - 1) ? dx / period : ((adx * (period - 1)) + dx) / period;
+            adxOut[i] = adx;
         }
-        return results;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,4 @@
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class ATR {
@@ -13,49 +12,42 @@ public class ATR {
      * @return רשימה של ערכי ATR.
      */
     public static List<Double> calculateATR(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices, int period) {
+        double[] out = new double[highPrices.size()];
+        calculateATR(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices),
+                IndicatorArrays.toArray(closingPrices), period, out);
+        return IndicatorArrays.toList(out);
+    }
 
-        List<Double> trValues = new ArrayList<>(); // True Range
-        List<Double> atrValues = new ArrayList<>();
-
-        for (int i = 0; i < highPrices.size(); i++) {
-            double high = highPrices.get(i);
-            double low = lowPrices.get(i);
-            double closePrev = (i > 0) ? closingPrices.get(i - 1) : high; // משתמש ב-High אם אין סגירה קודמת
-
-            // 1. חישוב True Range (TR)
-            // TR הוא הגדול מבין: (High - Low), |High - Close_Prev|, |Low - Close_Prev|
-            double tr = Math.max(high - low, Math.max(Math.abs(high - closePrev), Math.abs(low - closePrev)));
-            trValues.add(tr);
-        }
-
-        // 2. חישוב ATR (Wilder's Smoothing של TR)
-        // לצורך הפשטות נשתמש באותה פונקציה מה-ADX, אך אם היא אינה זמינה יש ליישם Wilder's Smoothing כאן.
-
-        // נניח ש-ADX.calculateWildersSmoothing זמין, אחרת יש ליישם את הלוגיקה שלו
-        // זוהי מתודה שאתה צריך להוסיף או להעתיק כמתודת עזר בתוך ATR.java:
-        /*
-        for (int i = 0; i < trValues.size(); i++) {
-            if (i < period - 1) {
-                 atrValues.add(null);
-            } else if (i == period - 1) {
-                 atrValues.add(trValues.subList(0, period).stream().mapToDouble(d -> d).average().getAsDouble());
-            } else {
-                double prevATR = atrValues.get(i-1);
-                double currentATR = ((prevATR * (period - 1)) + trValues.get(i)) / period;
-                atrValues.add(currentATR);
-            }
+    /**
+     * גרסה פרימיטיבית של ATR: כותבת למערך הפלט של הקורא, NaN עד period-1.
+     * שים לב: כמו בגרסת הרשימות, זהו ממוצע פשוט (SMA) של ה-TR ולא Wilder's Smoothing.
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param closingPrices מחירי סגירה.
+     * @param period תקופת החישוב (לרוב 14).
+     * @param out מערך פלט באורך highPrices.length לפחות.
+     */
+    public static void calculateATR(double[] highPrices, double[] lowPrices, double[] closingPrices, int period, double[] out) {
+        int n = highPrices.length;
+        IndicatorArrays.requireOutput(out, n);
+
+        // 1. חישוב True Range (TR)
+        // TR הוא הגדול מבין: (High - Low), |High - Close_Prev|, |Low - Close_Prev|
+        double[] tr = new double[n];
+        for (int i = 0; i < n; i++) {
+            double high = highPrices[i];
+            double low = lowPrices[i];
+            double closePrev = (i > 0) ? closingPrices[i - 1] : high; // משתמש ב-High אם אין סגירה קודמת
+            tr[i] = Math.max(high - low, Math.max(Math.abs(high - closePrev), Math.abs(low - closePrev)));
         }
-        */
 
-        // לצורך הדוגמה כאן, נשתמש ב-SMA פשוט כתחליף ל-ATR רגיל, אך זכור שזה לא מדויק ל-ATR אמיתי:
-        for (int i = 0; i < trValues.size(); i++) {
+        // 2. ממוצע פשוט של TR לכל חלון
+        for (int i = 0; i < n; i++) {
             if (i < period - 1) {
-                atrValues.add(null);
+                out[i] = Double.NaN;
             } else {
-                atrValues.add(trValues.subList(i - period + 1, i + 1).stream().mapToDouble(d -> d).average().getAsDouble());
+                out[i] = IndicatorArrays.compensatedSum(tr, i - period + 1, i + 1) / period;
             }
         }
-
-        return atrValues;
     }
-}
\ No newline at end of file
+}
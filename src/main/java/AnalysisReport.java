@@ -0,0 +1,143 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of one analysis run (a symbol, the finder, the weekly portfolio summary).
+ * Holds the human-readable report text, exactly as the console shows it, next to the typed results:
+ * latest indicator values, signals, the final verdict and errors. Multi-symbol reports keep one child
+ * report per symbol.
+ *
+ * A report is built by a single thread and should be treated as read-only once returned.
+ * The console is just one renderer (printTo / an echoing report); the web layer renders toText() or the typed fields.
+ */
+public final class AnalysisReport {
+
+    private final String title;
+    private final StringBuilder text = new StringBuilder();
+    private final Map<String, Double> indicators = new LinkedHashMap<>();
+    private final Map<String, String> signals = new LinkedHashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private final List<AnalysisReport> children = new ArrayList<>();
+    private String verdict;
+
+    // Live console output while the report is built (long runs show progress); null = silent
+    private final PrintStream echo;
+
+    public AnalysisReport(String title) {
+        this(title, null);
+    }
+
+    private AnalysisReport(String title, PrintStream echo) {
+        this.title = title;
+        this.echo = echo;
+    }
+
+    /**
+     * A report that also writes every line to the given stream as it is added.
+     */
+    public static AnalysisReport echoingTo(String title, PrintStream out) {
+        return new AnalysisReport(title, out);
+    }
+
+    // ---- text ----
+
+    public AnalysisReport print(String s) {
+        String v = String.valueOf(s);
+        text.append(v);
+        if (echo != null) echo.print(v);
+        return this;
+    }
+
+    public AnalysisReport println(String s) {
+        return print(s + "\n");
+    }
+
+    public AnalysisReport println() {
+        return print("\n");
+    }
+
+    public AnalysisReport printf(String format, Object... args) {
+        return print(String.format(format, args));
+    }
+
+    /**
+     * Records an error and adds it to the text where it happened.
+     */
+    public AnalysisReport error(String message) {
+        errors.add(message);
+        return println(message);
+    }
+
+    // ---- typed results ----
+
+    /**
+     * Latest value of an indicator; NaN (not enough data) is not recorded.
+     */
+    public AnalysisReport indicator(String name, double value) {
+        if (!Double.isNaN(value)) indicators.put(name, value);
+        return this;
+    }
+
+    public AnalysisReport signal(String name, String signal) {
+        if (signal != null) signals.put(name, signal);
+        return this;
+    }
+
+    public AnalysisReport verdict(String verdict) {
+        this.verdict = verdict;
+        return this;
+    }
+
+    public AnalysisReport child(AnalysisReport report) {
+        if (report != null) children.add(report);
+        return this;
+    }
+
+    // ---- accessors ----
+
+    public String title() {
+        return title;
+    }
+
+    public String toText() {
+        return text.toString();
+    }
+
+    public Map<String, Double> indicators() {
+        return Collections.unmodifiableMap(indicators);
+    }
+
+    public Map<String, String> signals() {
+        return Collections.unmodifiableMap(signals);
+    }
+
+    public String verdict() {
+        return verdict;
+    }
+
+    public List<String> errors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    public List<AnalysisReport> children() {
+        return Collections.unmodifiableList(children);
+    }
+
+    public void printTo(PrintStream out) {
+        out.print(toText());
+        out.flush();
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
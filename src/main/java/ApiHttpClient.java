@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.net.ssl.SSLSession;
+
+/**
+ * The one HttpClient of the app (connection pool, HTTP/2, TLS sessions are shared between callers) plus a
+ * per-provider RateLimiter picked by host. Every upstream request must go through send(), which also makes it
+ * subject to the DataSource mode (live / record / replay).
+ *
+ * Limits come from the environment (requests per minute, optional burst); 0 or a negative rate disables the limit:
+ *   ALPHAVANTAGE_RATE_PER_MIN  default 5 (free tier; 75 for the premium key)   ALPHAVANTAGE_BURST  default 1
+ *   FINNHUB_RATE_PER_MIN       default 60                                       FINNHUB_BURST       default 1
+ */
+public final class ApiHttpClient {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    static final RateLimiter ALPHA_VANTAGE = limiterFromEnv("ALPHAVANTAGE_RATE_PER_MIN", 5, "ALPHAVANTAGE_BURST");
+    static final RateLimiter FINNHUB = limiterFromEnv("FINNHUB_RATE_PER_MIN", 60, "FINNHUB_BURST");
+
+    private ApiHttpClient() {
+    }
+
+    public static HttpClient client() {
+        return CLIENT;
+    }
+
+    // Identical GETs to a rate-limited provider that overlap in time share one upstream request
+    private static final SingleFlight<String, HttpResponse<String>> FLIGHTS = new SingleFlight<>();
+
+    private static final DataSource LIVE = new DataSource() {
+        @Override
+        public HttpResponse<String> send(HttpRequest request, String body) throws IOException, InterruptedException {
+            return sendLive(request);
+        }
+
+        @Override
+        public String describe() {
+            return "live";
+        }
+    };
+
+    // Live, record or replay (DATA_SOURCE); replaceable for benchmarks
+    private static volatile DataSource source = DataSource.fromEnv(LIVE);
+
+    /**
+     * Sends the request through the active DataSource (normally live, see sendLive).
+     */
+    public static HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return source.send(request, null);
+    }
+
+    /**
+     * For requests with a body (POST): the body must be the one the request was built with, so record/replay can
+     * tell requests to the same URL apart.
+     */
+    public static HttpResponse<String> send(HttpRequest request, String body) throws IOException, InterruptedException {
+        return source.send(request, body);
+    }
+
+    public static DataSource dataSource() {
+        return source;
+    }
+
+    public static void useDataSource(DataSource dataSource) {
+        source = dataSource == null ? LIVE : dataSource;
+    }
+
+    public static DataSource liveSource() {
+        return LIVE;
+    }
+
+    /**
+     * Waits for a permit of the request's provider (if it has a limit) and sends the request.
+     * A GET to a rate-limited provider is answered from the ResponseCache when possible, and otherwise joins an
+     * identical request already in flight instead of spending a permit; successful responses are cached.
+     */
+    private static HttpResponse<String> sendLive(HttpRequest request) throws IOException, InterruptedException {
+        // A cancelled caller (deadline, timeout) issues no further upstream calls
+        if (Thread.currentThread().isInterrupted()) throw new InterruptedException("request cancelled");
+        RateLimiter limiter = limiterFor(request.uri());
+        if (limiter == null || !"GET".equalsIgnoreCase(request.method())) {
+            return sendLimited(limiter, request);
+        }
+        String key = flightKey(request.uri());
+        String cached = ResponseCache.shared().get(key);
+        if (cached != null) {
+            return ResponseCache.asResponse(request, cached);
+        }
+        try {
+            return FLIGHTS.run(key, () -> {
+                HttpResponse<String> response = sendLimited(limiter, request);
+                if (response.statusCode() == 200) {
+                    ResponseCache.shared().put(key, request.uri(), response.body());
+                }
+                return response;
+            });
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Number of requests answered by another caller's identical in-flight request.
+     */
+    public static long coalescedRequests() {
+        return FLIGHTS.sharedCalls();
+    }
+
+    private static HttpResponse<String> sendLimited(RateLimiter limiter, HttpRequest request) throws IOException, InterruptedException {
+        if (limiter != null) limiter.acquire();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // The resource a request asks for: host, path and query without the credentials
+    // (apikey / token), so the key never holds a secret and callers with different keys still coalesce
+    static String flightKey(URI uri) {
+        StringBuilder key = new StringBuilder();
+        key.append(uri.getHost() == null ? "" : uri.getHost().toLowerCase()).append(uri.getRawPath() == null ? "" : uri.getRawPath());
+        String query = uri.getRawQuery();
+        if (query != null) {
+            char sep = '?';
+            for (String part : query.split("&")) {
+                int eq = part.indexOf('=');
+                String name = (eq < 0 ? part : part.substring(0, eq)).toLowerCase();
+                if (name.equals("apikey") || name.equals("token")) continue;
+                key.append(sep).append(part);
+                sep = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * A response that did not come from the network (cache hit, replay), in the shape callers of send expect.
+     */
+    static HttpResponse<String> response(HttpRequest request, int status, String body, String origin) {
+        return new HttpResponse<>() {
+            @Override public int statusCode() { return status; }
+            @Override public HttpRequest request() { return request; }
+            @Override public Optional<HttpResponse<String>> previousResponse() { return Optional.empty(); }
+            @Override public HttpHeaders headers() { return HttpHeaders.of(Map.of("X-Cache", List.of(origin)), (a, b) -> true); }
+            @Override public String body() { return body; }
+            @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+            @Override public URI uri() { return request.uri(); }
+            @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+        };
+    }
+
+    // null = no limit for this host
+    static RateLimiter limiterFor(URI uri) {
+        String host = uri == null ? null : uri.getHost();
+        if (host == null) return null;
+        host = host.toLowerCase();
+        if (host.equals("alphavantage.co") || host.endsWith(".alphavantage.co")) return ALPHA_VANTAGE;
+        if (host.equals("finnhub.io") || host.endsWith(".finnhub.io")) return FINNHUB;
+        return null;
+    }
+
+    private static RateLimiter limiterFromEnv(String rateVar, double defaultRate, String burstVar) {
+        double rate = defaultRate;
+        int burst = 1;
+        try {
+            String v = System.getenv(rateVar);
+            if (v != null && !v.isBlank()) rate = Double.parseDouble(v.trim());
+        } catch (Exception ignore) {
+        }
+        try {
+            String v = System.getenv(burstVar);
+            if (v != null && !v.isBlank()) burst = Integer.parseInt(v.trim());
+        } catch (Exception ignore) {
+        }
+        return rate > 0 ? new RateLimiter(rate, burst) : null;
+    }
+}
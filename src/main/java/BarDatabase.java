@@ -0,0 +1,542 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Daily bars of many symbols packed into one memory-mapped file (BAR_DB_FILE, default bar-db/bars.db), for scans
+ * over the whole universe without the network: every symbol is a contiguous slot of BarFile-format records, found
+ * through a symbol index that lives in the same mapping.
+ *
+ * Layout (big-endian):
+ *   header, 64 bytes: magic "BRDB", version, index capacity, symbol count, end of data (long)
+ *   index, 32 bytes per symbol: symbol (16 bytes ASCII, zero padded), slot offset (long), slot capacity, bar count
+ *   data, from the first 4 KB boundary after the index: the slots, 48-byte records oldest first
+ *
+ * A slot keeps room for about a year of appends; a symbol that outgrows it is moved to the end of the data and its
+ * old slot is left unused until compact(). The file is mapped in segments of up to 256 MB and a slot never crosses a
+ * segment. The heap holds only symbol -> index entry; bar data is read in place.
+ *
+ * Readers run in parallel; writes (put / append / sync / compact) are exclusive.
+ */
+public final class BarDatabase {
+
+    private static final int MAGIC = 0x42524442; // "BRDB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int ENTRY_BYTES = 32;
+    private static final int SYMBOL_BYTES = 16;
+    private static final int RECORD_BYTES = BarFile.RECORD_BYTES;
+    private static final long SEGMENT_BYTES = 256L << 20;
+    private static final int DEFAULT_INDEX_CAPACITY = 16384;
+    private static final int HEADROOM = 260; // about a year of trading days
+    private static final double MATCH_TOLERANCE = 1e-4;
+
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_COUNT = 12;
+    private static final int OFF_DATA_END = 16;
+
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> entries = new HashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private FileChannel channel;
+    private long mappedBytes;
+    private int indexCapacity;
+    private long dataStart;
+    private long dataEnd;
+
+    private static final class Holder {
+        static final BarDatabase SHARED = openShared();
+    }
+
+    private BarDatabase(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * The process-wide database, opened on first use; null if the file cannot be opened.
+     */
+    public static BarDatabase shared() {
+        return Holder.SHARED;
+    }
+
+    private static BarDatabase openShared() {
+        try {
+            return open(Paths.get(envOr("BAR_DB_FILE", "bar-db/bars.db")));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens the database file, creating an empty one if it does not exist.
+     */
+    public static BarDatabase open(Path file) throws IOException {
+        return open(file, DEFAULT_INDEX_CAPACITY);
+    }
+
+    // indexCapacity applies only when the file is created (compact() keeps the capacity of the file it rewrites)
+    private static BarDatabase open(Path file, int indexCapacity) throws IOException {
+        BarDatabase db = new BarDatabase(file);
+        db.load(indexCapacity);
+        return db;
+    }
+
+    private void load() throws IOException {
+        load(DEFAULT_INDEX_CAPACITY);
+    }
+
+    private void load(int newIndexCapacity) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        boolean fresh = !Files.exists(file) || Files.size(file) < HEADER_BYTES;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (fresh) {
+            indexCapacity = newIndexCapacity;
+            dataStart = align(HEADER_BYTES + (long) indexCapacity * ENTRY_BYTES, 4096);
+            dataEnd = dataStart;
+            ensureMapped(dataStart);
+            MappedByteBuffer h = segments.get(0);
+            h.putInt(0, MAGIC);
+            h.putInt(4, VERSION);
+            h.putInt(OFF_CAPACITY, indexCapacity);
+            h.putInt(OFF_COUNT, 0);
+            h.putLong(OFF_DATA_END, dataEnd);
+            return;
+        }
+        ensureMapped(channel.size());
+        MappedByteBuffer h = segments.get(0);
+        if (h.getInt(0) != MAGIC || h.getInt(4) != VERSION) throw new IOException("not a bar database: " + file);
+        indexCapacity = h.getInt(OFF_CAPACITY);
+        dataStart = align(HEADER_BYTES + (long) indexCapacity * ENTRY_BYTES, 4096);
+        dataEnd = h.getLong(OFF_DATA_END);
+        int count = h.getInt(OFF_COUNT);
+        for (int e = 0; e < count; e++) {
+            entries.put(entrySymbol(e), e);
+        }
+    }
+
+    // ---- reads ----
+
+    public List<String> symbols() {
+        lock.readLock().lock();
+        try {
+            List<String> out = new ArrayList<>(entries.size());
+            int count = segments.get(0).getInt(OFF_COUNT);
+            for (int e = 0; e < count; e++) out.add(entrySymbol(e));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String symbol) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(key(symbol));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Date of the symbol's last bar, or null if it has none.
+     */
+    public LocalDate lastDate(String symbol) {
+        lock.readLock().lock();
+        try {
+            Integer e = entries.get(key(symbol));
+            if (e == null || entryCount(e) == 0) return null;
+            return LocalDate.ofEpochDay(dayAt(entryOffset(e), entryCount(e) - 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Latest bar date over all symbols, or null for an empty database.
+     */
+    public LocalDate latestDate() {
+        lock.readLock().lock();
+        try {
+            int latest = Integer.MIN_VALUE;
+            for (int e : entries.values()) {
+                int n = entryCount(e);
+                if (n > 0) latest = Math.max(latest, dayAt(entryOffset(e), n - 1));
+            }
+            return latest == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(latest);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public BarSeries bars(String symbol) {
+        return tail(symbol, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The symbol's last n bars (empty if the symbol is not in the database).
+     */
+    public BarSeries tail(String symbol, int n) {
+        lock.readLock().lock();
+        try {
+            Integer e = entries.get(key(symbol));
+            if (e == null) return BarSeries.empty();
+            int count = entryCount(e);
+            return decode(entryOffset(e), Math.max(0, count - n), count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cross-section: every symbol's close on the given date, in index order; symbols without a bar that day are left out.
+     */
+    public Map<String, Double> closesOn(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        lock.readLock().lock();
+        try {
+            Map<String, Double> out = new LinkedHashMap<>();
+            int count = segments.get(0).getInt(OFF_COUNT);
+            for (int e = 0; e < count; e++) {
+                long offset = entryOffset(e);
+                int i = indexOfDay(offset, entryCount(e), day);
+                if (i >= 0) out.put(entrySymbol(e), closeAt(offset, i));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- writes ----
+
+    /**
+     * Replaces the symbol's history.
+     */
+    public void put(String symbol, BarSeries bars) throws IOException {
+        String sym = key(symbol);
+        lock.writeLock().lock();
+        try {
+            Integer e = entries.get(sym);
+            if (e != null && entryCapacity(e) >= bars.size()) {
+                long offset = entryOffset(e);
+                writeRecords(offset, 0, bars, 0, bars.size());
+                setEntry(e, sym, offset, entryCapacity(e), bars.size());
+                return;
+            }
+            // A new symbol needs an index entry: fail before a slot is reserved for it
+            if (e == null) requireIndexRoom();
+            int capacity = bars.size() + HEADROOM;
+            long offset = allocate(capacity);
+            writeRecords(offset, 0, bars, 0, bars.size());
+            if (e == null) e = newEntry(sym);
+            setEntry(e, sym, offset, capacity, bars.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the bars of the series that are newer than the symbol's last bar; returns how many were added.
+     * A symbol not yet in the database gets the whole series.
+     */
+    public int append(String symbol, BarSeries bars) throws IOException {
+        String sym = key(symbol);
+        lock.writeLock().lock();
+        try {
+            Integer e = entries.get(sym);
+            if (e == null) {
+                put(sym, bars);
+                return bars.size();
+            }
+            long offset = entryOffset(e);
+            int count = entryCount(e);
+            int lastDay = count == 0 ? Integer.MIN_VALUE : dayAt(offset, count - 1);
+            int from = 0;
+            while (from < bars.size() && bars.epochDay(from) <= lastDay) from++;
+            int add = bars.size() - from;
+            if (add == 0) return 0;
+            int capacity = entryCapacity(e);
+            if (count + add > capacity) {
+                // Outgrown: move the slot to the end of the data with fresh headroom
+                int newCapacity = count + add + HEADROOM;
+                long moved = allocate(newCapacity);
+                copyRecords(offset, moved, count);
+                offset = moved;
+                capacity = newCapacity;
+            }
+            writeRecords(offset, count, bars, from, bars.size());
+            setEntry(e, sym, offset, capacity, count + add);
+            return add;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the database up to date with the per-symbol BarStore files (no network): new days are appended,
+     * new symbols added, and a symbol whose stored history was restated is replaced. Returns the number of
+     * symbols that changed.
+     */
+    public int syncFrom(BarStore store) throws IOException {
+        int changed = 0;
+        for (String sym : store.symbols()) {
+            BarFile f = store.cached(sym);
+            if (f == null) continue;
+            LocalDate last = lastDate(sym);
+            if (last != null && !f.lastDate().isAfter(last)) continue;
+            if (last != null && lineUp(sym, f, last)) {
+                append(sym, f.toSeries(Math.max(0, f.indexOf((int) last.toEpochDay()) + 1), f.size()));
+            } else {
+                put(sym, f.toSeries());
+            }
+            changed++;
+        }
+        flush();
+        return changed;
+    }
+
+    // The store file still holds the database's last bar with the same close
+    private boolean lineUp(String sym, BarFile f, LocalDate last) {
+        int i = f.indexOf((int) last.toEpochDay());
+        if (i < 0) return false;
+        BarSeries mine = tail(sym, 1);
+        if (mine.isEmpty()) return false;
+        double a = mine.close(0), b = f.close(i);
+        return Math.abs(a - b) <= MATCH_TOLERANCE * Math.max(Math.abs(a), Math.abs(b)) + 1e-9;
+    }
+
+    /**
+     * Writes the mapped pages to disk.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer seg : segments) seg.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file without the slots left behind by moved symbols.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+            Files.deleteIfExists(tmp);
+            BarDatabase copy = open(tmp, indexCapacity);
+            int count = segments.get(0).getInt(OFF_COUNT);
+            for (int e = 0; e < count; e++) {
+                copy.put(entrySymbol(e), decode(entryOffset(e), 0, entryCount(e)));
+            }
+            copy.flush();
+            copy.channel.close();
+            channel.close();
+            segments.clear();
+            entries.clear();
+            mappedBytes = 0;
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public String stats() {
+        lock.readLock().lock();
+        try {
+            long used = 0;
+            for (int e : entries.values()) used += (long) entryCount(e) * RECORD_BYTES;
+            return String.format("symbols=%d dataMB=%.1f usedMB=%.1f segments=%d",
+                    entries.size(), (dataEnd - dataStart) / 1048576.0, used / 1048576.0, segments.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- index ----
+
+    private void requireIndexRoom() throws IOException {
+        if (segments.get(0).getInt(OFF_COUNT) >= indexCapacity) {
+            throw new IOException("bar database index is full (" + indexCapacity + " symbols)");
+        }
+    }
+
+    private int newEntry(String sym) throws IOException {
+        requireIndexRoom();
+        int e = segments.get(0).getInt(OFF_COUNT);
+        entries.put(sym, e);
+        return e;
+    }
+
+    // Writes the entry, then publishes the symbol count and end of data
+    private void setEntry(int e, String sym, long offset, int capacity, int count) {
+        MappedByteBuffer h = segments.get(0);
+        int p = HEADER_BYTES + e * ENTRY_BYTES;
+        byte[] b = sym.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < SYMBOL_BYTES; i++) h.put(p + i, i < b.length ? b[i] : 0);
+        h.putLong(p + 16, offset);
+        h.putInt(p + 24, capacity);
+        h.putInt(p + 28, count);
+        if (e >= h.getInt(OFF_COUNT)) h.putInt(OFF_COUNT, e + 1);
+        h.putLong(OFF_DATA_END, dataEnd);
+    }
+
+    private String entrySymbol(int e) {
+        MappedByteBuffer h = segments.get(0);
+        int p = HEADER_BYTES + e * ENTRY_BYTES;
+        byte[] b = new byte[SYMBOL_BYTES];
+        h.get(p, b);
+        int len = 0;
+        while (len < SYMBOL_BYTES && b[len] != 0) len++;
+        return new String(b, 0, len, StandardCharsets.US_ASCII);
+    }
+
+    private long entryOffset(int e) {
+        return segments.get(0).getLong(HEADER_BYTES + e * ENTRY_BYTES + 16);
+    }
+
+    private int entryCapacity(int e) {
+        return segments.get(0).getInt(HEADER_BYTES + e * ENTRY_BYTES + 24);
+    }
+
+    private int entryCount(int e) {
+        return segments.get(0).getInt(HEADER_BYTES + e * ENTRY_BYTES + 28);
+    }
+
+    // ---- records ----
+
+    private int dayAt(long offset, int i) {
+        long pos = offset + (long) i * RECORD_BYTES;
+        return segment(pos).getInt(local(pos));
+    }
+
+    private double closeAt(long offset, int i) {
+        long pos = offset + (long) i * RECORD_BYTES;
+        return segment(pos).getDouble(local(pos) + 32);
+    }
+
+    private int indexOfDay(long offset, int count, int day) {
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int d = dayAt(offset, mid);
+            if (d < day) lo = mid + 1;
+            else if (d > day) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private BarSeries decode(long offset, int from, int to) {
+        int n = Math.max(0, to - from);
+        int[] days = new int[n];
+        double[] open = new double[n], high = new double[n], low = new double[n], close = new double[n];
+        long[] volume = new long[n];
+        if (n > 0) {
+            MappedByteBuffer seg = segment(offset); // a slot never crosses a segment
+            int base = local(offset);
+            for (int k = 0; k < n; k++) {
+                int p = base + (from + k) * RECORD_BYTES;
+                days[k] = seg.getInt(p);
+                open[k] = seg.getDouble(p + 8);
+                high[k] = seg.getDouble(p + 16);
+                low[k] = seg.getDouble(p + 24);
+                close[k] = seg.getDouble(p + 32);
+                volume[k] = seg.getLong(p + 40);
+            }
+        }
+        return new BarSeries(days, open, high, low, close, volume);
+    }
+
+    private void writeRecords(long offset, int at, BarSeries bars, int from, int to) {
+        MappedByteBuffer seg = segment(offset);
+        int base = local(offset);
+        for (int i = from; i < to; i++) {
+            int p = base + (at + i - from) * RECORD_BYTES;
+            seg.putInt(p, bars.epochDay(i));
+            seg.putInt(p + 4, 0);
+            seg.putDouble(p + 8, bars.open(i));
+            seg.putDouble(p + 16, bars.high(i));
+            seg.putDouble(p + 24, bars.low(i));
+            seg.putDouble(p + 32, bars.close(i));
+            seg.putLong(p + 40, bars.volume(i));
+        }
+    }
+
+    private void copyRecords(long from, long to, int count) {
+        MappedByteBuffer src = segment(from);
+        MappedByteBuffer dst = segment(to);
+        int s = local(from), d = local(to);
+        for (int k = 0; k < count * RECORD_BYTES; k++) dst.put(d + k, src.get(s + k));
+    }
+
+    // ---- space ----
+
+    // Reserves a slot at the end of the data, starting a new segment if it would not fit in the current one
+    private long allocate(int capacity) throws IOException {
+        long bytes = (long) capacity * RECORD_BYTES;
+        if (bytes > SEGMENT_BYTES) throw new IOException("history too long for one segment");
+        long start = dataEnd;
+        if (local(start) + bytes > SEGMENT_BYTES) start = (start / SEGMENT_BYTES + 1) * SEGMENT_BYTES;
+        ensureMapped(start + bytes);
+        dataEnd = start + bytes;
+        return start;
+    }
+
+    // Maps [0, end); a file that must grow grows by at least a quarter (min 16 MB) so appends rarely remap
+    private void ensureMapped(long end) throws IOException {
+        if (end <= mappedBytes) return;
+        long size = channel.size();
+        long target = end <= size ? size : align(Math.max(end, size + Math.max(size / 4, 16L << 20)), 4096);
+        int last = (int) ((target - 1) / SEGMENT_BYTES);
+        for (int s = 0; s <= last; s++) {
+            long segStart = s * SEGMENT_BYTES;
+            long length = Math.min(target - segStart, SEGMENT_BYTES);
+            if (s < segments.size() && segments.get(s).capacity() == length) continue;
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, segStart, length);
+            if (s < segments.size()) segments.set(s, map);
+            else segments.add(map);
+        }
+        mappedBytes = target;
+    }
+
+    private MappedByteBuffer segment(long pos) {
+        return segments.get((int) (pos / SEGMENT_BYTES));
+    }
+
+    private static int local(long pos) {
+        return (int) (pos % SEGMENT_BYTES);
+    }
+
+    private static long align(long v, long to) {
+        return (v + to - 1) / to * to;
+    }
+
+    private static String key(String symbol) {
+        String sym = symbol == null ? "" : symbol.trim().toUpperCase();
+        if (sym.isEmpty()) throw new IllegalArgumentException("symbol is required");
+        return sym;
+    }
+
+    private static String envOr(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+}
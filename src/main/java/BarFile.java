@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Binary daily-bar file of one symbol, read through a read-only memory-mapped view: opening a file maps it and
+ * reads the header only, bars are read in place (epochDay(i), close(i), ...) and decoded into a BarSeries only
+ * for the range a caller asks for (toSeries / tail).
+ *
+ * Layout (big-endian):
+ *   header, 64 bytes: magic "BARS", version, symbol (16 bytes ASCII, zero padded), first epoch day, bar count
+ *   bars, 48 bytes each, oldest first: epoch day (int), padding (int), open, high, low, close (double), volume (long)
+ *
+ * A full write goes to a temp file that is moved over the old one, so an open view keeps seeing the old file.
+ * Appends write the new bars first and the new count last; a reader sees either the old or the new count.
+ */
+public final class BarFile {
+
+    private static final int MAGIC = 0x42415253; // "BARS"
+    private static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 48;
+    private static final int SYMBOL_BYTES = 16;
+    private static final int OFF_SYMBOL = 8;
+    private static final int OFF_FIRST_DAY = OFF_SYMBOL + SYMBOL_BYTES;
+    private static final int OFF_COUNT = OFF_FIRST_DAY + 4;
+
+    private final String symbol;
+    private final int count;
+    private final ByteBuffer data;
+
+    private BarFile(String symbol, int count, ByteBuffer data) {
+        this.symbol = symbol;
+        this.count = count;
+        this.data = data;
+    }
+
+    /**
+     * Maps an existing file; throws if it is missing or not a bar file.
+     */
+    public static BarFile open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) throw new IOException("not a bar file: " + file);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) throw new IOException("not a bar file: " + file);
+            int count = map.getInt(OFF_COUNT);
+            if (count < 0 || HEADER_BYTES + (long) count * RECORD_BYTES > size) throw new IOException("truncated bar file: " + file);
+            byte[] sym = new byte[SYMBOL_BYTES];
+            map.get(OFF_SYMBOL, sym);
+            int len = 0;
+            while (len < SYMBOL_BYTES && sym[len] != 0) len++;
+            return new BarFile(new String(sym, 0, len, StandardCharsets.US_ASCII), count, map);
+        }
+    }
+
+    /**
+     * A heap-backed view of the given bars, for when the store cannot write its file.
+     */
+    public static BarFile inMemory(String symbol, BarSeries bars) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + bars.size() * RECORD_BYTES);
+        buf.put(header(symbol, bars)).put(records(bars, 0, bars.size()));
+        return new BarFile(symbol, bars.size(), buf);
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int epochDay(int i) {
+        return data.getInt(at(i));
+    }
+
+    public LocalDate date(int i) {
+        return LocalDate.ofEpochDay(epochDay(i));
+    }
+
+    public LocalDate lastDate() {
+        return date(count - 1);
+    }
+
+    public double open(int i) {
+        return data.getDouble(at(i) + 8);
+    }
+
+    public double high(int i) {
+        return data.getDouble(at(i) + 16);
+    }
+
+    public double low(int i) {
+        return data.getDouble(at(i) + 24);
+    }
+
+    public double close(int i) {
+        return data.getDouble(at(i) + 32);
+    }
+
+    public long volume(int i) {
+        return data.getLong(at(i) + 40);
+    }
+
+    /**
+     * Index of the bar of the given epoch day, or (-(insertion point) - 1) like Arrays.binarySearch.
+     */
+    public int indexOf(int epochDay) {
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int d = epochDay(mid);
+            if (d < epochDay) lo = mid + 1;
+            else if (d > epochDay) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    public BarSeries toSeries() {
+        return toSeries(0, count);
+    }
+
+    /**
+     * The last n bars (all of them if there are fewer).
+     */
+    public BarSeries tail(int n) {
+        return toSeries(Math.max(0, count - n), count);
+    }
+
+    public BarSeries toSeries(int from, int to) {
+        int n = Math.max(0, to - from);
+        int[] days = new int[n];
+        double[] open = new double[n], high = new double[n], low = new double[n], close = new double[n];
+        long[] volume = new long[n];
+        for (int k = 0; k < n; k++) {
+            int p = at(from + k);
+            days[k] = data.getInt(p);
+            open[k] = data.getDouble(p + 8);
+            high[k] = data.getDouble(p + 16);
+            low[k] = data.getDouble(p + 24);
+            close[k] = data.getDouble(p + 32);
+            volume[k] = data.getLong(p + 40);
+        }
+        return new BarSeries(days, open, high, low, close, volume);
+    }
+
+    private static int at(int i) {
+        return HEADER_BYTES + i * RECORD_BYTES;
+    }
+
+    // ---- writing ----
+
+    /**
+     * Replaces the file with the given bars (temp file + atomic move).
+     */
+    public static void write(Path file, String symbol, BarSeries bars) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "bars", ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(ch, header(symbol, bars));
+                writeFully(ch, records(bars, 0, bars.size()));
+                ch.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Appends bars [from, bars.size()) after the current last bar; they must be newer than it.
+     */
+    public static void append(Path file, BarSeries bars, int from) throws IOException {
+        if (from >= bars.size()) return;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(4);
+            ch.read(count, OFF_COUNT);
+            count.flip();
+            int n = count.getInt();
+            ByteBuffer records = records(bars, from, bars.size());
+            ch.position(HEADER_BYTES + (long) n * RECORD_BYTES);
+            writeFully(ch, records);
+            ch.force(false);
+            count.clear();
+            count.putInt(n + bars.size() - from).flip();
+            ch.write(count, OFF_COUNT);
+        }
+    }
+
+    private static ByteBuffer header(String symbol, BarSeries bars) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION);
+        byte[] sym = symbol.getBytes(StandardCharsets.US_ASCII);
+        header.put(sym, 0, Math.min(sym.length, SYMBOL_BYTES));
+        header.putInt(OFF_FIRST_DAY, bars.isEmpty() ? 0 : bars.epochDay(0));
+        header.putInt(OFF_COUNT, bars.size());
+        header.clear();
+        return header;
+    }
+
+    private static ByteBuffer records(BarSeries bars, int from, int to) {
+        ByteBuffer buf = ByteBuffer.allocate((to - from) * RECORD_BYTES);
+        for (int i = from; i < to; i++) {
+            buf.putInt(bars.epochDay(i)).putInt(0)
+                    .putDouble(bars.open(i)).putDouble(bars.high(i)).putDouble(bars.low(i)).putDouble(bars.close(i))
+                    .putLong(bars.volume(i));
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+}
@@ -0,0 +1,182 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable columnar daily OHLCV series, ordered by date ascending.
+ * All columns are aligned by index: bar i is (epochDay[i], open[i], high[i], low[i], close[i], volume[i]).
+ * The primitive column accessors return the backing arrays to avoid copying; callers must treat them as read-only.
+ */
+public final class BarSeries {
+
+    private static final BarSeries EMPTY = new BarSeries(new int[0], new double[0], new double[0], new double[0], new double[0], new long[0]);
+
+    private final int[] epochDays;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    BarSeries(int[] epochDays, double[] open, double[] high, double[] low, double[] close, long[] volume) {
+        int n = epochDays.length;
+        if (open.length != n || high.length != n || low.length != n || close.length != n || volume.length != n) {
+            throw new IllegalArgumentException("columns must have equal length");
+        }
+        this.epochDays = epochDays;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public static BarSeries empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return close.length;
+    }
+
+    public boolean isEmpty() {
+        return close.length == 0;
+    }
+
+    public int epochDay(int i) {
+        return epochDays[i];
+    }
+
+    public LocalDate date(int i) {
+        return LocalDate.ofEpochDay(epochDays[i]);
+    }
+
+    public double open(int i) {
+        return open[i];
+    }
+
+    public double high(int i) {
+        return high[i];
+    }
+
+    public double low(int i) {
+        return low[i];
+    }
+
+    public double close(int i) {
+        return close[i];
+    }
+
+    public long volume(int i) {
+        return volume[i];
+    }
+
+    public double lastClose() {
+        return close[close.length - 1];
+    }
+
+    // Read-only views of the backing columns (not copied)
+    public int[] epochDays() {
+        return epochDays;
+    }
+
+    public double[] opens() {
+        return open;
+    }
+
+    public double[] highs() {
+        return high;
+    }
+
+    public double[] lows() {
+        return low;
+    }
+
+    public double[] closes() {
+        return close;
+    }
+
+    public long[] volumes() {
+        return volume;
+    }
+
+    // Boxed copies for the List-based indicator APIs
+    public List<Double> closeList() {
+        return doubleList(close);
+    }
+
+    public List<Double> highList() {
+        return doubleList(high);
+    }
+
+    public List<Double> lowList() {
+        return doubleList(low);
+    }
+
+    public List<Long> volumeList() {
+        return longList(volume);
+    }
+
+    /**
+     * Closing prices keyed by ISO date (yyyy-MM-dd), ordered ascending.
+     */
+    public Map<String, Double> closeByDate() {
+        if (isEmpty()) return Collections.emptyMap();
+        Map<String, Double> out = new TreeMap<>();
+        for (int i = 0; i < close.length; i++) {
+            out.put(LocalDate.ofEpochDay(epochDays[i]).toString(), close[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Resamples the daily bars into weekly bars (Monday-Sunday weeks), the way the weekly endpoints build them:
+     * first open, highest high, lowest low, last close and total volume, dated by the week's last trading day.
+     * The current week is included as a partial bar.
+     */
+    public BarSeries toWeekly() {
+        int n = size();
+        int[] days = new int[n];
+        double[] o = new double[n], h = new double[n], l = new double[n], c = new double[n];
+        long[] v = new long[n];
+        int w = -1;
+        long week = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            long monday = epochDays[i] - Math.floorMod(epochDays[i] + 3, 7); // epoch day 0 was a Thursday
+            if (monday != week) {
+                week = monday;
+                w++;
+                o[w] = open[i];
+                h[w] = high[i];
+                l[w] = low[i];
+            } else {
+                h[w] = Math.max(h[w], high[i]);
+                l[w] = Math.min(l[w], low[i]);
+            }
+            days[w] = epochDays[i];
+            c[w] = close[i];
+            v[w] += volume[i];
+        }
+        int count = w + 1;
+        return new BarSeries(Arrays.copyOf(days, count), Arrays.copyOf(o, count), Arrays.copyOf(h, count),
+                Arrays.copyOf(l, count), Arrays.copyOf(c, count), Arrays.copyOf(v, count));
+    }
+
+    private static List<Double> doubleList(double[] values) {
+        if (values.length == 0) return Collections.emptyList();
+        List<Double> out = new ArrayList<>(values.length);
+        for (double v : values) out.add(v);
+        return Collections.unmodifiableList(out);
+    }
+
+    private static List<Long> longList(long[] values) {
+        if (values.length == 0) return Collections.emptyList();
+        List<Long> out = new ArrayList<>(values.length);
+        for (long v : values) out.add(v);
+        return Collections.unmodifiableList(out);
+    }
+}
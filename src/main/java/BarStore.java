@@ -0,0 +1,291 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local per-symbol store of the full daily history (BAR_STORE_DIR, default bar-store/, one BarFile per symbol).
+ * A parsed series is written once in binary and read back through a memory-mapped view, so loading years of bars
+ * costs no JSON parsing, and callers that need only the recent bars (tail) decode only those. The mapped view of
+ * each symbol is kept and replaced only when the store writes or appends to its file, so a read does not remap.
+ * The analyses read ANALYSIS_BARS through tail(); the full history is decoded only for callers that ask for it.
+ *
+ * The first load of a symbol fetches the full series once. After that a refresh fetches only the compact series
+ * (last ~100 bars) and appends the new days, and nothing at all is fetched while the stored series already has the
+ * last published session (NyseCalendar). The compact bars that overlap the stored ones must match them: a restated
+ * history (provider correction) or a gap the compact window cannot bridge triggers a full reload instead of a merge.
+ * Only published sessions are stored: a bar dated after the last published session (the session in progress, whose
+ * close still moves) is dropped from every fetch, so it never becomes part of the history.
+ *
+ * The bars are stored as TIME_SERIES_DAILY reports them (not split-adjusted; the adjusted series needs a premium
+ * key). Splits are not guessed from price gaps, which a crash or a gap up would fake: a provider restatement of the
+ * overlap still triggers the full reload above.
+ *
+ * Loads of the same symbol are serialized; different symbols load in parallel.
+ */
+public final class BarStore {
+
+    // Overlapping closes may differ by rounding only; anything larger is a restated history
+    private static final double MATCH_TOLERANCE = 1e-4;
+
+    /**
+     * Daily bars an analysis reads (about a year of sessions): enough for every indicator the scanners,
+     * the weekly summary and the single-symbol analysis use to settle.
+     */
+    public static final int ANALYSIS_BARS = 260;
+
+    private static final BarStore SHARED = new BarStore(Paths.get(envOr("BAR_STORE_DIR", "bar-store")));
+
+    private final Path dir;
+    private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+    // Current view per symbol; replaced after every write/append of its file
+    private final ConcurrentHashMap<String, BarFile> views = new ConcurrentHashMap<>();
+
+    public BarStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public static BarStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * Daily bars of the symbol, oldest first, brought up to date through the default DataFetcher.
+     */
+    public BarSeries bars(String symbol) throws IOException {
+        return view(symbol, DataFetcher.defaultClient()).toSeries();
+    }
+
+    /**
+     * Daily bars of the symbol, oldest first, brought up to date through the given fetcher.
+     * If the refresh fails the stored history is returned as is; with no stored history the failure is thrown
+     * (the message carries the Alpha Vantage note, usually the rate limit).
+     */
+    public BarSeries bars(String symbol, DataFetcher data) throws IOException {
+        return view(symbol, data).toSeries();
+    }
+
+    /**
+     * The last n daily bars of the symbol; only those are decoded.
+     */
+    public BarSeries tail(String symbol, int n) throws IOException {
+        return view(symbol, DataFetcher.defaultClient()).tail(n);
+    }
+
+    /**
+     * The last n daily bars of the symbol, brought up to date through the given fetcher; only those are decoded.
+     */
+    public BarSeries tail(String symbol, DataFetcher data, int n) throws IOException {
+        return view(symbol, data).tail(n);
+    }
+
+    /**
+     * Up-to-date view of the symbol's bars (mapped from the store file; in memory if the file cannot be written).
+     */
+    public BarFile view(String symbol, DataFetcher data) throws IOException {
+        String sym = symbol == null ? "" : symbol.trim().toUpperCase();
+        if (sym.isEmpty()) throw new IllegalArgumentException("symbol is required");
+        synchronized (locks.computeIfAbsent(sym, k -> new Object())) {
+            Path file = fileFor(sym);
+            BarFile stored = stored(sym, file);
+            if (stored != null && isCurrent(stored)) return stored;
+            try {
+                BarFile updated = stored == null ? reload(sym, file, data) : refresh(sym, file, stored, data);
+                views.put(sym, updated);
+                return updated;
+            } catch (IOException e) {
+                if (stored != null) return stored;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Stored history without any refresh, or null if the symbol is not in the store.
+     */
+    public BarFile cached(String symbol) {
+        String sym = symbol.trim().toUpperCase();
+        return stored(sym, fileFor(sym));
+    }
+
+    /**
+     * Symbols that have a stored history.
+     */
+    public List<String> symbols() {
+        List<String> out = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.bars")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                out.add(name.substring(0, name.length() - ".bars".length()));
+            }
+        } catch (Exception ignore) {
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    /**
+     * Drops the stored history; the next load fetches the full series again.
+     */
+    public void invalidate(String symbol) {
+        String sym = symbol.trim().toUpperCase();
+        synchronized (locks.computeIfAbsent(sym, k -> new Object())) {
+            views.remove(sym);
+            try {
+                Files.deleteIfExists(fileFor(sym));
+            } catch (Exception ignore) {
+            }
+        }
+    }
+
+    private static boolean isCurrent(BarFile stored) {
+        LocalDate expected = NyseCalendar.lastPublishedSession(ZonedDateTime.now(NyseCalendar.NY));
+        return !stored.lastDate().isBefore(expected);
+    }
+
+    // ---- refresh ----
+
+    private BarFile refresh(String sym, Path file, BarFile stored, DataFetcher data) throws IOException {
+        BarSeries compact = published(parse(data.fetchStockData(sym)));
+        int from = newBarsFrom(stored, compact);
+        if (from < 0) return reload(sym, file, data);
+        if (from == compact.size()) return stored;
+        try {
+            BarFile.append(file, compact, from);
+            BarFile updated = open(file);
+            if (updated != null) return updated;
+        } catch (IOException ignore) {
+            // fall through to a full rewrite
+        }
+        return save(sym, file, concat(stored.toSeries(), compact, from));
+    }
+
+    // Full history; keys without outputsize=full get the compact window (DataFetcher), which still makes a usable start
+    private BarFile reload(String sym, Path file, DataFetcher data) throws IOException {
+        BarSeries bars = published(parse(data.fetchStockData(sym, true)));
+        return save(sym, file, bars);
+    }
+
+    private BarFile save(String sym, Path file, BarSeries bars) {
+        try {
+            BarFile.write(file, sym, bars);
+            BarFile written = open(file);
+            if (written != null) return written;
+        } catch (IOException ignore) {
+        }
+        return BarFile.inMemory(sym, bars);
+    }
+
+    private static BarSeries parse(String json) throws IOException {
+        BarSeries bars;
+        try {
+            bars = PriceJsonParser.parseDailyBars(json);
+        } catch (Exception e) {
+            bars = BarSeries.empty();
+        }
+        if (bars.isEmpty()) {
+            String svc = json == null ? null : PriceJsonParser.extractServiceMessage(json);
+            if (svc != null && !svc.isEmpty()) throw new IOException("Alpha Vantage: " + svc);
+            throw new IOException(json != null && json.startsWith("Error") ? json : "no daily bars in the response");
+        }
+        return bars;
+    }
+
+    // The bars up to the last published session; an empty result means the fetch had nothing usable
+    private static BarSeries published(BarSeries bars) throws IOException {
+        int last = (int) NyseCalendar.lastPublishedSession(ZonedDateTime.now(NyseCalendar.NY)).toEpochDay();
+        int n = bars.size();
+        while (n > 0 && bars.epochDay(n - 1) > last) n--;
+        if (n == bars.size()) return bars;
+        if (n == 0) throw new IOException("no published sessions in the response");
+        return new BarSeries(Arrays.copyOf(bars.epochDays(), n), Arrays.copyOf(bars.opens(), n),
+                Arrays.copyOf(bars.highs(), n), Arrays.copyOf(bars.lows(), n), Arrays.copyOf(bars.closes(), n),
+                Arrays.copyOf(bars.volumes(), n));
+    }
+
+    /**
+     * Index of the first bar of the fresh series after the stored history (fresh.size() if there is none), or -1 if
+     * the two do not line up (restated overlap, or no overlap at all).
+     */
+    static int newBarsFrom(BarFile stored, BarSeries fresh) {
+        int lastDay = stored.epochDay(stored.size() - 1);
+        if (fresh.epochDay(0) > lastDay) return -1; // gap: days between the two may be missing
+
+        int firstDay = stored.epochDay(0);
+        int overlap = 0;
+        for (int i = 0; i < fresh.size(); i++) {
+            int day = fresh.epochDay(i);
+            if (day > lastDay) return overlap == 0 ? -1 : i;
+            int j = stored.indexOf(day);
+            if (j < 0) {
+                // A day the stored history does not know, inside its range
+                if (day >= firstDay) return -1;
+                continue;
+            }
+            if (!matches(stored.close(j), fresh.close(i))) return -1;
+            overlap++;
+        }
+        return overlap == 0 ? -1 : fresh.size();
+    }
+
+    private static boolean matches(double a, double b) {
+        return Math.abs(a - b) <= MATCH_TOLERANCE * Math.max(Math.abs(a), Math.abs(b)) + 1e-9;
+    }
+
+    private static BarSeries concat(BarSeries head, BarSeries fresh, int from) {
+        int n = head.size();
+        int add = fresh.size() - from;
+        int[] days = Arrays.copyOf(head.epochDays(), n + add);
+        double[] open = Arrays.copyOf(head.opens(), n + add);
+        double[] high = Arrays.copyOf(head.highs(), n + add);
+        double[] low = Arrays.copyOf(head.lows(), n + add);
+        double[] close = Arrays.copyOf(head.closes(), n + add);
+        long[] volume = Arrays.copyOf(head.volumes(), n + add);
+        System.arraycopy(fresh.epochDays(), from, days, n, add);
+        System.arraycopy(fresh.opens(), from, open, n, add);
+        System.arraycopy(fresh.highs(), from, high, n, add);
+        System.arraycopy(fresh.lows(), from, low, n, add);
+        System.arraycopy(fresh.closes(), from, close, n, add);
+        System.arraycopy(fresh.volumes(), from, volume, n, add);
+        return new BarSeries(days, open, high, low, close, volume);
+    }
+
+    // ---- files ----
+
+    // The kept view, or the file mapped once (and kept) on the first read
+    private BarFile stored(String sym, Path file) {
+        BarFile view = views.get(sym);
+        if (view != null) return view;
+        view = open(file);
+        if (view != null) views.putIfAbsent(sym, view);
+        return view;
+    }
+
+    private Path fileFor(String sym) {
+        return dir.resolve(sym.replaceAll("[^A-Z0-9._-]", "_") + ".bars");
+    }
+
+    // null if missing, empty or unreadable (a damaged file is simply fetched again)
+    private static BarFile open(Path file) {
+        try {
+            if (!Files.exists(file)) return null;
+            BarFile f = BarFile.open(file);
+            return f.isEmpty() ? null : f;
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    private static String envOr(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+}
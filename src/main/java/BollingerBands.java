@@ -1,21 +1,7 @@
-
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class BollingerBands {
 
-    /**
-     * מחשב סטיית תקן (Standard Deviation) עבור חלון נתון.
-     */
-    private static double calculateStdDev(List<Double> sublist) {
-        if (sublist.isEmpty()) return 0;
-
-        double mean = sublist.stream().mapToDouble(a -> a).average().getAsDouble();
-        double variance = sublist.stream().mapToDouble(a -> Math.pow(a - mean, 2)).sum() / sublist.size();
-        return Math.sqrt(variance);
-    }
-
     /**
      * מחשב את שלוש רצועות בולינגר: עליונה, אמצעית (SMA), ותחתונה.
      * @param prices רשימת מחירי הסגירה.
@@ -24,30 +10,51 @@ public class BollingerBands {
      * @return רשימה של Double[] כאשר [0]=Upper Band, [1]=Middle Band (SMA), [2]=Lower Band.
      */
     public static List<Double[]> calculateBands(List<Double> prices, int period, double numStdDevs) {
+        int n = prices.size();
+        double[] upper = new double[n];
+        double[] middle = new double[n];
+        double[] lower = new double[n];
+        calculateBands(IndicatorArrays.toArray(prices, 0.0), period, numStdDevs, upper, middle, lower);
+        return IndicatorArrays.toRows(upper, middle, lower);
+    }
 
-        List<Double[]> bandValues = new ArrayList<>();
+    /**
+     * גרסה פרימיטיבית של רצועות בולינגר: כותבת למערכי הפלט של הקורא, NaN עד period-1.
+     * @param prices מחירי הסגירה.
+     * @param period תקופת החישוב (לרוב 20).
+     * @param numStdDevs מספר סטיות התקן (לרוב 2).
+     * @param upperOut מערך פלט לרצועה העליונה.
+     * @param middleOut מערך פלט לרצועה האמצעית (SMA).
+     * @param lowerOut מערך פלט לרצועה התחתונה.
+     */
+    public static void calculateBands(double[] prices, int period, double numStdDevs,
+                                      double[] upperOut, double[] middleOut, double[] lowerOut) {
+        int n = prices.length;
+        IndicatorArrays.requireOutput(upperOut, n);
+        IndicatorArrays.requireOutput(lowerOut, n);
 
         // קודם נחשב את ה-SMA (Middle Band) ואז את סטיות התקן
-        List<Double> middleBand = TechnicalAnalysisModel.calculateSMA(prices, period);
+        TechnicalAnalysisModel.calculateSMA(prices, period, middleOut);
+        if (period <= 0) {
+            java.util.Arrays.fill(upperOut, 0, n, Double.NaN);
+            java.util.Arrays.fill(lowerOut, 0, n, Double.NaN);
+            return;
+        }
 
-        for (int i = 0; i < prices.size(); i++) {
-            if (middleBand.get(i) == null) {
-                bandValues.add(new Double[]{null, null, null});
+        // סטיית התקן מתעדכנת בחלון מתגלגל ב-O(1) לכל יום במקום מעבר על כל החלון
+        RollingStats window = new RollingStats(period);
+        for (int i = 0; i < n; i++) {
+            window.add(prices[i]);
+            double sma = middleOut[i];
+            if (Double.isNaN(sma)) {
+                upperOut[i] = Double.NaN;
+                lowerOut[i] = Double.NaN;
                 continue;
             }
 
-            // קבלת נתוני המחיר לחלון הנוכחי
-            List<Double> sublist = prices.subList(i - period + 1, i + 1);
-
-            double stdDev = calculateStdDev(sublist);
-            double sma = middleBand.get(i);
-
-            double upper = sma + (stdDev * numStdDevs);
-            double lower = sma - (stdDev * numStdDevs);
-
-            // [Upper Band, Middle Band (SMA), Lower Band]
-            bandValues.add(new Double[]{upper, sma, lower});
+            double stdDev = window.stdDev();
+            upperOut[i] = sma + (stdDev * numStdDevs);
+            lowerOut[i] = sma - (stdDev * numStdDevs);
         }
-        return bandValues;
     }
-}
\ No newline at end of file
+}
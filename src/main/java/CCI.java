@@ -1,10 +1,22 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 
 public class CCI {
 
+    // סטייה קטנה מזו ביחס לממוצע היא רעש עיגול (חלון שטוח) ונחשבת 0
+    private static final double FLAT_WINDOW_TOLERANCE = 1e-12;
+
+    /**
+     * מדד הפיזור שבמכנה הנוסחה.
+     * STANDARD - סטיית תקן (אוכלוסייה), ההתנהגות ההיסטורית של המחלקה וברירת המחדל.
+     * MEAN_ABSOLUTE - סטייה ממוצעת מוחלטת, ההגדרה המקורית של Lambert.
+     */
+    public enum Deviation {
+        STANDARD,
+        MEAN_ABSOLUTE
+    }
+
     /**
      * מחשב את אינדיקטור Commodity Channel Index (CCI).
      * @param highPrices רשימת מחירי שיא.
@@ -14,50 +26,141 @@ public class CCI {
      * @return רשימה של ערכי CCI.
      */
     public static List<Double> calculateCCI(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices, int period) {
+        return calculateCCI(highPrices, lowPrices, closingPrices, period, Deviation.STANDARD);
+    }
+
+    /**
+     * כמו calculateCCI, עם בחירת מדד הפיזור.
+     * @param deviation STANDARD (סטיית תקן) או MEAN_ABSOLUTE (סטייה ממוצעת מוחלטת).
+     */
+    public static List<Double> calculateCCI(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices,
+                                            int period, Deviation deviation) {
+        if (closingPrices.size() < period) {
+            return new ArrayList<>();
+        }
+        double[] out = new double[closingPrices.size()];
+        calculateCCI(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices),
+                IndicatorArrays.toArray(closingPrices), period, deviation, out);
+        return IndicatorArrays.toList(out);
+    }
 
-        List<Double> cciValues = new ArrayList<>();
-        int dataSize = closingPrices.size();
+    /**
+     * גרסה פרימיטיבית של CCI: כותבת למערך הפלט של הקורא, NaN עד period-1.
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param closingPrices מחירי סגירה.
+     * @param period תקופת החישוב (לרוב 20).
+     * @param out מערך פלט באורך closingPrices.length לפחות.
+     */
+    public static void calculateCCI(double[] highPrices, double[] lowPrices, double[] closingPrices, int period, double[] out) {
+        calculateCCI(highPrices, lowPrices, closingPrices, period, Deviation.STANDARD, out);
+    }
 
-        if (dataSize < period) {
-            return cciValues;
+    /**
+     * גרסה פרימיטיבית של CCI עם בחירת מדד הפיזור. שני המצבים ב-O(n) / O(n log n) ולא O(n * period).
+     */
+    public static void calculateCCI(double[] highPrices, double[] lowPrices, double[] closingPrices, int period,
+                                    Deviation deviation, double[] out) {
+        int dataSize = closingPrices.length;
+        IndicatorArrays.requireOutput(out, dataSize);
+        java.util.Arrays.fill(out, 0, dataSize, Double.NaN);
+        if (period <= 0 || dataSize < period) {
+            return;
         }
 
         // 1. חישוב המחיר הטיפוסי (TP = High + Low + Close / 3)
-        List<Double> typicalPrices = new ArrayList<>();
+        double[] typicalPrices = new double[dataSize];
         for (int i = 0; i < dataSize; i++) {
-            double tp = (highPrices.get(i) + lowPrices.get(i) + closingPrices.get(i)) / 3.0;
-            typicalPrices.add(tp);
+            typicalPrices[i] = (highPrices[i] + lowPrices[i] + closingPrices[i]) / 3.0;
         }
 
         // 2. חישוב CCI לכל יום
+        if (deviation == Deviation.MEAN_ABSOLUTE) {
+            meanAbsoluteDeviationCCI(typicalPrices, period, out);
+            return;
+        }
+        RollingStats window = new RollingStats(period);
         for (int i = 0; i < dataSize; i++) {
-            if (i < period - 1) {
-                cciValues.add(null);
-                continue;
+            window.add(typicalPrices[i]);
+            if (i >= period - 1) {
+                out[i] = cci(typicalPrices[i], window.mean(), window.stdDev());
             }
+        }
+    }
 
-            // החלון הנוכחי לחישוב (N ימים)
-            List<Double> windowTP = typicalPrices.subList(i - period + 1, i + 1);
+    // הנוסחה: CCI = (TP - MeanTP) / (0.015 * Deviation)
+    static double cci(double typicalPrice, double meanTP, double deviation) {
+        if (deviation == 0 || deviation <= FLAT_WINDOW_TOLERANCE * Math.abs(meanTP)) {
+            return 0;
+        }
+        return (typicalPrice - meanTP) / (0.015 * deviation);
+    }
 
-            // חישוב הממוצע הטיפוסי (Mean Deviation)
-            double meanTP = windowTP.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
+    /**
+     * CCI עם סטייה ממוצעת מוחלטת: MD = (1/period) * Σ|TP - MeanTP|.
+     * הממוצע זז בכל יום ולכן אי אפשר לגלגל את הסכום ישירות; במקום זה שני עצי Fenwick לפי דירוג המחירים
+     * (ספירה וסכום) נותנים את ספירת וסכום הערכים שמתחת לממוצע ב-O(log n), ומאחר ש-Σ(TP - Mean) = 0
+     * מתקיים Σ|TP - Mean| = 2 * (Mean * countBelow - sumBelow).
+     */
+    static void meanAbsoluteDeviationCCI(double[] typicalPrices, int period, double[] out) {
+        int n = typicalPrices.length;
 
-            // חישוב סטיית תקן (Mean Deviation) של המחירים הטיפוסיים בחלון
-            StandardDeviation sd = new StandardDeviation(false); // false = ללא תיקון דרגות חופש
-            double meanDeviation = sd.evaluate(windowTP.stream().mapToDouble(Double::doubleValue).toArray());
+        // דירוג המחירים (coordinate compression)
+        double[] sorted = typicalPrices.clone();
+        java.util.Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || Double.compare(sorted[i], sorted[distinct - 1]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[i] = java.util.Arrays.binarySearch(sorted, 0, distinct, typicalPrices[i]) + 1;
+        }
 
-            // 3. חישוב CCI
-            Double currentTP = typicalPrices.get(i);
+        int[] countTree = new int[distinct + 1];
+        double[] sumTree = new double[distinct + 1];
+        RollingStats window = new RollingStats(period);
 
-            // הנוסחה: CCI = (TP - MeanTP) / (0.015 * MeanDeviation)
-            double cci = 0;
-            if (meanDeviation != 0) {
-                cci = (currentTP - meanTP) / (0.015 * meanDeviation);
+        for (int i = 0; i < n; i++) {
+            double tp = typicalPrices[i];
+            window.add(tp);
+            for (int r = rank[i]; r <= distinct; r += r & -r) {
+                countTree[r]++;
+                sumTree[r] += tp;
+            }
+            if (i >= period) {
+                double old = typicalPrices[i - period];
+                for (int r = rank[i - period]; r <= distinct; r += r & -r) {
+                    countTree[r]--;
+                    sumTree[r] -= old;
+                }
             }
+            if (i < period - 1) continue;
 
-            cciValues.add(cci);
+            double mean = window.mean();
+            // מספר הערכים השונים שקטנים ממש מהממוצע
+            int below = lowerBound(sorted, distinct, mean);
+            int countBelow = 0;
+            double sumBelow = 0;
+            for (int r = below; r > 0; r -= r & -r) {
+                countBelow += countTree[r];
+                sumBelow += sumTree[r];
+            }
+            double meanDeviation = countBelow == 0 ? 0 : Math.max(0, 2 * (mean * countBelow - sumBelow) / period);
+            out[i] = cci(tp, mean, meanDeviation);
         }
+    }
 
-        return cciValues;
+    private static int lowerBound(double[] sorted, int length, double key) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
     }
-}
\ No newline at end of file
+}
@@ -14,52 +14,56 @@ public class CMF {
      * @return רשימה של ערכי CMF.
      */
     public static List<Double> calculateCMF(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices, List<Long> volumeData, int period) {
-
-        List<Double> cmfValues = new ArrayList<>();
         if (closingPrices.size() < period) {
-            return cmfValues;
+            return new ArrayList<>();
         }
+        double[] out = new double[closingPrices.size()];
+        calculateCMF(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices),
+                IndicatorArrays.toArray(closingPrices), IndicatorArrays.toLongArray(volumeData), period, out);
+        return IndicatorArrays.toList(out);
+    }
 
-        // חישוב Money Flow Multiplier (MFM) ו-Money Flow Volume (MFV)
-        List<Double> mfvValues = new ArrayList<>();
-
-        for (int i = 0; i < closingPrices.size(); i++) {
-            double high = highPrices.get(i);
-            double low = lowPrices.get(i);
-            double close = closingPrices.get(i);
-            long volume = volumeData.get(i);
-
-            // 1. Money Flow Multiplier (MFM)
-            double highMinusLow = high - low;
-            double mfm = 0;
-            if (highMinusLow > 0) {
-                mfm = ((close - low) - (high - close)) / highMinusLow;
-            }
-
-            // 2. Money Flow Volume (MFV)
-            mfvValues.add(mfm * volume);
+    /**
+     * גרסה פרימיטיבית של CMF: כותבת למערך הפלט של הקורא, NaN עד period-1.
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param closingPrices מחירי סגירה.
+     * @param volumeData נפחי המסחר.
+     * @param period תקופת החישוב (לרוב 20).
+     * @param out מערך פלט באורך closingPrices.length לפחות.
+     */
+    public static void calculateCMF(double[] highPrices, double[] lowPrices, double[] closingPrices, long[] volumeData, int period, double[] out) {
+        int n = closingPrices.length;
+        IndicatorArrays.requireOutput(out, n);
+        java.util.Arrays.fill(out, 0, n, Double.NaN);
+        if (n < period) {
+            return;
         }
 
-        // 3. חישוב CMF: (סכום MFV לתקופה) / (סכום Volume לתקופה)
-        for (int i = 0; i < closingPrices.size(); i++) {
-            if (i < period - 1) {
-                cmfValues.add(null);
-                continue;
-            }
+        // חישוב Money Flow Volume (MFV) לכל יום
+        double[] mfvValues = new double[n];
+        for (int i = 0; i < n; i++) {
+            mfvValues[i] = moneyFlowMultiplier(highPrices[i], lowPrices[i], closingPrices[i]) * volumeData[i];
+        }
 
-            // חישוב סכום MFV וסכום Volume בחלון הנוכחי
+        // חישוב CMF: (סכום MFV לתקופה) / (סכום Volume לתקופה)
+        for (int i = period - 1; i < n; i++) {
             double sumMFV = 0;
             long sumVolume = 0;
-
             for (int j = i - period + 1; j <= i; j++) {
-                sumMFV += mfvValues.get(j);
-                sumVolume += volumeData.get(j);
+                sumMFV += mfvValues[j];
+                sumVolume += volumeData[j];
             }
-
-            double cmf = (sumVolume > 0) ? sumMFV / sumVolume : 0.0;
-            cmfValues.add(cmf);
+            out[i] = (sumVolume > 0) ? sumMFV / sumVolume : 0.0;
         }
+    }
 
-        return cmfValues;
+    // Money Flow Multiplier (MFM): היכן נסגר המחיר ביחס לטווח היומי
+    static double moneyFlowMultiplier(double high, double low, double close) {
+        double highMinusLow = high - low;
+        if (highMinusLow > 0) {
+            return ((close - low) - (high - close)) / highMinusLow;
+        }
+        return 0;
     }
-}
\ No newline at end of file
+}
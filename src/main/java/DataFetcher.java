@@ -1,27 +1,49 @@
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Client for the market data APIs. Every call takes its symbol explicitly, so one instance can be shared by
+ * any number of concurrent analyses (there is no "current ticker" state).
+ */
 public class DataFetcher {
 
     // יש להחליף ב-API Key אמיתי!
     private static final String API_KEY = "DH6B36IUFEU8MFGY";
-    private static String TICKER = "BIIB";
     // בתוך DataFetcher.java
 
     // משתנים סטטיים חדשים
     private static final String NEWS_API_KEY = "DH6B36IUFEU8MFGY"; // TODO: replace with real premium key or env var
     private static final String NEWS_API_URL = "https://api.premiumnews.com/news/";
 
+    private static final DataFetcher DEFAULT = new DataFetcher(API_KEY);
+
+    // Keys that got the premium notice for outputsize=full; they are asked for the compact series right away
+    private static final Set<String> NO_FULL_HISTORY = ConcurrentHashMap.newKeySet();
+
+    private final String apiKey;
+
+    public DataFetcher(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    public static DataFetcher defaultClient() {
+        return DEFAULT;
+    }
+
     // הוספת מתודות חדשות:
-    public static String fetchSentimentData(String ticker) {
+    public String fetchSentimentData(String ticker) {
         // קריאה ל-API חיצוני לנתוני סנטימנט
         // לדוגמה: /sentiment?symbol=AAPL&apikey=...
         String url = NEWS_API_URL + "sentiment?symbol=" + ticker + "&apikey=" + NEWS_API_KEY;
         // לוגיקת קריאה לרשת והחזרת JSON (אופציונלי בלבד)
         try {
             return makeApiCall(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             // אם ה-API הפרימיום לא זמין (למשל 302/401) נחזיר null כדי לא לשבור את הסורק
             // שומרים על שקט לוגי כדי לא לזהם את פלט ה-Finder
@@ -30,60 +52,77 @@ public class DataFetcher {
     }
 
     // Alpha Vantage NEWS_SENTIMENT for a single ticker (used only in single-symbol analysis)
-    public static String fetchNewsSentiment(String ticker) {
-        if (ticker == null || ticker.isBlank()) {
-            ticker = TICKER; // fallback to last-set global ticker
-        }
+    public String fetchNewsSentiment(String ticker) {
+        ticker = requireSymbol(ticker);
 
         String url = String.format(
                 "https://www.alphavantage.co/query?function=NEWS_SENTIMENT&tickers=%s&sort=LATEST&limit=50&apikey=%s",
                 ticker.toUpperCase(),
-                API_KEY
+                apiKey
         );
 
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
 
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
             if (response.statusCode() == 200) {
                 return response.body();
             }
             // non-200: treat as no data
             return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             // network/API failure: treat as no data so core analysis still runs
             return null;
         }
     }
 
-    public static String fetchLatestNews(String ticker) {
+    public String fetchLatestNews(String ticker) {
         // קריאה ל-API חיצוני לנתוני חדשות
         String url = NEWS_API_URL + "latest_news?symbol=" + ticker + "&limit=10&apikey=" + NEWS_API_KEY;
         // לוגיקת קריאה לרשת והחזרת JSON (אופציונלי בלבד)
         try {
             return makeApiCall(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             // גם כאן נחזיר null בשקט
             return null;
         }
     }
 
-    public static void setTicker(String ticker) {
-        TICKER = ticker;
+    public String fetchStockData(String symbol) {
+        return fetchStockData(symbol, false);
+    }
+
+    // fullHistory=false: ~100 הימים האחרונים (compact), true: כל ההיסטוריה (outputsize=full, משמש את BarStore)
+    // מפתח שאין לו outputsize=full (פרימיום) נבדק פעם אחת בלבד, ומאז מקבל את ה-compact בבקשה אחת
+    public String fetchStockData(String symbol, boolean fullHistory) {
+        if (fullHistory && !NO_FULL_HISTORY.contains(apiKey)) {
+            String json = fetchDaily(symbol, true);
+            boolean noBars = json == null || !json.contains("Time Series");
+            String svc = noBars ? PriceJsonParser.extractServiceMessage(json) : null;
+            if (svc == null || !svc.toLowerCase().contains("premium")) return json;
+            NO_FULL_HISTORY.add(apiKey);
+        }
+        return fetchDaily(symbol, false);
     }
 
-    public static String fetchStockData() {
+    private String fetchDaily(String symbol, boolean fullHistory) {
+        symbol = requireSymbol(symbol);
         // בניית כתובת ה-URL לבקשה (למשל, מחירי סגירה יומיים)
         String url = String.format(
                 "https://www.alphavantage.co/query?function=TIME_SERIES_DAILY&symbol=%s&apikey=%s",
-                TICKER, API_KEY
+                symbol, apiKey
         );
+        if (fullHistory) url += "&outputsize=full";
 
         // יצירת לקוח HTTP
-        HttpClient client = HttpClient.newHttpClient();
 
         // יצירת בקשת HTTP
         HttpRequest request = HttpRequest.newBuilder()
@@ -92,7 +131,7 @@ public class DataFetcher {
 
         try {
             // שליחת הבקשה וקבלת התגובה (Response)
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
 
             // בדיקה שסטטוס הקוד תקין (200)
             if (response.statusCode() == 200) {
@@ -101,100 +140,105 @@ public class DataFetcher {
             } else {
                 return "Error: HTTP Status Code " + response.statusCode();
             }
+        } catch (InterruptedException e) {
+            // cancelled (analysis deadline, monitoring timeout): keep the flag so no further calls are made
+            Thread.currentThread().interrupt();
+            return "Error during request: interrupted";
         } catch (Exception e) {
-            e.printStackTrace();
             return "Error during request: " + e.getMessage();
         }
     }
 
     // Fetch earnings history (quarterly/annual EPS etc.) from Alpha Vantage
-    public static String fetchEarnings(String symbol) {
-        if (symbol == null || symbol.isBlank()) {
-            symbol = TICKER;
-        }
+    public String fetchEarnings(String symbol) {
+        symbol = requireSymbol(symbol);
         String url = String.format(
                 "https://www.alphavantage.co/query?function=EARNINGS&symbol=%s&apikey=%s",
-                symbol, API_KEY
+                symbol, apiKey
         );
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
             if (response.statusCode() == 200) {
                 return response.body();
             } else {
                 return null;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             return null;
         }
     }
 
     // Fetch earnings estimates (forward EPS expectations) from Alpha Vantage
-    public static String fetchEarningsEstimates(String symbol) {
-        if (symbol == null || symbol.isBlank()) {
-            symbol = TICKER;
-        }
+    public String fetchEarningsEstimates(String symbol) {
+        symbol = requireSymbol(symbol);
         String url = String.format(
                 "https://www.alphavantage.co/query?function=EARNINGS_ESTIMATES&symbol=%s&apikey=%s",
-                symbol, API_KEY
+                symbol, apiKey
         );
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
             if (response.statusCode() == 200) {
                 return response.body();
             } else {
                 return null;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             return null;
         }
     }
 
     // Alpha Vantage TOP_GAINERS_LOSERS endpoint (market-wide movers)
-    public static String fetchTopGainersLosers() {
+    public String fetchTopGainersLosers() {
         String url = String.format(
                 "https://www.alphavantage.co/query?function=TOP_GAINERS_LOSERS&apikey=%s",
-                API_KEY
+                apiKey
         );
 
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
 
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
             if (response.statusCode() == 200) {
                 return response.body();
             }
             return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             return null;
         }
     }
 
     // Generic helper for simple GET requests returning JSON/string body
-    private static String makeApiCall(String url) throws Exception {
-        HttpClient client = HttpClient.newHttpClient();
+    private String makeApiCall(String url) throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = ApiHttpClient.send(request);
         if (response.statusCode() == 200) {
             return response.body();
         }
         throw new Exception("HTTP error " + response.statusCode() + " for URL: " + url);
     }
 
-    public static String fetchDailyCandlesFromFinnhub() {
+    public String fetchDailyCandlesFromFinnhub(String symbol) {
+        symbol = requireSymbol(symbol);
         String token = System.getenv("d4q3h41r01qha6q0laogd4q3h41r01qha6q0lap0");
         if (token == null || token.isBlank()) {
             return null;
@@ -202,54 +246,63 @@ public class DataFetcher {
 
         String url = String.format(
                 "https://finnhub.io/api/v1/stock/candle?symbol=%s&resolution=D&count=300&token=%s",
-                TICKER, token
+                symbol, token
         );
 
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
 
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
             if (response.statusCode() == 200) {
                 return response.body();
             } else {
                 return null;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             return null;
         }
     }
 
     public static void main(String[] args) {
-        String jsonData = fetchStockData();
+        String jsonData = defaultClient().fetchStockData(args.length > 0 ? args[0] : "BIIB");
         System.out.println(jsonData.substring(0, Math.min(jsonData.length(), 200)) + "..."); // מדפיס רק את 200 התווים הראשונים
     }
 
     // Fetch company overview (name, sector, etc.) from Alpha Vantage
-    public static String fetchCompanyOverview(String symbol) {
-        if (symbol == null || symbol.isBlank()) {
-            symbol = TICKER;
-        }
+    public String fetchCompanyOverview(String symbol) {
+        symbol = requireSymbol(symbol);
         String url = String.format(
                 "https://www.alphavantage.co/query?function=OVERVIEW&symbol=%s&apikey=%s",
-                symbol, API_KEY
+                symbol, apiKey
         );
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .build();
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = ApiHttpClient.send(request);
             if (response.statusCode() == 200) {
                 return response.body();
             } else {
                 return "Error: HTTP Status Code " + response.statusCode();
             }
+        } catch (InterruptedException e) {
+            // cancelled (analysis deadline, monitoring timeout): keep the flag so no further calls are made
+            Thread.currentThread().interrupt();
+            return "Error during request: interrupted";
         } catch (Exception e) {
-            e.printStackTrace();
             return "Error during request: " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+
+    private static String requireSymbol(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        return symbol.trim();
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where the responses of upstream HTTP calls come from. ApiHttpClient.send delegates every request to the active
+ * source, chosen at startup by DATA_SOURCE:
+ *   live    (default) the real APIs, through the rate limiters, ResponseCache and request coalescing
+ *   record  like live, and every response is also written to DATA_SOURCE_DIR (default recordings/)
+ *   replay  responses are served from DATA_SOURCE_DIR only, never touching the network; a request without a
+ *           recording gets a 404. REPLAY_LATENCY_MS adds a simulated upstream delay: "150" or a range "50-400".
+ *
+ * Recordings are keyed by method, ApiHttpClient.flightKey (credentials removed) and a hash of the request body, so a
+ * replay works with any key and POSTs to one URL (AI summaries, Telegram) keep a recording per body. A request body
+ * cannot be read back from the HttpRequest, so callers pass it to send; a non-GET request sent without its body is
+ * neither recorded nor replayed.
+ * For reproducible runs start replays with an empty BAR_STORE_DIR and set FINDER_RANDOM_SEED.
+ */
+public interface DataSource {
+
+    /**
+     * @param body the request body as sent (null for a GET)
+     */
+    HttpResponse<String> send(HttpRequest request, String body) throws IOException, InterruptedException;
+
+    /**
+     * One line for status pages: mode, directory and counters.
+     */
+    String describe();
+
+    /**
+     * The source selected by the environment; live is the normal upstream path.
+     */
+    static DataSource fromEnv(DataSource live) {
+        String mode = envOr("DATA_SOURCE", "live").toLowerCase();
+        Path dir = Paths.get(envOr("DATA_SOURCE_DIR", "recordings"));
+        switch (mode) {
+            case "record":
+                return new Recording(live, dir);
+            case "replay":
+                return new Replay(dir, envOr("REPLAY_LATENCY_MS", "0"));
+            default:
+                return live;
+        }
+    }
+
+    private static String envOr(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+
+    // ---- recording files ----
+    // "<status>\n<method> <key>[ body=<hash>]\n<body>", named by the hash of the key line
+
+    static Path fileFor(Path dir, HttpRequest request, String body) {
+        return dir.resolve(sha256(keyLine(request, body)) + ".rec");
+    }
+
+    // Telegram puts its bot token in the path; it must not end up in a recording
+    static String keyLine(HttpRequest request, String body) {
+        String key = ApiHttpClient.flightKey(request.uri()).replaceAll("/bot[^/]+/", "/bot***/");
+        String line = request.method().toUpperCase() + " " + key;
+        return body == null ? line : line + " body=" + sha256(body).substring(0, 16);
+    }
+
+    // A non-GET request whose body the caller did not pass cannot be told apart from others to the same URL
+    static boolean replayable(HttpRequest request, String body) {
+        return body != null || "GET".equalsIgnoreCase(request.method());
+    }
+
+    private static String sha256(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(d.length * 2);
+            for (byte b : d) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Passes every request to the delegate and writes the response to the directory (the last one per key wins).
+     */
+    final class Recording implements DataSource {
+        private final DataSource delegate;
+        private final Path dir;
+        private final AtomicLong recorded = new AtomicLong();
+
+        public Recording(DataSource delegate, Path dir) {
+            this.delegate = delegate;
+            this.dir = dir;
+        }
+
+        @Override
+        public HttpResponse<String> send(HttpRequest request, String body) throws IOException, InterruptedException {
+            HttpResponse<String> response = delegate.send(request, body);
+            if (!replayable(request, body)) return response;
+            Path tmp = null;
+            try {
+                Files.createDirectories(dir);
+                tmp = Files.createTempFile(dir, "rec", ".tmp");
+                String content = response.body() == null ? "" : response.body();
+                Files.writeString(tmp, response.statusCode() + "\n" + keyLine(request, body) + "\n" + content, StandardCharsets.UTF_8);
+                Files.move(tmp, fileFor(dir, request, body), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                recorded.incrementAndGet();
+            } catch (Exception ignore) {
+            } finally {
+                try {
+                    if (tmp != null) Files.deleteIfExists(tmp);
+                } catch (Exception ignore) {
+                }
+            }
+            return response;
+        }
+
+        @Override
+        public String describe() {
+            return "record to " + dir.toAbsolutePath() + " (recorded=" + recorded.get() + ")";
+        }
+    }
+
+    /**
+     * Serves recorded responses; nothing goes to the network.
+     */
+    final class Replay implements DataSource {
+        private final Path dir;
+        private final long minLatencyMs;
+        private final long maxLatencyMs;
+        private final AtomicLong served = new AtomicLong();
+        private final AtomicLong missing = new AtomicLong();
+
+        public Replay(Path dir, String latencyMs) {
+            this.dir = dir;
+            long min = 0, max = 0;
+            try {
+                String[] range = latencyMs.split("-", 2);
+                min = Math.max(0, Long.parseLong(range[0].trim()));
+                max = range.length > 1 ? Math.max(min, Long.parseLong(range[1].trim())) : min;
+            } catch (Exception ignore) {
+            }
+            this.minLatencyMs = min;
+            this.maxLatencyMs = max;
+        }
+
+        @Override
+        public HttpResponse<String> send(HttpRequest request, String body) throws IOException, InterruptedException {
+            if (!replayable(request, body)) {
+                missing.incrementAndGet();
+                return ApiHttpClient.response(request, 404, "{\"error\":\"" + request.method() + " without its body cannot be replayed\"}", "REPLAY-MISS");
+            }
+            long delay = maxLatencyMs > minLatencyMs
+                    ? ThreadLocalRandom.current().nextLong(minLatencyMs, maxLatencyMs + 1)
+                    : minLatencyMs;
+            if (delay > 0) Thread.sleep(delay);
+
+            Path file = fileFor(dir, request, body);
+            String content = null;
+            try {
+                if (Files.exists(file)) content = Files.readString(file, StandardCharsets.UTF_8);
+            } catch (Exception ignore) {
+            }
+            int first = content == null ? -1 : content.indexOf('\n');
+            int second = first < 0 ? -1 : content.indexOf('\n', first + 1);
+            if (second < 0) {
+                missing.incrementAndGet();
+                return ApiHttpClient.response(request, 404, "{\"error\":\"no recording for " + keyLine(request, body) + "\"}", "REPLAY-MISS");
+            }
+            int status;
+            try {
+                status = Integer.parseInt(content.substring(0, first).trim());
+            } catch (NumberFormatException e) {
+                status = 200;
+            }
+            served.incrementAndGet();
+            return ApiHttpClient.response(request, status, content.substring(second + 1), "REPLAY");
+        }
+
+        @Override
+        public String describe() {
+            return "replay from " + dir.toAbsolutePath() + " (latency " + minLatencyMs + "-" + maxLatencyMs
+                    + " ms, served=" + served.get() + ", missing=" + missing.get() + ")";
+        }
+    }
+}
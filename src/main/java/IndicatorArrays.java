@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conversions between the boxed List-based indicator APIs and the primitive double[] ones.
+ * Convention for the primitive APIs: one output slot per input bar, NaN where the indicator has no value
+ * (warm-up period or an undefined value); the List adapters turn NaN back into null.
+ */
+public final class IndicatorArrays {
+
+    private IndicatorArrays() {
+    }
+
+    // null -> NaN
+    public static double[] toArray(List<Double> values) {
+        return toArray(values, Double.NaN);
+    }
+
+    public static double[] toArray(List<Double> values, double nullValue) {
+        if (values == null) return new double[0];
+        double[] out = new double[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            Double v = values.get(i);
+            out[i] = v == null ? nullValue : v;
+        }
+        return out;
+    }
+
+    public static long[] toLongArray(List<Long> values) {
+        if (values == null) return new long[0];
+        long[] out = new long[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i);
+        }
+        return out;
+    }
+
+    // NaN -> null
+    public static List<Double> toList(double[] values) {
+        List<Double> out = new ArrayList<>(values.length);
+        for (double v : values) {
+            out.add(Double.isNaN(v) ? null : v);
+        }
+        return out;
+    }
+
+    public static List<Long> toLongList(long[] values) {
+        List<Long> out = new ArrayList<>(values.length);
+        for (long v : values) {
+            out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Zips aligned output columns into the legacy row format, e.g. [MACD, Signal] or [Upper, Middle, Lower].
+     */
+    public static List<Double[]> toRows(double[]... columns) {
+        int n = columns.length == 0 ? 0 : columns[0].length;
+        List<Double[]> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Double[] row = new Double[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                double v = columns[c][i];
+                row[c] = Double.isNaN(v) ? null : v;
+            }
+            out.add(row);
+        }
+        return out;
+    }
+
+    public static double[] newOutput(int n) {
+        double[] out = new double[n];
+        Arrays.fill(out, Double.NaN);
+        return out;
+    }
+
+    static void requireOutput(double[] out, int n) {
+        if (out == null || out.length < n) {
+            throw new IllegalArgumentException("output array must hold at least " + n + " values");
+        }
+    }
+
+    static void requireOutput(long[] out, int n) {
+        if (out == null || out.length < n) {
+            throw new IllegalArgumentException("output array must hold at least " + n + " values");
+        }
+    }
+
+    /**
+     * Sum of values[from, to) with the same compensated (Kahan) summation DoubleStream.sum()/average() use,
+     * so the primitive paths reproduce the stream-based results bit for bit.
+     */
+    static double compensatedSum(double[] values, int from, int to) {
+        double sum = 0.0;
+        double comp = 0.0;
+        double simple = 0.0;
+        for (int i = from; i < to; i++) {
+            double v = values[i];
+            double tmp = v - comp;
+            double velvel = sum + tmp;
+            comp = (velvel - sum) - tmp;
+            sum = velvel;
+            simple += v;
+        }
+        double total = sum - comp;
+        if (Double.isNaN(total) && Double.isInfinite(simple)) return simple;
+        return total;
+    }
+}
@@ -0,0 +1,475 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes a set of registered indicators in one forward pass over the bars.
+ * True range, typical price, money-flow volume, close-to-close change and the rolling close sums are
+ * computed once per bar and shared by every indicator that needs them, instead of each indicator class
+ * walking the close/high/low arrays on its own.
+ *
+ * Values are identical to the standalone double[] APIs (RSI.calculateRSI, ADX.calculateADX, ...), including
+ * NaN for warm-up. Usage:
+ * <pre>
+ *   IndicatorPipeline.Result r = new IndicatorPipeline().sma(20).rsi(14).macd().adx(14).compute(bars);
+ *   double rsi = IndicatorPipeline.last(r.rsi());
+ * </pre>
+ */
+public final class IndicatorPipeline {
+
+    private int[] smaWindows = new int[0];
+    private int rsiPeriod;
+    private boolean macd;
+    private int adxPeriod;
+    private int atrPeriod;
+    private int bollingerPeriod;
+    private double bollingerStdDevs;
+    private int cciPeriod;
+    private CCI.Deviation cciDeviation = CCI.Deviation.STANDARD;
+    private int cmfPeriod;
+    private boolean obv;
+    private boolean adLine;
+    private int stochK;
+    private int stochD;
+
+    public IndicatorPipeline sma(int window) {
+        if (window <= 0) throw new IllegalArgumentException("window must be positive");
+        for (int w : smaWindows) {
+            if (w == window) return this;
+        }
+        smaWindows = Arrays.copyOf(smaWindows, smaWindows.length + 1);
+        smaWindows[smaWindows.length - 1] = window;
+        return this;
+    }
+
+    public IndicatorPipeline rsi(int period) {
+        this.rsiPeriod = requirePositive(period);
+        return this;
+    }
+
+    // MACD 12/26/9, like MACD.calculateMACD
+    public IndicatorPipeline macd() {
+        this.macd = true;
+        return this;
+    }
+
+    public IndicatorPipeline adx(int period) {
+        this.adxPeriod = requirePositive(period);
+        return this;
+    }
+
+    public IndicatorPipeline atr(int period) {
+        this.atrPeriod = requirePositive(period);
+        return this;
+    }
+
+    // Middle band shares the running sum of sma(period)
+    public IndicatorPipeline bollinger(int period, double numStdDevs) {
+        this.bollingerPeriod = requirePositive(period);
+        this.bollingerStdDevs = numStdDevs;
+        return sma(period);
+    }
+
+    public IndicatorPipeline cci(int period) {
+        return cci(period, CCI.Deviation.STANDARD);
+    }
+
+    public IndicatorPipeline cci(int period, CCI.Deviation deviation) {
+        this.cciPeriod = requirePositive(period);
+        this.cciDeviation = deviation;
+        return this;
+    }
+
+    public IndicatorPipeline cmf(int period) {
+        this.cmfPeriod = requirePositive(period);
+        return this;
+    }
+
+    public IndicatorPipeline obv() {
+        this.obv = true;
+        return this;
+    }
+
+    public IndicatorPipeline adLine() {
+        this.adLine = true;
+        return this;
+    }
+
+    public IndicatorPipeline stochastic(int kPeriod, int dPeriod) {
+        this.stochK = requirePositive(kPeriod);
+        this.stochD = requirePositive(dPeriod);
+        return this;
+    }
+
+    private static int requirePositive(int period) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        return period;
+    }
+
+    public Result compute(BarSeries bars) {
+        return compute(bars.highs(), bars.lows(), bars.closes(), bars.volumes());
+    }
+
+    /**
+     * @param volume may be null when no volume is available; CMF and A/D Line then stay NaN and OBV is null
+     */
+    public Result compute(double[] high, double[] low, double[] close, long[] volume) {
+        final int n = close.length;
+        if (high.length != n || low.length != n || (volume != null && volume.length != n)) {
+            throw new IllegalArgumentException("high/low/close/volume must have equal length");
+        }
+        final boolean hasVolume = volume != null;
+        Result r = new Result(n);
+
+        // --- outputs and per-indicator state ---
+        final int smaCount = smaWindows.length;
+        double[][] smaOut = new double[smaCount][];
+        double[] smaSum = new double[smaCount];
+        for (int s = 0; s < smaCount; s++) {
+            smaOut[s] = new double[n];
+            r.sma.put(smaWindows[s], smaOut[s]);
+        }
+
+        double[] rsiOut = rsiPeriod > 0 ? r.rsi = IndicatorArrays.newOutput(n) : null;
+        double avgGain = 0;
+        double avgLoss = 0;
+
+        double[] macdOut = null;
+        double[] signalOut = null;
+        if (macd) {
+            macdOut = r.macd = IndicatorArrays.newOutput(n);
+            signalOut = r.macdSignal = IndicatorArrays.newOutput(n);
+        }
+        double ema12 = 0;
+        double ema26 = 0;
+        double signal = 0;
+
+        double[] adxOut = null;
+        double[] plusOut = null;
+        double[] minusOut = null;
+        if (adxPeriod > 0) {
+            adxOut = r.adx = IndicatorArrays.newOutput(n);
+            plusOut = r.plusDI = IndicatorArrays.newOutput(n);
+            minusOut = r.minusDI = IndicatorArrays.newOutput(n);
+        }
+        final boolean adxActive = adxPeriod > 0 && n >= adxPeriod;
+        double smoothTR = 0;
+        double smoothPlusDM = 0;
+        double smoothMinusDM = 0;
+        double adx = 0;
+
+        double[] atrOut = atrPeriod > 0 ? r.atr = IndicatorArrays.newOutput(n) : null;
+        double trSum = 0;
+
+        double[] bbMiddle = null;
+        double[] bbUpper = null;
+        double[] bbLower = null;
+        if (bollingerPeriod > 0) {
+            bbMiddle = r.bollingerMiddle = r.sma.get(bollingerPeriod);
+            bbUpper = r.bollingerUpper = IndicatorArrays.newOutput(n);
+            bbLower = r.bollingerLower = IndicatorArrays.newOutput(n);
+        }
+        final RollingStats bbWindow = bbUpper != null ? new RollingStats(bollingerPeriod) : null;
+
+        double[] cciOut = cciPeriod > 0 ? r.cci = IndicatorArrays.newOutput(n) : null;
+        final boolean cciActive = cciPeriod > 0 && n >= cciPeriod;
+        final boolean cciMeanAbsolute = cciActive && cciDeviation == CCI.Deviation.MEAN_ABSOLUTE;
+        final RollingStats cciWindow = cciActive && !cciMeanAbsolute ? new RollingStats(cciPeriod) : null;
+
+        double[] cmfOut = cmfPeriod > 0 ? r.cmf = IndicatorArrays.newOutput(n) : null;
+        final boolean cmfActive = cmfPeriod > 0 && hasVolume && n >= cmfPeriod;
+        double mfvSum = 0;
+        long volumeSum = 0;
+
+        long[] obvOut = obv && hasVolume ? r.obv = new long[n] : null;
+        long currentOBV = 0;
+
+        double[] adOut = adLine ? r.adLine = IndicatorArrays.newOutput(n) : null;
+        double currentADL = 0;
+
+        double[] kOut = null;
+        double[] dOut = null;
+        if (stochK > 0) {
+            kOut = r.stochK = IndicatorArrays.newOutput(n);
+            dOut = r.stochD = IndicatorArrays.newOutput(n);
+        }
+        final boolean stochActive = stochK > 0 && n >= stochK;
+        // Monotonic deques of indices for the rolling highest high / lowest low
+        int[] maxQ = stochActive ? new int[stochK] : null;
+        int[] minQ = stochActive ? new int[stochK] : null;
+        int maxHead = 0, maxSize = 0, minHead = 0, minSize = 0;
+
+        // --- shared intermediates ---
+        final boolean needTR = atrPeriod > 0 || adxPeriod > 0;
+        final double[] tr = atrPeriod > 0 ? new double[n] : null;
+        // Typical prices are only kept for the mean-absolute-deviation CCI, which ranks the whole series
+        final double[] tp = cciMeanAbsolute ? new double[n] : null;
+        final boolean needMFV = (cmfActive || (adLine && hasVolume));
+        final double[] mfv = cmfActive ? new double[n] : null;
+
+        for (int i = 0; i < n; i++) {
+            final double c = close[i];
+            final double h = high[i];
+            final double l = low[i];
+            final double change = i > 0 ? c - close[i - 1] : 0.0;
+
+            // True range (ADX, ATR); closePrev falls back to High on the first bar
+            double trueRange = 0;
+            if (needTR) {
+                double closePrev = (i > 0) ? close[i - 1] : h;
+                trueRange = Math.max(h - l, Math.max(Math.abs(h - closePrev), Math.abs(l - closePrev)));
+                if (tr != null) tr[i] = trueRange;
+            }
+
+            // Money flow volume (CMF, A/D Line)
+            double moneyFlowVolume = 0;
+            if (needMFV) {
+                moneyFlowVolume = CMF.moneyFlowMultiplier(h, l, c) * volume[i];
+                if (mfv != null) mfv[i] = moneyFlowVolume;
+            }
+
+            // SMA (running sums; Bollinger's middle band is one of these)
+            for (int s = 0; s < smaCount; s++) {
+                int w = smaWindows[s];
+                smaSum[s] += c;
+                if (i < w - 1) {
+                    smaOut[s][i] = Double.NaN;
+                } else {
+                    if (i >= w) smaSum[s] -= close[i - w];
+                    smaOut[s][i] = smaSum[s] / w;
+                }
+            }
+
+            // RSI (simple-average seed, then Wilder's smoothing of gains/losses)
+            if (rsiOut != null && n >= rsiPeriod + 1 && i > 0) {
+                if (i <= rsiPeriod) {
+                    if (change > 0) avgGain += change;
+                    else avgLoss += Math.abs(change);
+                    if (i == rsiPeriod) {
+                        avgGain /= rsiPeriod;
+                        avgLoss /= rsiPeriod;
+                        rsiOut[i] = rsiValue(avgGain, avgLoss);
+                    }
+                } else {
+                    double gain = change > 0 ? change : 0;
+                    double loss = change < 0 ? Math.abs(change) : 0;
+                    avgGain = (avgGain * (rsiPeriod - 1) + gain) / rsiPeriod;
+                    avgLoss = (avgLoss * (rsiPeriod - 1) + loss) / rsiPeriod;
+                    rsiOut[i] = rsiValue(avgGain, avgLoss);
+                }
+            }
+
+            // MACD 12/26/9 (EMAs seeded with the SMA of their first period)
+            if (macdOut != null) {
+                if (i < 12) {
+                    ema12 += c;
+                    if (i == 11) ema12 /= 12;
+                } else {
+                    ema12 = (c - ema12) * (2.0 / 13.0) + ema12;
+                }
+                if (i < 26) {
+                    ema26 += c;
+                    if (i == 25) ema26 /= 26;
+                } else {
+                    ema26 = (c - ema26) * (2.0 / 27.0) + ema26;
+                }
+                if (i >= 25) {
+                    double m = ema12 - ema26;
+                    macdOut[i] = m;
+                    int j = i - 25;
+                    if (j < 9) {
+                        signal += m;
+                        if (j == 8) {
+                            signal /= 9;
+                            signalOut[i] = signal;
+                        }
+                    } else {
+                        signal = (m - signal) * (2.0 / 10.0) + signal;
+                        signalOut[i] = signal;
+                    }
+                }
+            }
+
+            // ADX / +DI / -DI
+            if (adxActive) {
+                double upMove = h - high[i > 0 ? i - 1 : i];
+                double downMove = low[i > 0 ? i - 1 : i] - l;
+                double pDM = (upMove > downMove && upMove > 0) ? upMove : 0;
+                double mDM = (downMove > upMove && downMove > 0) ? downMove : 0;
+                boolean ready = true;
+                if (i < adxPeriod) {
+                    smoothTR += trueRange;
+                    smoothPlusDM += pDM;
+                    smoothMinusDM += mDM;
+                    if (i < adxPeriod - 1) {
+                        ready = false;
+                    } else {
+                        smoothTR /= adxPeriod;
+                        smoothPlusDM /= adxPeriod;
+                        smoothMinusDM /= adxPeriod;
+                    }
+                } else {
+                    smoothTR = ((smoothTR * (adxPeriod - 1)) + trueRange) / adxPeriod;
+                    smoothPlusDM = ((smoothPlusDM * (adxPeriod - 1)) + pDM) / adxPeriod;
+                    smoothMinusDM = ((smoothMinusDM * (adxPeriod - 1)) + mDM) / adxPeriod;
+                }
+                if (ready) {
+                    double dx = 0.0;
+                    if (smoothTR != 0) {
+                        double pDI = 100 * (smoothPlusDM / smoothTR);
+                        double mDI = 100 * (smoothMinusDM / smoothTR);
+                        plusOut[i] = pDI;
+                        minusOut[i] = mDI;
+                        double sumDI = pDI + mDI;
+                        if (sumDI != 0) dx = 100 * (Math.abs(pDI - mDI) / sumDI);
+                    }
+                    adx = (i == adxPeriod - 1) ? dx / adxPeriod : ((adx * (adxPeriod - 1)) + dx) / adxPeriod;
+                    adxOut[i] = adx;
+                }
+            }
+
+            // ATR (simple average of the true range, as in ATR.calculateATR) from a rolling sum
+            if (atrOut != null) {
+                trSum += trueRange;
+                if (i >= atrPeriod) trSum -= tr[i - atrPeriod];
+                if (i >= atrPeriod - 1) atrOut[i] = trSum / atrPeriod;
+            }
+
+            // Bollinger bands around the shared SMA, rolling standard deviation
+            if (bbWindow != null) {
+                bbWindow.add(c);
+                if (i >= bollingerPeriod - 1) {
+                    double sma = bbMiddle[i];
+                    double stdDev = bbWindow.stdDev();
+                    bbUpper[i] = sma + (stdDev * bollingerStdDevs);
+                    bbLower[i] = sma - (stdDev * bollingerStdDevs);
+                }
+            }
+
+            // CCI on the typical price
+            if (cciActive) {
+                double typical = (h + l + c) / 3.0;
+                if (cciMeanAbsolute) {
+                    tp[i] = typical;
+                } else {
+                    cciWindow.add(typical);
+                    if (i >= cciPeriod - 1) {
+                        cciOut[i] = CCI.cci(typical, cciWindow.mean(), cciWindow.stdDev());
+                    }
+                }
+            }
+
+            // CMF from rolling money-flow-volume and volume sums
+            if (cmfActive) {
+                mfvSum += moneyFlowVolume;
+                volumeSum += volume[i];
+                if (i >= cmfPeriod) {
+                    mfvSum -= mfv[i - cmfPeriod];
+                    volumeSum -= volume[i - cmfPeriod];
+                }
+                if (i >= cmfPeriod - 1) cmfOut[i] = (volumeSum > 0) ? mfvSum / volumeSum : 0.0;
+            }
+
+            // OBV
+            if (obvOut != null) {
+                if (i == 0) currentOBV = volume[0];
+                else if (change > 0) currentOBV += volume[i];
+                else if (change < 0) currentOBV -= volume[i];
+                obvOut[i] = currentOBV;
+            }
+
+            // A/D Line
+            if (adOut != null && hasVolume) {
+                currentADL += moneyFlowVolume;
+                adOut[i] = currentADL;
+            }
+
+            // Stochastic %K / %D
+            if (stochActive) {
+                // Drop the index that left the window first, so the ring never holds more than stochK entries
+                int from = i - stochK + 1;
+                if (maxSize > 0 && maxQ[maxHead] < from) { maxHead = (maxHead + 1) % stochK; maxSize--; }
+                while (maxSize > 0 && high[maxQ[(maxHead + maxSize - 1) % stochK]] <= h) maxSize--;
+                maxQ[(maxHead + maxSize++) % stochK] = i;
+                if (minSize > 0 && minQ[minHead] < from) { minHead = (minHead + 1) % stochK; minSize--; }
+                while (minSize > 0 && low[minQ[(minHead + minSize - 1) % stochK]] >= l) minSize--;
+                minQ[(minHead + minSize++) % stochK] = i;
+
+                if (i >= stochK - 1) {
+                    double highestHigh = high[maxQ[maxHead]];
+                    double lowestLow = low[minQ[minHead]];
+                    kOut[i] = 100.0 * ((c - lowestLow) / (highestHigh - lowestLow));
+                    if (i >= stochK + stochD - 2) {
+                        double sumK = 0.0;
+                        int startIndex = i - stochD + 1;
+                        for (int j = 0; j < stochD; j++) sumK += kOut[startIndex + j];
+                        dOut[i] = sumK / stochD;
+                    }
+                }
+            }
+        }
+        if (cciMeanAbsolute) {
+            CCI.meanAbsoluteDeviationCCI(tp, cciPeriod, cciOut);
+        }
+        return r;
+    }
+
+    private static double rsiValue(double avgGain, double avgLoss) {
+        double rs = avgLoss == 0 ? 99.99 : avgGain / avgLoss;
+        return 100.0 - (100.0 / (1.0 + rs));
+    }
+
+    /**
+     * Last value of a series, NaN when the series is missing or empty.
+     */
+    public static double last(double[] series) {
+        return series == null || series.length == 0 ? Double.NaN : series[series.length - 1];
+    }
+
+    /**
+     * Output columns, aligned with the input bars. Indicators that were not registered return null.
+     */
+    public static final class Result {
+        private final int size;
+        private final Map<Integer, double[]> sma = new LinkedHashMap<>();
+        private double[] rsi;
+        private double[] macd;
+        private double[] macdSignal;
+        private double[] adx;
+        private double[] plusDI;
+        private double[] minusDI;
+        private double[] atr;
+        private double[] bollingerUpper;
+        private double[] bollingerMiddle;
+        private double[] bollingerLower;
+        private double[] cci;
+        private double[] cmf;
+        private long[] obv;
+        private double[] adLine;
+        private double[] stochK;
+        private double[] stochD;
+
+        private Result(int size) {
+            this.size = size;
+        }
+
+        public int size() { return size; }
+        public double[] sma(int window) { return sma.get(window); }
+        public double[] rsi() { return rsi; }
+        public double[] macd() { return macd; }
+        public double[] macdSignal() { return macdSignal; }
+        public double[] adx() { return adx; }
+        public double[] plusDI() { return plusDI; }
+        public double[] minusDI() { return minusDI; }
+        public double[] atr() { return atr; }
+        public double[] bollingerUpper() { return bollingerUpper; }
+        public double[] bollingerMiddle() { return bollingerMiddle; }
+        public double[] bollingerLower() { return bollingerLower; }
+        public double[] cci() { return cci; }
+        public double[] cmf() { return cmf; }
+        public long[] obv() { return obv; }
+        public double[] adLine() { return adLine; }
+        public double[] stochK() { return stochK; }
+        public double[] stochD() { return stochD; }
+    }
+}
@@ -0,0 +1,524 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Incremental indicator state: consumes one daily bar at a time in O(1) and reports the value the batch
+ * API would give for the last bar consumed. SMA, RSI, MACD, ADX, OBV and the A/D line repeat the batch
+ * arithmetic step for step (identical values); ATR and the Bollinger deviation come from RollingStats
+ * (equal up to rounding).
+ *
+ * The whole object is Serializable and acts as a checkpoint: it remembers the last bar it consumed, and
+ * advance(BarSeries) feeds only the bars after it. If that bar is no longer in the series, or its close
+ * changed (split/dividend adjustment), the state is reset and the series replayed. A checkpoint should only
+ * consume completed sessions (advance(series, lastDay)); the bar of a session in progress goes into a copy(),
+ * so its moving close never forces a replay.
+ */
+public final class IndicatorState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Sma sma;
+    private final Rsi rsi;
+    private final Macd macd;
+    private final Adx adx;
+    private final Atr atr;
+    private final Obv obv;
+    private final AdLine adLine;
+    private final Bollinger bollinger;
+
+    private long bars;
+    private int lastEpochDay;
+    private double lastClose;
+
+    public IndicatorState(int smaWindow, int rsiPeriod, int adxPeriod, int atrPeriod, int bollingerPeriod, double bollingerStdDevs) {
+        this.sma = new Sma(smaWindow);
+        this.rsi = new Rsi(rsiPeriod);
+        this.macd = new Macd(12, 26, 9);
+        this.adx = new Adx(adxPeriod);
+        this.atr = new Atr(atrPeriod);
+        this.obv = new Obv();
+        this.adLine = new AdLine();
+        this.bollinger = new Bollinger(bollingerPeriod, bollingerStdDevs);
+    }
+
+    // SMA 20, RSI 14, MACD 12/26/9, ADX 14, ATR 14, Bollinger 20/2 - the same settings as the scanners
+    public static IndicatorState defaults() {
+        return new IndicatorState(20, 14, 14, 14, 20, 2.0);
+    }
+
+    /**
+     * Feeds one bar. Bars must arrive in date order.
+     */
+    public void update(int epochDay, double high, double low, double close, long volume) {
+        if (bars > 0 && epochDay <= lastEpochDay) {
+            throw new IllegalArgumentException("bar " + epochDay + " is not after the last consumed bar " + lastEpochDay);
+        }
+        sma.add(close);
+        rsi.add(close);
+        macd.add(close);
+        adx.add(high, low, close);
+        atr.add(high, low, close);
+        obv.add(close, volume);
+        adLine.add(high, low, close, volume);
+        bollinger.add(close);
+        bars++;
+        lastEpochDay = epochDay;
+        lastClose = close;
+    }
+
+    /**
+     * Feeds the bars of the series that come after the checkpoint.
+     * @return number of bars consumed (the whole series after a reset)
+     */
+    public int advance(BarSeries series) {
+        return advance(series, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Feeds the bars of the series that come after the checkpoint, up to and including lastDay (epoch day).
+     * @return number of bars consumed (the whole series up to lastDay after a reset)
+     */
+    public int advance(BarSeries series, int lastDay) {
+        int n = java.util.Arrays.binarySearch(series.epochDays(), lastDay);
+        n = n >= 0 ? n + 1 : -n - 1;
+        int from = 0;
+        if (bars > 0) {
+            int idx = java.util.Arrays.binarySearch(series.epochDays(), lastEpochDay);
+            if (idx >= 0 && idx < n && Double.compare(series.close(idx), lastClose) == 0) {
+                from = idx + 1;
+            } else {
+                reset();
+            }
+        }
+        for (int i = from; i < n; i++) {
+            update(series.epochDay(i), series.high(i), series.low(i), series.close(i), series.volume(i));
+        }
+        return Math.max(0, n - from);
+    }
+
+    /**
+     * Independent deep copy of the state (the checkpoint itself is left untouched by whatever the copy consumes).
+     */
+    public IndicatorState copy() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(this);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (IndicatorState) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("indicator state copy failed", e);
+        }
+    }
+
+    public void reset() {
+        sma.reset();
+        rsi.reset();
+        macd.reset();
+        adx.reset();
+        atr.reset();
+        obv.reset();
+        adLine.reset();
+        bollinger.reset();
+        bars = 0;
+        lastEpochDay = 0;
+        lastClose = 0;
+    }
+
+    public long bars() {
+        return bars;
+    }
+
+    // Only meaningful once bars() > 0
+    public int lastEpochDay() {
+        return lastEpochDay;
+    }
+
+    public Sma sma() { return sma; }
+    public Rsi rsi() { return rsi; }
+    public Macd macd() { return macd; }
+    public Adx adx() { return adx; }
+    public Atr atr() { return atr; }
+    public Obv obv() { return obv; }
+    public AdLine adLine() { return adLine; }
+    public Bollinger bollinger() { return bollinger; }
+
+    /**
+     * Simple moving average with the same running sum as TechnicalAnalysisModel.calculateSMA.
+     */
+    public static final class Sma implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] ring;
+        private long count;
+        private double sum;
+
+        public Sma(int window) {
+            if (window <= 0) throw new IllegalArgumentException("window must be positive");
+            this.ring = new double[window];
+        }
+
+        public void add(double price) {
+            int w = ring.length;
+            int slot = (int) (count % w);
+            sum += price;
+            if (count >= w) sum -= ring[slot];
+            ring[slot] = price;
+            count++;
+        }
+
+        public double value() {
+            return count >= ring.length ? sum / ring.length : Double.NaN;
+        }
+
+        void reset() {
+            count = 0;
+            sum = 0;
+        }
+    }
+
+    /**
+     * RSI with Wilder smoothing, seeded by the simple average of the first period changes (RSI.calculateRSI).
+     */
+    public static final class Rsi implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int period;
+        private long count;
+        private double prevClose;
+        private double avgGain;
+        private double avgLoss;
+
+        public Rsi(int period) {
+            if (period <= 0) throw new IllegalArgumentException("period must be positive");
+            this.period = period;
+        }
+
+        public void add(double price) {
+            long i = count++;
+            if (i == 0) {
+                prevClose = price;
+                return;
+            }
+            double change = price - prevClose;
+            prevClose = price;
+            if (i <= period) {
+                if (change > 0) {
+                    avgGain += change;
+                } else {
+                    avgLoss += Math.abs(change);
+                }
+                if (i == period) {
+                    avgGain /= period;
+                    avgLoss /= period;
+                }
+                return;
+            }
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? Math.abs(change) : 0;
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        }
+
+        public double value() {
+            if (count <= period) return Double.NaN;
+            double rs = avgLoss == 0 ? 99.99 : avgGain / avgLoss;
+            return 100.0 - (100.0 / (1.0 + rs));
+        }
+
+        void reset() {
+            count = 0;
+            prevClose = 0;
+            avgGain = 0;
+            avgLoss = 0;
+        }
+    }
+
+    /**
+     * MACD and its signal line, SMA-seeded EMAs as in MACD.calculateMACD.
+     */
+    public static final class Macd implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int fast;
+        private final int slow;
+        private final int signalPeriod;
+        private long count;
+        private double emaFast;
+        private double emaSlow;
+        private double macd;
+        private double signal;
+
+        public Macd(int fast, int slow, int signalPeriod) {
+            this.fast = fast;
+            this.slow = slow;
+            this.signalPeriod = signalPeriod;
+        }
+
+        public void add(double price) {
+            long i = count++;
+            if (i < fast) {
+                emaFast += price;
+                if (i == fast - 1) emaFast /= fast;
+            } else {
+                emaFast = (price - emaFast) * (2.0 / (fast + 1.0)) + emaFast;
+            }
+            if (i < slow) {
+                emaSlow += price;
+                if (i == slow - 1) emaSlow /= slow;
+            } else {
+                emaSlow = (price - emaSlow) * (2.0 / (slow + 1.0)) + emaSlow;
+            }
+            long j = i - firstMacd();
+            if (j < 0) return;
+
+            macd = emaFast - emaSlow;
+            if (j < signalPeriod) {
+                signal += macd;
+                if (j == signalPeriod - 1) signal /= signalPeriod;
+            } else {
+                signal = (macd - signal) * (2.0 / (signalPeriod + 1.0)) + signal;
+            }
+        }
+
+        private int firstMacd() {
+            return Math.max(fast, slow) - 1;
+        }
+
+        public double value() {
+            return count > firstMacd() ? macd : Double.NaN;
+        }
+
+        public double signal() {
+            return count >= firstMacd() + signalPeriod ? signal : Double.NaN;
+        }
+
+        void reset() {
+            count = 0;
+            emaFast = 0;
+            emaSlow = 0;
+            macd = 0;
+            signal = 0;
+        }
+    }
+
+    /**
+     * ADX, +DI and -DI with Wilder smoothing, as in ADX.calculateADX.
+     */
+    public static final class Adx implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int period;
+        private long count;
+        private double prevHigh;
+        private double prevLow;
+        private double prevClose;
+        private double smoothTR;
+        private double smoothPlusDM;
+        private double smoothMinusDM;
+        private double adx;
+
+        public Adx(int period) {
+            if (period <= 0) throw new IllegalArgumentException("period must be positive");
+            this.period = period;
+        }
+
+        public void add(double high, double low, double close) {
+            long i = count++;
+            double closePrev = i > 0 ? prevClose : high;
+            double tr = Math.max(high - low, Math.max(Math.abs(high - closePrev), Math.abs(low - closePrev)));
+            double upMove = high - (i > 0 ? prevHigh : high);
+            double downMove = (i > 0 ? prevLow : low) - low;
+            double pDM = (upMove > downMove && upMove > 0) ? upMove : 0;
+            double mDM = (downMove > upMove && downMove > 0) ? downMove : 0;
+            prevHigh = high;
+            prevLow = low;
+            prevClose = close;
+
+            if (i < period) {
+                smoothTR += tr;
+                smoothPlusDM += pDM;
+                smoothMinusDM += mDM;
+                if (i < period - 1) return;
+                smoothTR /= period;
+                smoothPlusDM /= period;
+                smoothMinusDM /= period;
+            } else {
+                smoothTR = ((smoothTR * (period - 1)) + tr) / period;
+                smoothPlusDM = ((smoothPlusDM * (period - 1)) + pDM) / period;
+                smoothMinusDM = ((smoothMinusDM * (period - 1)) + mDM) / period;
+            }
+
+            double dx = 0.0;
+            if (smoothTR != 0) {
+                double pDI = 100 * (smoothPlusDM / smoothTR);
+                double mDI = 100 * (smoothMinusDM / smoothTR);
+                double sumDI = pDI + mDI;
+                if (sumDI != 0) {
+                    dx = 100 * (Math.abs(pDI - mDI) / sumDI);
+                }
+            }
+            adx = (i == period - 1) ? dx / period : ((adx * (period - 1)) + dx) / period;
+        }
+
+        public double value() {
+            return count >= period ? adx : Double.NaN;
+        }
+
+        public double plusDI() {
+            return count >= period && smoothTR != 0 ? 100 * (smoothPlusDM / smoothTR) : Double.NaN;
+        }
+
+        public double minusDI() {
+            return count >= period && smoothTR != 0 ? 100 * (smoothMinusDM / smoothTR) : Double.NaN;
+        }
+
+        void reset() {
+            count = 0;
+            prevHigh = 0;
+            prevLow = 0;
+            prevClose = 0;
+            smoothTR = 0;
+            smoothPlusDM = 0;
+            smoothMinusDM = 0;
+            adx = 0;
+        }
+    }
+
+    /**
+     * ATR as the simple average of the true range over the window (ATR.calculateATR).
+     */
+    public static final class Atr implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final RollingStats trueRange;
+        private long count;
+        private double prevClose;
+
+        public Atr(int period) {
+            this.trueRange = new RollingStats(period);
+        }
+
+        public void add(double high, double low, double close) {
+            double closePrev = count > 0 ? prevClose : high;
+            trueRange.add(Math.max(high - low, Math.max(Math.abs(high - closePrev), Math.abs(low - closePrev))));
+            prevClose = close;
+            count++;
+        }
+
+        public double value() {
+            return trueRange.isFull() ? trueRange.mean() : Double.NaN;
+        }
+
+        void reset() {
+            trueRange.reset();
+            count = 0;
+            prevClose = 0;
+        }
+    }
+
+    /**
+     * On-balance volume, starting from the first bar's volume (OBV.calculateOBV).
+     */
+    public static final class Obv implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long count;
+        private long obv;
+        private double prevClose;
+
+        public void add(double close, long volume) {
+            if (count++ == 0) {
+                obv = volume;
+            } else if (close > prevClose) {
+                obv += volume;
+            } else if (close < prevClose) {
+                obv -= volume;
+            }
+            prevClose = close;
+        }
+
+        public boolean hasValue() {
+            return count > 0;
+        }
+
+        public long value() {
+            return obv;
+        }
+
+        void reset() {
+            count = 0;
+            obv = 0;
+            prevClose = 0;
+        }
+    }
+
+    /**
+     * Accumulation/distribution line (ADLine.calculateADLine).
+     */
+    public static final class AdLine implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long count;
+        private double adl;
+
+        public void add(double high, double low, double close, long volume) {
+            adl += CMF.moneyFlowMultiplier(high, low, close) * volume;
+            count++;
+        }
+
+        public double value() {
+            return count > 0 ? adl : Double.NaN;
+        }
+
+        void reset() {
+            count = 0;
+            adl = 0;
+        }
+    }
+
+    /**
+     * Bollinger bands: SMA middle band plus/minus k rolling population standard deviations (BollingerBands).
+     */
+    public static final class Bollinger implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Sma middle;
+        private final RollingStats window;
+        private final double numStdDevs;
+
+        public Bollinger(int period, double numStdDevs) {
+            this.middle = new Sma(period);
+            this.window = new RollingStats(period);
+            this.numStdDevs = numStdDevs;
+        }
+
+        public void add(double price) {
+            middle.add(price);
+            window.add(price);
+        }
+
+        public double middle() {
+            return middle.value();
+        }
+
+        public double upper() {
+            return middle.value() + window.stdDev() * numStdDevs;
+        }
+
+        public double lower() {
+            return middle.value() - window.stdDev() * numStdDevs;
+        }
+
+        void reset() {
+            middle.reset();
+            window.reset();
+        }
+    }
+}
@@ -1,5 +1,12 @@
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class LongTermCandidateFinder {
@@ -29,16 +36,10 @@ public class LongTermCandidateFinder {
     );
     private static final List<String> ALL_NASDAQ_TICKERS = NASDAQ_100_TICKERS;
 
-    // Throttling and batch size controls to respect Alpha Vantage free-tier limits
-    private static boolean ENABLE_THROTTLE = true;
-    private static long THROTTLE_MS = 12_500; // ~5 req/min
+    // Batch size controls (request rate is limited centrally by ApiHttpClient)
     private static int MAX_TICKERS = 10; // default analyze 10
     private static int RANDOM_POOL_SIZE = 10; // default random pool size
-
-    public static void configureThrottle(boolean enable, long throttleMs) {
-        ENABLE_THROTTLE = enable;
-        THROTTLE_MS = Math.max(0, throttleMs);
-    }
+    private static int SCAN_CONCURRENCY = defaultScanConcurrency(); // tickers fetched/analyzed in parallel
 
     public static void setMaxTickers(int max) {
         MAX_TICKERS = max;
@@ -48,12 +49,35 @@ public class LongTermCandidateFinder {
         RANDOM_POOL_SIZE = Math.max(1, poolSize);
     }
 
+    public static void setScanConcurrency(int threads) {
+        SCAN_CONCURRENCY = Math.max(1, threads);
+    }
+
+    private static int defaultScanConcurrency() {
+        try {
+            String v = System.getenv("SCAN_CONCURRENCY");
+            if (v != null && !v.isBlank()) return Math.max(1, Integer.parseInt(v.trim()));
+        } catch (Exception ignore) {
+        }
+        return 4;
+    }
+
     // Keep last analyzed tickers for chart embedding
     private static List<String> LAST_TICKERS = new ArrayList<>();
     public static List<String> getLastTickers() {
         return new ArrayList<>(LAST_TICKERS);
     }
 
+    // FINDER_RANDOM_SEED קבוע => אותה בחירת מניות בכל ריצה (להשוואת ביצועים עם DATA_SOURCE=replay)
+    private static Random randomSource() {
+        try {
+            String v = System.getenv("FINDER_RANDOM_SEED");
+            if (v != null && !v.isBlank()) return new Random(Long.parseLong(v.trim()));
+        } catch (Exception ignore) {
+        }
+        return new Random();
+    }
+
     /**
      * בוחר 5 מניות רנדומלית מתוך הרשימה הנתונה.
      */
@@ -63,50 +87,82 @@ public class LongTermCandidateFinder {
         }
 
         List<String> shuffled = new ArrayList<>(ALL_NASDAQ_TICKERS);
-        Collections.shuffle(shuffled, new Random());
+        Collections.shuffle(shuffled, randomSource());
         return shuffled.subList(0, count);
     }
 
     /**
-     * מריץ את הסורק על מניות שנבחרו ומסנן את מועמדי הקנייה הטובים ביותר.
+     * מריץ את הסורק על מניות שנבחרו ומסנן את מועמדי הקנייה הטובים ביותר (התקדמות ושגיאות מודפסות לקונסול).
      * @param numCandidates מספר המועמדים הסופיים להצגה.
      * @return רשימה של StockAnalysisResult למניות המומלצות.
      */
     public static List<StockAnalysisResult> findBestLongTermBuys(int numCandidates) {
+        return findBestLongTermBuys(numCandidates, AnalysisReport.echoingTo("Long Term Buy scan", System.out));
+    }
+
+    /**
+     * כמו findBestLongTermBuys(int), אך ההתקדמות והשגיאות נרשמות לדוח הנתון.
+     */
+    public static List<StockAnalysisResult> findBestLongTermBuys(int numCandidates, AnalysisReport report) {
+        return findBestLongTermBuys(numCandidates, RANDOM_POOL_SIZE, MAX_TICKERS, report);
+    }
 
-        List<String> tickersToAnalyze = selectRandomTickers(RANDOM_POOL_SIZE);
-        if (MAX_TICKERS > 0 && MAX_TICKERS < tickersToAnalyze.size()) {
-            tickersToAnalyze = new ArrayList<>(tickersToAnalyze.subList(0, MAX_TICKERS));
+    /**
+     * כמו findBestLongTermBuys(int, AnalysisReport), עם גודל מאגר ומגבלת מניות לקריאה זו בלבד
+     * (ההגדרות הגלובליות של setRandomPoolSize/setMaxTickers לא משתנות, כך שבקשות מקבילות לא מפריעות זו לזו).
+     * @param poolSize מספר המניות שנבחרות אקראית.
+     * @param maxTickers מספר המניות המרבי לניתוח (0 או שלילי = ללא הגבלה).
+     */
+    public static List<StockAnalysisResult> findBestLongTermBuys(int numCandidates, int poolSize, int maxTickers, AnalysisReport report) {
+
+        List<String> tickersToAnalyze = selectRandomTickers(Math.max(1, poolSize));
+        if (maxTickers > 0 && maxTickers < tickersToAnalyze.size()) {
+            tickersToAnalyze = new ArrayList<>(tickersToAnalyze.subList(0, maxTickers));
         }
-        List<StockAnalysisResult> allAnalyzedResults = new ArrayList<>();
-
-        System.out.println("--- ⏳ מריץ ניתוח על " + tickersToAnalyze.size() + " מניות שנבחרו אקראית: " + tickersToAnalyze + " ---");
-
-        // 1. ריצת הניתוח המלא על כל מניה
-        for (int i = 0; i < tickersToAnalyze.size(); i++) {
-            String ticker = tickersToAnalyze.get(i);
-            try {
-                // קורא למתודה הקיימת של הסורק (הנחת עבודה שהועברה מ-StockScannerRunner)
-                StockAnalysisResult result = StockScannerRunner.analyzeSingleStock(ticker);
-                allAnalyzedResults.add(result);
-            } catch (Exception e) {
-                System.err.println("שגיאה בניתוח " + ticker + ": " + e.getMessage());
-                // נסה להציג הודעת שירות מ-Alpha Vantage (לרוב Rate Limit)
-                try {
-                    DataFetcher.setTicker(ticker);
-                    String json = DataFetcher.fetchStockData();
-                    String svc = PriceJsonParser.extractServiceMessage(json);
-                    if (svc != null && !svc.isEmpty()) {
-                        System.err.println("Alpha Vantage: " + svc);
-                    }
-                } catch (Exception ignore) { }
-            }
 
-            if (ENABLE_THROTTLE && i < tickersToAnalyze.size() - 1) {
-                try { Thread.sleep(THROTTLE_MS); } catch (InterruptedException ignored) {}
-            }
+        report.println("--- ⏳ מריץ ניתוח על " + tickersToAnalyze.size() + " מניות שנבחרו אקראית: " + tickersToAnalyze + " ---");
+
+        // 1. ריצת הניתוח המלא על כל מניה - במקביל (עד SCAN_CONCURRENCY בו-זמנית, קצב ה-API נאכף ב-ApiHttpClient)
+        List<StockAnalysisResult> allAnalyzedResults = scanAll(tickersToAnalyze, report, SCAN_CONCURRENCY, true,
+                ticker -> BarStore.shared().tail(ticker, BarStore.ANALYSIS_BARS));
+
+        return selectCandidates(allAnalyzedResults, numCandidates);
+    }
+
+    /**
+     * סריקת כל היקום מתוך BarDatabase המקומי, ללא גישה לרשת: מסנכרן את ה-BarDatabase מקבצי ה-BarStore,
+     * בוחר את המניות שיש להן נר ביום המסחר האחרון במאגר (חתך רוחב), ומנתח את כולן במקביל על כל הליבות.
+     */
+    public static List<StockAnalysisResult> findBestLongTermBuysOffline(int numCandidates, AnalysisReport report) {
+        BarDatabase db = BarDatabase.shared();
+        if (db == null) {
+            report.error("❌ BarDatabase לא זמין (BAR_DB_FILE)");
+            return new ArrayList<>();
+        }
+        try {
+            int changed = db.syncFrom(BarStore.shared());
+            report.println("--- 🗄️ BarDatabase: עודכנו " + changed + " מניות מה-BarStore (" + db.stats() + ") ---");
+        } catch (Exception e) {
+            report.error("שגיאה בסנכרון BarDatabase: " + e.getMessage());
+        }
+
+        LocalDate latest = db.latestDate();
+        if (latest == null) {
+            report.error("❌ אין נתונים מקומיים - יש להריץ קודם סריקה רגילה (או ניתוח) כדי למלא את ה-BarStore");
+            return new ArrayList<>();
         }
+        // מניות ללא נר ביום האחרון (נתונים ישנים) לא נכנסות לדירוג
+        List<String> universe = new ArrayList<>(db.closesOn(latest).keySet());
+        report.println("--- ⏳ ניתוח מקומי של " + universe.size() + "/" + db.symbols().size()
+                + " מניות עם נתונים עד " + latest + " ---");
 
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        List<StockAnalysisResult> all = scanAll(universe, report, threads, false, db::bars);
+        return selectCandidates(all, numCandidates);
+    }
+
+    // סינון ודירוג משותפים לסריקה הרגילה ולסריקה המקומית
+    private static List<StockAnalysisResult> selectCandidates(List<StockAnalysisResult> allAnalyzedResults, int numCandidates) {
         // 2. סינון קריטריונים מחמירים לטווח ארוך (החלטה משולבת)
         List<StockAnalysisResult> longCandidates = allAnalyzedResults.stream()
                 // קריטריון פונדמנטלי: חייבת להיות מוערכת בחסר
@@ -143,23 +199,117 @@ public class LongTermCandidateFinder {
         return topCandidates;
     }
 
-    // ----------------------------------------------------------------------------------
-    // *** מתודת main להרצה והצגת התוצאות ***
-    // ----------------------------------------------------------------------------------
-    public static void main(String[] args) {
-        System.out.println("--- 🎯 מציאת 5 מועמדי Long Term Buy מובילים ---");
+    private record ScanOutcome(String ticker, StockAnalysisResult result, String error, long millis) {
+    }
 
-        List<StockAnalysisResult> topCandidates = findBestLongTermBuys(5);
+    /**
+     * מנתח את כל המניות על thread pool חסום ואוסף את התוצאות לפי סדר הסיום, עם דיווח התקדמות.
+     * מניה שנכשלה מדווחת ומדולגת - היא לא עוצרת את הסריקה.
+     */
+    private static List<StockAnalysisResult> scanAll(List<String> tickers, AnalysisReport report, int concurrency,
+                                                     boolean perTickerProgress, BarLoader loader) {
+        List<StockAnalysisResult> results = new ArrayList<>();
+        if (tickers.isEmpty()) return results;
 
-        System.out.println("\n| TICKER | PRICE    | טכני (כניסה)    | פונדמנטלי         | ADX (חוזק) |");
-        System.out.println("|--------|----------|-----------------|-------------------|-----------|");
+        int threads = Math.min(concurrency, tickers.size());
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "finder-scan-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<ScanOutcome> completion = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        boolean interrupted = false;
+        try {
+            for (String ticker : tickers) {
+                completion.submit(() -> scanOne(ticker, loader));
+            }
+            for (int done = 1; done <= tickers.size(); done++) {
+                ScanOutcome o = completion.take().get();
+                if (o.result() != null) {
+                    results.add(o.result());
+                } else {
+                    report.error("שגיאה בניתוח " + o.ticker() + ": " + o.error());
+                }
+                if (perTickerProgress) {
+                    report.printf("[%d/%d] %s %s (%d ms)%n", done, tickers.size(), o.ticker(),
+                            o.result() != null ? "✓" : "✗", o.millis());
+                }
+            }
+        } catch (InterruptedException e) {
+            // הסריקה נעצרה באמצע: מחזירים את מה שנותח, מסומן בדוח כתוצאה חלקית (וה-interrupt נשמר לקורא)
+            Thread.currentThread().interrupt();
+            interrupted = true;
+        } catch (ExecutionException e) {
+            // scanOne never throws
+        } finally {
+            pool.shutdownNow();
+        }
+        if (interrupted) {
+            report.error("הסריקה הופסקה (interrupted) - התוצאה חלקית: נותחו רק " + results.size() + "/" + tickers.size() + " מניות");
+        }
+        report.printf("--- נותחו %d/%d מניות ב-%.1f שניות (%d במקביל)%s ---%n",
+                results.size(), tickers.size(), (System.nanoTime() - start) / 1e9, threads, interrupted ? ", חלקי" : "");
+        return results;
+    }
+
+    // Where a scan gets its bars: the BarStore (compact refresh at most; a failed refresh carries the Alpha Vantage
+    // service note, usually the rate limit, in its message) or the local BarDatabase
+    private interface BarLoader {
+        BarSeries load(String ticker) throws Exception;
+    }
+
+    private static ScanOutcome scanOne(String ticker, BarLoader loader) {
+        long t0 = System.nanoTime();
+        try {
+            StockAnalysisResult result = StockScannerRunner.analyzeSingleStock(ticker, loader.load(ticker));
+            return new ScanOutcome(ticker, result, null, (System.nanoTime() - t0) / 1_000_000);
+        } catch (Exception e) {
+            return new ScanOutcome(ticker, null, e.getMessage(), (System.nanoTime() - t0) / 1_000_000);
+        }
+    }
+
+    /**
+     * דוח מלא: סריקה, טבלת המועמדים המובילים, ורשומת-בן מובנית לכל מועמד.
+     */
+    public static AnalysisReport report(int numCandidates) {
+        return report(numCandidates, new AnalysisReport("Long Term Buy candidates"));
+    }
+
+    static AnalysisReport report(int numCandidates, AnalysisReport report) {
+        report.println("--- 🎯 מציאת " + numCandidates + " מועמדי Long Term Buy מובילים ---");
+        return candidatesTable(findBestLongTermBuys(numCandidates, report), report);
+    }
+
+    /**
+     * כמו report(int), אך מדרג את כל היקום מהנתונים המקומיים (BarDatabase) ללא גישה לרשת.
+     */
+    public static AnalysisReport reportOffline(int numCandidates) {
+        AnalysisReport report = new AnalysisReport("Long Term Buy candidates (local data)");
+        report.println("--- 🎯 מציאת " + numCandidates + " מועמדי Long Term Buy מובילים מכל היקום (נתונים מקומיים) ---");
+        return candidatesTable(findBestLongTermBuysOffline(numCandidates, report), report);
+    }
+
+    private static AnalysisReport candidatesTable(List<StockAnalysisResult> topCandidates, AnalysisReport report) {
+        report.println("\n| TICKER | PRICE    | טכני (כניסה)    | פונדמנטלי         | ADX (חוזק) |");
+        report.println("|--------|----------|-----------------|-------------------|-----------|");
 
         if (topCandidates.isEmpty()) {
-            System.out.println("לא נמצאו מועמדים העומדים בקריטריונים המחמירים.");
+            report.println("לא נמצאו מועמדים העומדים בקריטריונים המחמירים.");
         } else {
             for (StockAnalysisResult result : topCandidates) {
-                System.out.println(result);
+                report.println(result.toString());
+                report.child(result.toReport());
             }
         }
+        return report;
+    }
+
+    // ----------------------------------------------------------------------------------
+    // *** מתודת main להרצה והצגת התוצאות ***
+    // ----------------------------------------------------------------------------------
+    public static void main(String[] args) {
+        report(5, AnalysisReport.echoingTo("Long Term Buy candidates", System.out));
     }
-}
\ No newline at end of file
+}
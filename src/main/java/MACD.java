@@ -1,100 +1,85 @@
-
 import java.util.ArrayList;
 import java.util.List;
 
 public class MACD {
 
-    // שיטת עזר לחישוב ממוצע נע מעריכי (EMA)
-    private static List<Double> calculateEMA(List<Double> prices, int period) {
-        List<Double> emaValues = new ArrayList<>();
-        if (prices == null || prices.isEmpty()) {
-            return emaValues;
-        }
-
-        // מקדם החלקה (Smoothing factor)
-        double multiplier = 2.0 / (period + 1.0);
-
-        // EMA ראשוני הוא ה-SMA של התקופה הראשונה
-        double currentEMA = 0;
-        for (int i = 0; i < period; i++) {
-            // מוסיף Nullים או 0.0 עבור תקופת החישוב הראשונית
-            emaValues.add(null);
-            if (i < prices.size()) {
-                currentEMA += prices.get(i);
-            }
-        }
-
-        // חישוב ה-EMA הראשון (SMA של התקופה)
-        if (prices.size() >= period) {
-            currentEMA /= period;
-            emaValues.set(period - 1, currentEMA);
-        } else {
-            return emaValues; // אין מספיק נתונים
-        }
-
-        // חישוב ה-EMA עבור התקופות הבאות
-        for (int i = period; i < prices.size(); i++) {
-            double price = prices.get(i);
-            currentEMA = (price - currentEMA) * multiplier + currentEMA;
-            emaValues.add(currentEMA);
-        }
-
-        return emaValues;
-    }
-
     /**
      * מחשב את אינדיקטור MACD ואת קו האות שלו.
      * @param prices רשימת מחירי סגירה.
      * @return רשימה של Double[] כאשר [0]=MACD, [1]=Signal Line.
      */
     public static List<Double[]> calculateMACD(List<Double> prices) {
-        // מחשב שני קווי EMA
-        List<Double> ema12 = calculateEMA(prices, 12);
-        List<Double> ema26 = calculateEMA(prices, 26);
-
         // ודא שיש מספיק נתונים
         if (prices.size() < 26) {
             return new ArrayList<>();
         }
+        int n = prices.size();
+        double[] macd = new double[n];
+        double[] signal = new double[n];
+        calculateMACD(IndicatorArrays.toArray(prices), macd, signal);
+        return IndicatorArrays.toRows(macd, signal);
+    }
 
-        List<Double> macdLine = new ArrayList<>();
+    /**
+     * גרסה פרימיטיבית של MACD (12/26/9) במעבר יחיד, ללא רשימות ביניים.
+     * EMA מאותחל ב-SMA של התקופה הראשונה; MACD תקף מאינדקס 25 וקו האות מאינדקס 33, לפני כן NaN.
+     * @param prices מחירי סגירה.
+     * @param macdOut מערך פלט לקו ה-MACD (EMA12 - EMA26).
+     * @param signalOut מערך פלט לקו האות (EMA9 של קו ה-MACD).
+     */
+    public static void calculateMACD(double[] prices, double[] macdOut, double[] signalOut) {
+        calculateMACD(prices, 12, 26, 9, macdOut, signalOut);
+    }
 
-        // חישוב קו MACD (EMA12 - EMA26)
-        for (int i = 0; i < prices.size(); i++) {
-            Double macdValue = null;
-            if (ema12.get(i) != null && ema26.get(i) != null) {
-                macdValue = ema12.get(i) - ema26.get(i);
+    static void calculateMACD(double[] prices, int fast, int slow, int signalPeriod, double[] macdOut, double[] signalOut) {
+        int n = prices.length;
+        IndicatorArrays.requireOutput(macdOut, n);
+        IndicatorArrays.requireOutput(signalOut, n);
+        java.util.Arrays.fill(macdOut, 0, n, Double.NaN);
+        java.util.Arrays.fill(signalOut, 0, n, Double.NaN);
+
+        // מקדמי החלקה (Smoothing factor)
+        double fastMult = 2.0 / (fast + 1.0);
+        double slowMult = 2.0 / (slow + 1.0);
+        double signalMult = 2.0 / (signalPeriod + 1.0);
+
+        double emaFast = 0;
+        double emaSlow = 0;
+        double signal = 0;
+        int firstMacd = Math.max(fast, slow) - 1;
+
+        for (int i = 0; i < n; i++) {
+            double price = prices[i];
+            // EMA ראשוני הוא ה-SMA של התקופה הראשונה
+            if (i < fast) {
+                emaFast += price;
+                if (i == fast - 1) emaFast /= fast;
+            } else {
+                emaFast = (price - emaFast) * fastMult + emaFast;
             }
-            macdLine.add(macdValue);
-        }
-
-        // חישוב קו האות (EMA9 של קו MACD)
-        // חשוב: נשלח רק את הערכים הלא-Nullיים של קו MACD
-        List<Double> validMACD = new ArrayList<>();
-        for (Double val : macdLine) {
-            if (val != null) {
-                validMACD.add(val);
+            if (i < slow) {
+                emaSlow += price;
+                if (i == slow - 1) emaSlow /= slow;
+            } else {
+                emaSlow = (price - emaSlow) * slowMult + emaSlow;
             }
-        }
-        List<Double> signalLinePartial = calculateEMA(validMACD, 9);
-
-        // איחוד התוצאות
-        List<Double[]> results = new ArrayList<>();
-        int signalIndex = 0;
-        for (int i = 0; i < prices.size(); i++) {
-            Double macd = macdLine.get(i);
-            Double signal = null;
-
-            // מתחילים לשלב את קו האות לאחר 26+9-2 ימים (בגלל EMA)
-            if (macd != null && signalIndex < signalLinePartial.size()) {
-                signal = signalLinePartial.get(signalIndex);
-                signalIndex++;
+            if (i < firstMacd) continue;
+
+            double macd = emaFast - emaSlow;
+            macdOut[i] = macd;
+
+            // קו האות: EMA9 על ערכי ה-MACD התקפים בלבד
+            int j = i - firstMacd;
+            if (j < signalPeriod) {
+                signal += macd;
+                if (j == signalPeriod - 1) {
+                    signal /= signalPeriod;
+                    signalOut[i] = signal;
+                }
+            } else {
+                signal = (macd - signal) * signalMult + signal;
+                signalOut[i] = signal;
             }
-
-            // מוסיפים את התוצאה לרישום: [MACD, Signal Line]
-            results.add(new Double[]{macd, signal});
         }
-
-        return results;
     }
-}
\ No newline at end of file
+}
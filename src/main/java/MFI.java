@@ -14,52 +14,56 @@ public class MFI {
      * @return רשימה של ערכי MFI.
      */
     public static List<Double> calculateMFI(List<Double> highPrices, List<Double> lowPrices, List<Double> closingPrices, List<Long> volumeData, int period) {
-
-        List<Double> mfiValues = new ArrayList<>();
         if (closingPrices.size() < period) {
-            return mfiValues;
+            return new ArrayList<>();
         }
+        double[] out = new double[closingPrices.size()];
+        calculateMFI(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices),
+                IndicatorArrays.toArray(closingPrices), IndicatorArrays.toLongArray(volumeData), period, out);
+        return IndicatorArrays.toList(out);
+    }
 
-        // חישוב Typical Price ו-Money Flow
-        List<Double> typicalPrices = new ArrayList<>();
-        List<Double> moneyFlow = new ArrayList<>();
-
-        for (int i = 0; i < closingPrices.size(); i++) {
-            // Typical Price = (High + Low + Close) / 3
-            double tp = (highPrices.get(i) + lowPrices.get(i) + closingPrices.get(i)) / 3.0;
-            typicalPrices.add(tp);
-
-            // Money Flow = Typical Price * Volume
-            moneyFlow.add(tp * volumeData.get(i));
+    /**
+     * גרסה פרימיטיבית של MFI: כותבת למערך הפלט של הקורא, NaN עד period (כולל).
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param closingPrices מחירי סגירה.
+     * @param volumeData נפחי המסחר.
+     * @param period תקופת החישוב (לרוב 14).
+     * @param out מערך פלט באורך closingPrices.length לפחות.
+     */
+    public static void calculateMFI(double[] highPrices, double[] lowPrices, double[] closingPrices, long[] volumeData, int period, double[] out) {
+        int n = closingPrices.length;
+        IndicatorArrays.requireOutput(out, n);
+        java.util.Arrays.fill(out, 0, n, Double.NaN);
+        if (n < period) {
+            return;
         }
 
-        // חישוב MFI
-        for (int i = 0; i < closingPrices.size(); i++) {
-            if (i < period) {
-                mfiValues.add(null);
-                continue;
-            }
+        // Typical Price = (High + Low + Close) / 3
+        double[] typicalPrices = new double[n];
+        for (int i = 0; i < n; i++) {
+            typicalPrices[i] = (highPrices[i] + lowPrices[i] + closingPrices[i]) / 3.0;
+        }
 
+        for (int i = period; i < n; i++) {
             double positiveMoneyFlow = 0; // זרימת כסף חיובית
             double negativeMoneyFlow = 0; // זרימת כסף שלילית
 
-            // חישוב חלון התקופה
             for (int j = i - period + 1; j <= i; j++) {
-                // בודק את Typical Price הנוכחי מול הקודם
-                if (typicalPrices.get(j) > typicalPrices.get(j - 1)) {
-                    positiveMoneyFlow += moneyFlow.get(j);
-                } else if (typicalPrices.get(j) < typicalPrices.get(j - 1)) {
-                    negativeMoneyFlow += moneyFlow.get(j);
+                // Money Flow = Typical Price * Volume
+                double tp = typicalPrices[j];
+                if (tp > typicalPrices[j - 1]) {
+                    positiveMoneyFlow += tp * volumeData[j];
+                } else if (tp < typicalPrices[j - 1]) {
+                    negativeMoneyFlow += tp * volumeData[j];
                 }
             }
 
             double moneyRatio = positiveMoneyFlow / negativeMoneyFlow;
 
             // Money Flow Index = 100 - (100 / (1 + Money Ratio))
-            double mfi = 100.0 - (100.0 / (1.0 + moneyRatio));
-            mfiValues.add(mfi);
+            out[i] = 100.0 - (100.0 / (1.0 + moneyRatio));
         }
-
-        return mfiValues;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,17 @@
 
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -29,6 +38,9 @@ public class Main {
         return v > 0 ? "PASS" : "FAIL";
     }
 
+    // מומנטום 12-1 ו-Max Drawdown מחושבים על METRICS_WINDOW הסגירות האחרונות (הסדרה ה-compact שעליה הוגדרו)
+    private static final int METRICS_WINDOW = 100;
+
     private static double calculateMomentum12m(List<Double> closes) {
         if (closes == null || closes.size() < 40) {
             if (closes == null || closes.size() < 20) return 0.0;
@@ -65,7 +77,28 @@ public class Main {
 
     private static final String RLM = "\u200F"; // Right-to-Left Mark to enforce RTL rendering
 
+    private static final String DEFAULT_SYMBOL = "BIIB";
+
     public static void main(String[] args) {
+        analyze(args != null && args.length > 0 ? args[0] : DEFAULT_SYMBOL).printTo(System.out);
+    }
+
+    /**
+     * ניתוח מלא של מניה אחת והדפסת הדוח. הסימול מועבר במפורש, כך שכמה ניתוחים יכולים לרוץ במקביל.
+     */
+    public static AnalysisReport analyze(String symbol) {
+        return analyze(symbol, DataFetcher.defaultClient());
+    }
+
+    public static AnalysisReport analyze(String symbol, DataFetcher data) {
+        return analyze(symbol, data, Fetches.start(symbol, data));
+    }
+
+    /**
+     * ניתוח על בסיס קריאות שכבר יצאו (למשל כשה-WebServer צריך את ה-OVERVIEW גם לכרטיס החברה).
+     */
+    public static AnalysisReport analyze(String symbol, DataFetcher data, Fetches fetches) {
+        AnalysisReport report = new AnalysisReport(symbol);
 
         // --- 1. משיכת וניתוח נתונים (שלב קריטי) ---
         List<Double> historicalPrices = null;
@@ -74,42 +107,43 @@ public class Main {
         List<Long> volumeData = null;
 
         try {
-            String jsonData = DataFetcher.fetchStockData();
-            // מנתח את ה-JSON ומחלץ את המחירים (המתודה שסיפקתי ב-JsonParser)
-            historicalPrices = PriceJsonParser.extractClosingPrices(jsonData);
-            // מחלץ גם High/Low אם קיימים
-            highPrices = PriceJsonParser.extractHighPrices(jsonData);
-            lowPrices = PriceJsonParser.extractLowPrices(jsonData);
-            volumeData = PriceJsonParser.extractVolumeData(jsonData);
+            // ההיסטוריה המלאה מה-BarStore (רענון compact בלבד), כסדרה עמודתית שממנה מחלצים Close/High/Low/Volume
+            BarSeries bars;
+            String avError = null;
+            try {
+                bars = fetches.dailyBars();
+            } catch (IOException e) {
+                bars = BarSeries.empty();
+                avError = e.getMessage();
+            }
+            historicalPrices = bars.closeList();
+            highPrices = bars.highList();
+            lowPrices = bars.lowList();
+            volumeData = bars.volumeList();
 
             int avCount = (historicalPrices == null ? 0 : historicalPrices.size());
-            System.out.println("[DEBUG] AlphaVantage closes count=" + avCount);
-            String avSvc = PriceJsonParser.extractServiceMessage(jsonData);
-            if (avSvc != null && !avSvc.isEmpty()) {
-                System.out.println("[DEBUG] AlphaVantage service message=" + avSvc);
+            report.println("[DEBUG] AlphaVantage closes count=" + avCount);
+            if (avError != null && !avError.isEmpty()) {
+                report.println("[DEBUG] AlphaVantage service message=" + avError);
             }
 
         } catch (Exception e) {
-            System.err.println("❌ שגיאה קריטית במשיכת נתונים: " + e.getMessage());
-            return;
+            report.error("❌ שגיאה קריטית במשיכת נתונים: " + e.getMessage());
+            return report;
         }
 
         if (historicalPrices == null || historicalPrices.size() < 10) {
             try {
-                String fhJson = DataFetcher.fetchDailyCandlesFromFinnhub();
+                String fhJson = data.fetchDailyCandlesFromFinnhub(symbol);
                 if (fhJson != null) {
-                    List<Double> fhCloses = PriceJsonParser.extractClosingPricesFromFinnhub(fhJson);
-                    int fhCount = (fhCloses == null ? 0 : fhCloses.size());
-                    System.out.println("[DEBUG] Finnhub closes count=" + fhCount);
-                    if (fhCloses != null && fhCloses.size() >= 10) {
-                        historicalPrices = fhCloses;
-                        // Attempt to also populate High/Low/Volume from Finnhub if available
-                        List<Double> fhHigh = PriceJsonParser.extractHighPricesFromFinnhub(fhJson);
-                        List<Double> fhLow = PriceJsonParser.extractLowPricesFromFinnhub(fhJson);
-                        List<Long> fhVol = PriceJsonParser.extractVolumeFromFinnhub(fhJson);
-                        if (fhHigh != null && !fhHigh.isEmpty()) highPrices = fhHigh;
-                        if (fhLow != null && !fhLow.isEmpty()) lowPrices = fhLow;
-                        if (fhVol != null && !fhVol.isEmpty()) volumeData = fhVol;
+                    BarSeries fhBars = PriceJsonParser.parseFinnhubBars(fhJson);
+                    report.println("[DEBUG] Finnhub closes count=" + fhBars.size());
+                    if (fhBars.size() >= 10) {
+                        // High/Low/Volume come from the same candles, already aligned with the closes
+                        historicalPrices = fhBars.closeList();
+                        highPrices = fhBars.highList();
+                        lowPrices = fhBars.lowList();
+                        volumeData = fhBars.volumeList();
                     }
                 }
             } catch (Exception ignore) {
@@ -117,8 +151,8 @@ public class Main {
             }
 
             if (historicalPrices == null || historicalPrices.size() < 10) {
-                System.err.println("❌ לא נמשכו מספיק נתונים (נדרש לפחות 10 לחישובים מורכבים).");
-                return;
+                report.error("❌ לא נמשכו מספיק נתונים (נדרש לפחות 10 לחישובים מורכבים).");
+                return report;
             }
         }
 
@@ -129,127 +163,146 @@ public class Main {
         }
 
         Double currentPrice = historicalPrices.get(historicalPrices.size() - 1);
-        System.out.println("✅ נתונים נמשכו בהצלחה. מחיר סגירה עדכני: " + String.format("$%.2f", currentPrice));
+        report.indicator("price", currentPrice);
+        report.println("✅ נתונים נמשכו בהצלחה. מחיר סגירה עדכני: " + String.format("$%.2f", currentPrice));
 
         // Momentum 12-1 and Max Drawdown
-        double momentum12mPct = calculateMomentum12m(historicalPrices);
-        double maxDrawdownPct = calculateMaxDrawdownPct(historicalPrices);
-        System.out.printf("\nמומנטום 12-1: %.2f%%%n", momentum12mPct);
-        System.out.printf("שיא ירידה (Max Drawdown): %.2f%%%n", maxDrawdownPct);
+        // על חלון ~100 הימים האחרונים כמו לפני ה-BarStore (ההיסטוריה המלאה הייתה משנה את משמעות שני המדדים)
+        List<Double> metricWindow = historicalPrices.subList(Math.max(0, historicalPrices.size() - METRICS_WINDOW), historicalPrices.size());
+        double momentum12mPct = calculateMomentum12m(metricWindow);
+        double maxDrawdownPct = calculateMaxDrawdownPct(metricWindow);
+        report.indicator("momentum_12_1_pct", momentum12mPct).indicator("max_drawdown_pct", maxDrawdownPct);
+        report.printf("\nמומנטום 12-1: %.2f%%%n", momentum12mPct);
+        report.printf("שיא ירידה (Max Drawdown): %.2f%%%n", maxDrawdownPct);
 
         // --- News & Market Sentiment (Alpha Vantage NEWS_SENTIMENT) ---
         try {
-            // TICKER כבר מוגדר ב-DataFetcher דרך DataFetcher.setTicker(...) לפני הקריאה ל-Main.main
-            String newsJson = DataFetcher.fetchNewsSentiment("");
+            String newsJson = fetches.news();
 
-            System.out.println("\n--- 📰 News & Market Sentiment ---");
+            report.println("\n--- 📰 News & Market Sentiment ---");
             if (newsJson != null && !newsJson.isBlank()) {
                 String sentimentVerdict = SentimentModel.getSentimentVerdict(newsJson);
                 String eventRisk = EventAnalysis.getEventRisk(newsJson);
+                report.signal("Sentiment", sentimentVerdict).signal("EventRisk", eventRisk);
 
-                System.out.println("פסק-דין סנטימנט: " + sentimentVerdict);
-                System.out.println("סיכון/קאטליסט מאירועים: " + eventRisk);
+                report.println("פסק-דין סנטימנט: " + sentimentVerdict);
+                report.println("סיכון/קאטליסט מאירועים: " + eventRisk);
             } else {
-                System.out.println("לא נמצאו נתוני חדשות/סנטימנט זמינים כרגע (או כשל ב-API).");
+                report.println("לא נמצאו נתוני חדשות/סנטימנט זמינים כרגע (או כשל ב-API).");
             }
         } catch (Exception e) {
-            System.out.println("\n--- 📰 News & Market Sentiment ---");
-            System.out.println("שגיאה בניתוח חדשות/סנטימנט (התעלמות): " + e.getMessage());
+            report.println("\n--- 📰 News & Market Sentiment ---");
+            report.println("שגיאה בניתוח חדשות/סנטימנט (התעלמות): " + e.getMessage());
         }
         // ===================================================================
         // ======================== ניתוח טכני ===============================
         // ===================================================================
 
+        // כל האינדיקטורים הטכניים מחושבים במעבר יחיד על הנתונים (IndicatorPipeline); NaN = אין מספיק נתונים
+        double[] closeArr = IndicatorArrays.toArray(historicalPrices);
+        double[] highArr = highPrices.size() == closeArr.length ? IndicatorArrays.toArray(highPrices) : closeArr;
+        double[] lowArr = lowPrices.size() == closeArr.length ? IndicatorArrays.toArray(lowPrices) : closeArr;
+        long[] volumeArr = (volumeData != null && volumeData.size() == closeArr.length) ? IndicatorArrays.toLongArray(volumeData) : null;
+        IndicatorPipeline.Result ind = new IndicatorPipeline()
+                .sma(20).rsi(14).macd().stochastic(14, 3).bollinger(20, 2.0)
+                .adx(14).atr(14).cmf(20).adLine().cci(20)
+                .compute(highArr, lowArr, closeArr, volumeArr);
+
         // --- 2. SMA (ממוצע נע פשוט) ---
         int smaWindow = 20;
-        List<Double> smaResults = TechnicalAnalysisModel.calculateSMA(historicalPrices, smaWindow);
-        Double latestSMA = smaResults.get(smaResults.size() - 1);
+        double latestSMA = IndicatorPipeline.last(ind.sma(smaWindow));
+        report.indicator("SMA_" + smaWindow, latestSMA);
 
-        System.out.println("\n--- 📝 מודל SMA מודד את המגמה הממוצעת של המחיר בטווח הקרוב. ---"); // הסבר קצר
-        System.out.println("--- 📈 ניתוח טכני: SMA ---");
-        System.out.printf("SMA-%d אחרון: $%.2f%n", smaWindow, latestSMA);
-        System.out.printf(RLM + "הסבר: אם המחיר הנוכחי ($%.2f) מעל הממוצע (SMA), המגמה נחשבת חיובית (Bullish). אם מתחתיו – שלילית/חלשה.%n", currentPrice);
+        report.println("\n--- 📝 מודל SMA מודד את המגמה הממוצעת של המחיר בטווח הקרוב. ---"); // הסבר קצר
+        report.println("--- 📈 ניתוח טכני: SMA ---");
+        report.printf("SMA-%d אחרון: $%.2f%n", smaWindow, latestSMA);
+        report.printf(RLM + "הסבר: אם המחיר הנוכחי ($%.2f) מעל הממוצע (SMA), המגמה נחשבת חיובית (Bullish). אם מתחתיו – שלילית/חלשה.%n", currentPrice);
 
         if (currentPrice > latestSMA) {
-            System.out.println("🟢 אות SMA: קנייה (Bullish)");
+            report.println("🟢 אות SMA: קנייה (Bullish)");
+            report.signal("SMA", "BUY");
         } else {
-            System.out.println("🔴 אות SMA: מכירה/ניטרלי");
+            report.println("🔴 אות SMA: מכירה/ניטרלי");
+            report.signal("SMA", "SELL/NEUTRAL");
         }
 
         // --- 3. RSI (מדד חוזק יחסי) ---
         int rsiPeriod = 14;
-        List<Double> rsiResults = RSI.calculateRSI(historicalPrices, rsiPeriod);
-        Double latestRSI = rsiResults.get(rsiResults.size() - 1);
+        double latestRSI = IndicatorPipeline.last(ind.rsi());
+        report.indicator("RSI_" + rsiPeriod, latestRSI);
 
-        System.out.println("\n--- 📝 מודל RSI מודד את עוצמת השינויים במחיר ומזהה מצבי קיצון. ---"); // הסבר קצר
-        System.out.println("--- 📊 ניתוח טכני: RSI ---");
-        System.out.printf("RSI-%d אחרון: %.2f%n", rsiPeriod, latestRSI);
-        System.out.println(RLM + "הסבר: RSI נע בין 0 ל-100. מעל 70 = אזור קניות יתר (Overbought), מתחת ל-30 = אזור מכירות יתר (Oversold). ערכים באמצע = ניטרלי.");
+        report.println("\n--- 📝 מודל RSI מודד את עוצמת השינויים במחיר ומזהה מצבי קיצון. ---"); // הסבר קצר
+        report.println("--- 📊 ניתוח טכני: RSI ---");
+        report.printf("RSI-%d אחרון: %.2f%n", rsiPeriod, latestRSI);
+        report.println(RLM + "הסבר: RSI נע בין 0 ל-100. מעל 70 = אזור קניות יתר (Overbought), מתחת ל-30 = אזור מכירות יתר (Oversold). ערכים באמצע = ניטרלי.");
         if (latestRSI > 70) {
-            System.out.println("🚨 אות RSI: סיכון/מכירה - Overbought");
+            report.println("🚨 אות RSI: סיכון/מכירה - Overbought");
+            report.signal("RSI", "SELL");
         } else if (latestRSI < 30) {
-            System.out.println("🌟 אות RSI: קנייה - Oversold");
+            report.println("🌟 אות RSI: קנייה - Oversold");
+            report.signal("RSI", "BUY");
         } else {
-            System.out.println("⚪️ אות RSI: ניטרלי");
+            report.println("⚪️ אות RSI: ניטרלי");
+            report.signal("RSI", "NEUTRAL");
         }
 
         // --- 4. MACD ---
-        List<Double[]> macdResults = MACD.calculateMACD(historicalPrices);
-        if (!macdResults.isEmpty()) {
-            Double[] latestMacd = macdResults.get(macdResults.size() - 1);
-            Double macdLine = latestMacd[0];
-            Double signalLine = latestMacd[1];
-
-            System.out.println("\n--- 📝 מודל MACD מודד את המומנטום ואת השינוי במגמה על ידי השוואת ממוצעים מעריכיים. ---"); // הסבר קצר
-            System.out.println("--- 📈 ניתוח טכני: MACD ---");
-            System.out.printf("קו MACD אחרון: %.4f%n", macdLine);
-            System.out.printf("קו אות אחרון: %.4f%n", signalLine);
-            System.out.println(RLM + "הסבר: כאשר קו ה-MACD מעל קו האות (Signal) מתפתח מומנטום חיובי; מתחת – מומנטום שלילי. הצלבות מסמנות שינוי מגמה אפשרי.");
-
-            if (macdLine != null && signalLine != null && macdLine > signalLine) {
-                System.out.println("🟢 אות MACD: קנייה (חצייה כלפי מעלה)");
+        double macdLine = IndicatorPipeline.last(ind.macd());
+        double signalLine = IndicatorPipeline.last(ind.macdSignal());
+        report.indicator("MACD", macdLine).indicator("MACD_signal", signalLine);
+        if (!Double.isNaN(macdLine)) {
+
+            report.println("\n--- 📝 מודל MACD מודד את המומנטום ואת השינוי במגמה על ידי השוואת ממוצעים מעריכיים. ---"); // הסבר קצר
+            report.println("--- 📈 ניתוח טכני: MACD ---");
+            report.printf("קו MACD אחרון: %.4f%n", macdLine);
+            report.printf("קו אות אחרון: %.4f%n", signalLine);
+            report.println(RLM + "הסבר: כאשר קו ה-MACD מעל קו האות (Signal) מתפתח מומנטום חיובי; מתחת – מומנטום שלילי. הצלבות מסמנות שינוי מגמה אפשרי.");
+
+            if (macdLine > signalLine) {
+                report.println("🟢 אות MACD: קנייה (חצייה כלפי מעלה)");
+                report.signal("MACD", "BUY");
             } else {
-                System.out.println("🔴 אות MACD: מכירה/ניטרלי");
+                report.println("🔴 אות MACD: מכירה/ניטרלי");
+                report.signal("MACD", "SELL/NEUTRAL");
             }
         }
 
         // --- 5. Stochastic Oscillator ---
-        List<Double[]> stochasticResults = Stochastic.calculateStochastic(
-                historicalPrices, highPrices, lowPrices, 14, 3
-        );
-        if (!stochasticResults.isEmpty()) {
-            Double[] latestStochastic = stochasticResults.get(stochasticResults.size() - 1);
-            Double kLine = latestStochastic[0];
-            Double dLine = latestStochastic[1];
-
-            System.out.println("\n--- 📝 מודל סטוקסטיק משווה את מחיר הסגירה לטווח המחירים לאורך זמן. ---"); // הסבר קצר
-            System.out.println("--- 📈 ניתוח טכני: Stochastic Oscillator ---");
-            System.out.printf("%%K אחרון: %.2f%n", kLine);
-            System.out.printf("%%D אחרון: %.2f%n", dLine);
-            System.out.println(RLM + "הסבר: %K/%D נעים בין 0 ל-100. מעל 80 = אזור קניות יתר; מתחת 20 = אזור מכירות יתר. חצייה של %K את %D עשויה לרמוז היפוך.");
-
-            if (kLine != null && dLine != null && kLine < 20 && kLine > dLine) {
-                System.out.println("🌟 אות סטוקסטיק: קנייה (Oversold וחוצה למעלה)");
+        double kLine = IndicatorPipeline.last(ind.stochK());
+        double dLine = IndicatorPipeline.last(ind.stochD());
+        report.indicator("Stoch_K", kLine).indicator("Stoch_D", dLine);
+        if (!Double.isNaN(kLine)) {
+
+            report.println("\n--- 📝 מודל סטוקסטיק משווה את מחיר הסגירה לטווח המחירים לאורך זמן. ---"); // הסבר קצר
+            report.println("--- 📈 ניתוח טכני: Stochastic Oscillator ---");
+            report.printf("%%K אחרון: %.2f%n", kLine);
+            report.printf("%%D אחרון: %.2f%n", dLine);
+            report.println(RLM + "הסבר: %K/%D נעים בין 0 ל-100. מעל 80 = אזור קניות יתר; מתחת 20 = אזור מכירות יתר. חצייה של %K את %D עשויה לרמוז היפוך.");
+
+            if (kLine < 20 && kLine > dLine) {
+                report.println("🌟 אות סטוקסטיק: קנייה (Oversold וחוצה למעלה)");
+                report.signal("Stochastic", "BUY");
             }
         }
 
         // --- 6. Bollinger Bands ---
-        List<Double[]> bandsResults = BollingerBands.calculateBands(historicalPrices, 20, 2.0);
-        if (!bandsResults.isEmpty()) {
-            Double[] latestBands = bandsResults.get(bandsResults.size() - 1);
-            Double upperBand = latestBands[0];
-            Double lowerBand = latestBands[2];
-
-            System.out.println("\n--- 📝 מודל בולינגר מודד תנודתיות (Volatility) ומזהה מחירים קיצוניים. ---"); // הסבר קצר
-            System.out.println("--- 📊 ניתוח טכני: Bollinger Bands ---");
-            System.out.printf("רצועה עליונה (Upper): $%.2f%n", upperBand);
-            System.out.printf("רצועה תחתונה (Lower): $%.2f%n", lowerBand);
-            System.out.printf(RLM + "הסבר: מחיר נוכחי $%.2f ביחס לרצועות – מתחת ל-Lower עשוי לרמוז על קנייה ערכית; מעל Upper עשוי לרמוז על סיכון/מימוש.%n", currentPrice);
+        double upperBand = IndicatorPipeline.last(ind.bollingerUpper());
+        double lowerBand = IndicatorPipeline.last(ind.bollingerLower());
+        report.indicator("BB_upper", upperBand).indicator("BB_lower", lowerBand);
+        if (!Double.isNaN(upperBand)) {
+
+            report.println("\n--- 📝 מודל בולינגר מודד תנודתיות (Volatility) ומזהה מחירים קיצוניים. ---"); // הסבר קצר
+            report.println("--- 📊 ניתוח טכני: Bollinger Bands ---");
+            report.printf("רצועה עליונה (Upper): $%.2f%n", upperBand);
+            report.printf("רצועה תחתונה (Lower): $%.2f%n", lowerBand);
+            report.printf(RLM + "הסבר: מחיר נוכחי $%.2f ביחס לרצועות – מתחת ל-Lower עשוי לרמוז על קנייה ערכית; מעל Upper עשוי לרמוז על סיכון/מימוש.%n", currentPrice);
 
             if (currentPrice < lowerBand) {
-                System.out.println("🌟 אות בולינגר: קנייה (מתחת לרצועה התחתונה)");
+                report.println("🌟 אות בולינגר: קנייה (מתחת לרצועה התחתונה)");
+                report.signal("Bollinger", "BUY");
             } else if (currentPrice > upperBand) {
-                System.out.println("🚨 אות בולינגר: מכירה (מעל לרצועה העליונה)");
+                report.println("🚨 אות בולינגר: מכירה (מעל לרצועה העליונה)");
+                report.signal("Bollinger", "SELL");
             }
         }
 
@@ -268,25 +321,29 @@ public class Main {
 
         double fairValue = DCFModel.calculateFairValue(initialFCF, growthRate, discountRate, forecastYears, terminalGrowthRate);
         double fairPricePerShare = fairValue / sharesOutstanding;
+        report.indicator("DCF_fair_value", fairPricePerShare);
 
-        System.out.println("\n--- 📝 מודל DCF מעריך את השווי הפנימי האמיתי של החברה באמצעות תזרימי מזומנים עתידיים. ---"); // הסבר קצר
-        System.out.println("--- 💰 ניתוח פונדמנטלי: DCF ---");
-        System.out.printf("שווי הוגן למניה (Fair Value): $%.2f%n", fairPricePerShare);
-        System.out.printf(RLM + "הסבר: אם מחיר השוק ($%.2f) נמוך מהשווי ההוגן – המניה נראית זולה (Undervalued); אם גבוה – יקרה (Overvalued).%n", currentPrice);
+        report.println("\n--- 📝 מודל DCF מעריך את השווי הפנימי האמיתי של החברה באמצעות תזרימי מזומנים עתידיים. ---"); // הסבר קצר
+        report.println("--- 💰 ניתוח פונדמנטלי: DCF ---");
+        report.printf("שווי הוגן למניה (Fair Value): $%.2f%n", fairPricePerShare);
+        report.printf(RLM + "הסבר: אם מחיר השוק ($%.2f) נמוך מהשווי ההוגן – המניה נראית זולה (Undervalued); אם גבוה – יקרה (Overvalued).%n", currentPrice);
 
         if (currentPrice < fairPricePerShare) {
-            System.out.printf("🟢 אות DCF: קנייה - מחיר השוק נמוך מהשווי ההוגן ($%.2f).%n", fairPricePerShare);
+            report.printf("🟢 אות DCF: קנייה - מחיר השוק נמוך מהשווי ההוגן ($%.2f).%n", fairPricePerShare);
+            report.signal("DCF", "BUY");
         } else {
-            System.out.printf("🔴 אות DCF: מכירה/ניטרלי - מחיר השוק גבוה מהשווי ההוגן ($%.2f).%n", fairPricePerShare);
+            report.printf("🔴 אות DCF: מכירה/ניטרלי - מחיר השוק גבוה מהשווי ההוגן ($%.2f).%n", fairPricePerShare);
+            report.signal("DCF", "SELL/NEUTRAL");
         }
 
         // FCF Yield (using the same placeholder FCF and sharesOutstanding)
         double fcfPerShare = initialFCF / sharesOutstanding;
         double fcfYieldPct = (currentPrice > 0) ? (fcfPerShare / currentPrice) * 100.0 : 0.0;
+        report.indicator("FCF_yield_pct", fcfYieldPct);
 
-        System.out.println("\n--- 💧 ניתוח פונדמנטלי: FCF Yield ---");
-        System.out.printf("FCF למניה (שנתי, משוער): $%.2f%n", fcfPerShare);
-        System.out.printf("FCF Yield: %.2f%%%n", fcfYieldPct);
+        report.println("\n--- 💧 ניתוח פונדמנטלי: FCF Yield ---");
+        report.printf("FCF למניה (שנתי, משוער): $%.2f%n", fcfPerShare);
+        report.printf("FCF Yield: %.2f%%%n", fcfYieldPct);
 
         // --- 8. PEG Ratio (Price/Earnings to Growth) ---
         // נתונים פונדמנטליים נדרשים (עדיין דמיוניים):
@@ -295,30 +352,34 @@ public class Main {
 
         double peRatio = FundamentalAnalysis.calculatePERatio(currentPrice, latestEPS);
         double pegRatio = FundamentalAnalysis.calculatePEGRatio(peRatio, expectedGrowthRate);
+        report.indicator("PE", peRatio).indicator("PEG", pegRatio);
 
-        System.out.println("\n--- 📝 מודל PEG משווה את מכפיל הרווח (P/E) לצמיחה הצפויה ברווחים. ---"); // הסבר קצר
-        System.out.println("--- 📈 ניתוח פונדמנטלי: PEG Ratio ---");
-        System.out.printf("יחס P/E: %.2f%n", peRatio);
-        System.out.printf("יחס צמיחה-רווח (PEG): %.2f%n", pegRatio);
-        System.out.println(RLM + "הסבר: PEG≈1 מצביע על תמחור הוגן יחסית לצמיחה; מתחת ל-1 לרוב נתפס כזול; מעל 2 – עלול להיות יקר מדי.");
+        report.println("\n--- 📝 מודל PEG משווה את מכפיל הרווח (P/E) לצמיחה הצפויה ברווחים. ---"); // הסבר קצר
+        report.println("--- 📈 ניתוח פונדמנטלי: PEG Ratio ---");
+        report.printf("יחס P/E: %.2f%n", peRatio);
+        report.printf("יחס צמיחה-רווח (PEG): %.2f%n", pegRatio);
+        report.println(RLM + "הסבר: PEG≈1 מצביע על תמחור הוגן יחסית לצמיחה; מתחת ל-1 לרוב נתפס כזול; מעל 2 – עלול להיות יקר מדי.");
 
         if (!Double.isNaN(pegRatio) && pegRatio <= 1.0) {
-            System.out.println("🌟 אות PEG: קנייה חזקה (Undervalued ביחס לצמיחה)");
+            report.println("🌟 אות PEG: קנייה חזקה (Undervalued ביחס לצמיחה)");
+            report.signal("PEG", "STRONG BUY");
         } else if (!Double.isNaN(pegRatio) && pegRatio > 2.0) {
-            System.out.println("🔴 אות PEG: מכירה (Overvalued ביחס לצמיחה)");
+            report.println("🔴 אות PEG: מכירה (Overvalued ביחס לצמיחה)");
+            report.signal("PEG", "SELL");
         } else {
-            System.out.println("⚪️ אות PEG: ניטרלי");
+            report.println("⚪️ אות PEG: ניטרלי");
+            report.signal("PEG", "NEUTRAL");
         }
 
         // --- Earnings history summary (Alpha Vantage EARNINGS) ---
         try {
-            String earnJson = DataFetcher.fetchEarnings(""); // symbol already set in DataFetcher
+            String earnJson = fetches.earnings();
             if (earnJson != null && !earnJson.isBlank()) {
                 ObjectMapper om = new ObjectMapper();
                 JsonNode root = om.readTree(earnJson);
                 JsonNode qArr = root.path("quarterlyEarnings");
                 if (qArr.isArray() && qArr.size() > 0) {
-                    System.out.println("\n--- 💹 Earnings History (Last Quarters) ---");
+                    report.println("\n--- 💹 Earnings History (Last Quarters) ---");
                     int max = Math.min(4, qArr.size());
                     for (int i = 0; i < max; i++) {
                         JsonNode n = qArr.get(i);
@@ -326,7 +387,7 @@ public class Main {
                         String rep = n.path("reportedEPS").asText("");
                         String est = n.path("estimatedEPS").asText("");
                         String surprisePct = n.path("surprisePercentage").asText("");
-                        System.out.printf("Quarter %s: reported EPS=%s, estimate=%s, surprise= %s%%%n",
+                        report.printf("Quarter %s: reported EPS=%s, estimate=%s, surprise= %s%%%n",
                                 date, rep, est, surprisePct);
                     }
                 }
@@ -335,7 +396,7 @@ public class Main {
 
         // --- Earnings estimates summary (Alpha Vantage EARNINGS_ESTIMATES) ---
         try {
-            String estJson = DataFetcher.fetchEarningsEstimates("");
+            String estJson = fetches.earningsEstimates();
             if (estJson != null && !estJson.isBlank()) {
                 ObjectMapper om = new ObjectMapper();
                 JsonNode root = om.readTree(estJson);
@@ -343,7 +404,7 @@ public class Main {
                 JsonNode yArr = root.path("annualEarningsEstimates");
 
                 if ((qArr.isArray() && qArr.size() > 0) || (yArr.isArray() && yArr.size() > 0)) {
-                    System.out.println("\n--- 📊 Earnings Estimates (Forward) ---");
+                    report.println("\n--- 📊 Earnings Estimates (Forward) ---");
                 }
 
                 if (qArr.isArray() && qArr.size() > 0) {
@@ -355,7 +416,7 @@ public class Main {
                         String high = n.path("high").asText("");
                         String low = n.path("low").asText("");
                         String numAnalysts = n.path("numberOfAnalysts").asText("");
-                        System.out.printf("Quarter %s: EPS est. mean=%s (high=%s, low=%s), analysts=%s%n",
+                        report.printf("Quarter %s: EPS est. mean=%s (high=%s, low=%s), analysts=%s%n",
                                 period, mean, high, low, numAnalysts);
                     }
                 }
@@ -369,7 +430,7 @@ public class Main {
                         String high = n.path("high").asText("");
                         String low = n.path("low").asText("");
                         String numAnalysts = n.path("numberOfAnalysts").asText("");
-                        System.out.printf("Year %s: EPS est. mean=%s (high=%s, low=%s), analysts=%s%n",
+                        report.printf("Year %s: EPS est. mean=%s (high=%s, low=%s), analysts=%s%n",
                                 year, mean, high, low, numAnalysts);
                     }
                 }
@@ -378,7 +439,7 @@ public class Main {
 
         // Piotroski F-Score (partial, based on OVERVIEW fields)
         try {
-            String ovJson = DataFetcher.fetchCompanyOverview(""); // symbol is already set in DataFetcher
+            String ovJson = fetches.overview();
             ObjectMapper om = new ObjectMapper();
             JsonNode root = om.readTree(ovJson);
             Double roa = parseDouble(root, "ReturnOnAssetsTTM");
@@ -392,81 +453,86 @@ public class Main {
             if (roe != null) { total++; if (roe > 0) score++; }
             if (opm != null) { total++; if (opm > 0) score++; }
 
-            System.out.println("\n--- 📊 Piotroski F-Score (partial) ---");
-            System.out.println(RLM + "הסבר: ציון פיאוטרוסקי (0–9) מסכם 9 בדיקות של רווחיות/מינוף/יעילות כדי לדרג מניות ערך. ציון גבוה מצביע על איכות פיננסית טובה. (חלקי – לפי שדות OVERVIEW זמינים)");
-            System.out.println("ROA>0: " + verdict(roa));
-            System.out.println("ProfitMargin>0: " + verdict(pm));
-            System.out.println("ROE>0: " + verdict(roe));
-            System.out.println("OperatingMargin>0: " + verdict(opm));
-            System.out.printf("Total (partial): %d/%d%n", score, total);
+            report.println("\n--- 📊 Piotroski F-Score (partial) ---");
+            report.println(RLM + "הסבר: ציון פיאוטרוסקי (0–9) מסכם 9 בדיקות של רווחיות/מינוף/יעילות כדי לדרג מניות ערך. ציון גבוה מצביע על איכות פיננסית טובה. (חלקי – לפי שדות OVERVIEW זמינים)");
+            report.println("ROA>0: " + verdict(roa));
+            report.println("ProfitMargin>0: " + verdict(pm));
+            report.println("ROE>0: " + verdict(roe));
+            report.println("OperatingMargin>0: " + verdict(opm));
+            report.printf("Total (partial): %d/%d%n", score, total);
         } catch (Exception ignore) {}
 
         // --- 9 .
         int adxPeriod = 14;
-        List<Double[]> adxResults = ADX.calculateADX(highPrices, lowPrices, historicalPrices, adxPeriod);
+        double adx = IndicatorPipeline.last(ind.adx());
+        double plusDI = IndicatorPipeline.last(ind.plusDI());
+        double minusDI = IndicatorPipeline.last(ind.minusDI());
+        report.indicator("ADX_" + adxPeriod, adx).indicator("+DI", plusDI).indicator("-DI", minusDI);
 
-        if (!adxResults.isEmpty()) {
-            Double[] latestADX = adxResults.get(adxResults.size() - 1);
-            Double adx = latestADX[0];
-            Double plusDI = latestADX[1];
-            Double minusDI = latestADX[2];
+        if (!Double.isNaN(adx)) {
 
-            System.out.println("\n--- 📈 ניתוח טכני: ADX (חוזק מגמה) ---");
-            System.out.printf("ADX אחרון: %.2f (חוזק) | +DI: %.2f | -DI: %.2f%n", adx, plusDI, minusDI);
-            System.out.println(RLM + "הסבר: ADX מעל ~25 מעיד על מגמה חזקה. +DI > -DI = נטייה לעלייה; -DI > +DI = נטייה לירידה.");
+            report.println("\n--- 📈 ניתוח טכני: ADX (חוזק מגמה) ---");
+            report.printf("ADX אחרון: %.2f (חוזק) | +DI: %.2f | -DI: %.2f%n", adx, plusDI, minusDI);
+            report.println(RLM + "הסבר: ADX מעל ~25 מעיד על מגמה חזקה. +DI > -DI = נטייה לעלייה; -DI > +DI = נטייה לירידה.");
 
             // לוגיקה לבחינת שורטים/הרמות:
             if (adx > 25) {
-                System.out.print("🚨 אות מגמה: המגמה חזקה. ");
+                report.print("🚨 אות מגמה: המגמה חזקה. ");
                 if (plusDI > minusDI) {
-                    System.out.println("קנייה (Long) חזקה מומלצת (הרמה).");
+                    report.println("קנייה (Long) חזקה מומלצת (הרמה).");
+                    report.signal("ADX", "STRONG LONG");
                 } else {
-                    System.out.println("מכירה (Short) חזקה מומלצת.");
+                    report.println("מכירה (Short) חזקה מומלצת.");
+                    report.signal("ADX", "STRONG SHORT");
                 }
             } else {
-                System.out.println("⚪️ אות מגמה: המגמה חלשה/ניטרלית (מתאים למסחר ריינג').");
+                report.println("⚪️ אות מגמה: המגמה חלשה/ניטרלית (מתאים למסחר ריינג').");
+                report.signal("ADX", "NEUTRAL");
             }
         }
 
         // -------------------------------------------------------------------
         // --- 10. ניתוח טכני חדש: ATR (תנודתיות וניהול סיכונים) ---
         int atrPeriod = 14;
-        List<Double> atrResults = ATR.calculateATR(highPrices, lowPrices, historicalPrices, atrPeriod);
+        double latestATR = IndicatorPipeline.last(ind.atr());
+        report.indicator("ATR_" + atrPeriod, latestATR);
 
-        if (!atrResults.isEmpty()) {
-            Double latestATR = atrResults.get(atrResults.size() - 1);
+        if (!Double.isNaN(latestATR)) {
 
-            System.out.println("\n--- 📊 ניתוח טכני: ATR (תנודתיות) ---");
-            System.out.printf("ATR-%d אחרון: $%.2f%n", atrPeriod, latestATR);
+            report.println("\n--- 📊 ניתוח טכני: ATR (תנודתיות) ---");
+            report.printf("ATR-%d אחרון: $%.2f%n", atrPeriod, latestATR);
 
             // לוגיקה לניהול סיכונים:
             double riskLimit = 2.0; // סכום הסיכון המומלץ
             double stopLossLevel = currentPrice - (latestATR * riskLimit);
 
-            System.out.printf("הערכת סיכון: המניה זזה כ-%.2f$ ביום. %n", latestATR);
-            System.out.printf("המלצת Stop-Loss (אם נכנסים Long): $%.2f%n", stopLossLevel);
-            System.out.println(RLM + "הסבר: ATR מודד את הטווח הממוצע של תנודת המחיר. Stop-Loss מחושב בקירוב כ-מחיר נוכחי פחות 2×ATR כדי לתת מרחב ‘נשימה’.\n");
+            report.printf("הערכת סיכון: המניה זזה כ-%.2f$ ביום. %n", latestATR);
+            report.printf("המלצת Stop-Loss (אם נכנסים Long): $%.2f%n", stopLossLevel);
+            report.println(RLM + "הסבר: ATR מודד את הטווח הממוצע של תנודת המחיר. Stop-Loss מחושב בקירוב כ-מחיר נוכחי פחות 2×ATR כדי לתת מרחב ‘נשימה’.\n");
         }
 
         // --- 11. ניתוח טכני חדש: Chaikin Money Flow (CMF) ---
         int cmfPeriod = 20;
-        if (volumeData != null && !volumeData.isEmpty()) {
-            List<Double> cmfResults = CMF.calculateCMF(highPrices, lowPrices, historicalPrices, volumeData, cmfPeriod);
-            Double latestCMF = cmfResults.get(cmfResults.size() - 1);
+        double latestCMF = IndicatorPipeline.last(ind.cmf());
+        if (volumeArr != null) report.indicator("CMF_" + cmfPeriod, latestCMF);
+        if (volumeArr != null && !Double.isNaN(latestCMF)) {
 
-            System.out.println("\n--- 📝 מודל CMF מודד את זרימת הכסף הממוצעת כדי לזהות צבירה או פיזור. ---");
-            System.out.println("--- 📊 ניתוח טכני: Chaikin Money Flow (CMF) ---");
-            System.out.printf("CMF-%d אחרון: %.4f%n", cmfPeriod, latestCMF);
+            report.println("\n--- 📝 מודל CMF מודד את זרימת הכסף הממוצעת כדי לזהות צבירה או פיזור. ---");
+            report.println("--- 📊 ניתוח טכני: Chaikin Money Flow (CMF) ---");
+            report.printf("CMF-%d אחרון: %.4f%n", cmfPeriod, latestCMF);
 
             // CMF נע בין 1- ל-1+.
             if (latestCMF > 0.0) {
-                System.out.println("🟢 אות CMF: קנייה (צבירה - לחץ קנייה חיובי).");
+                report.println("🟢 אות CMF: קנייה (צבירה - לחץ קנייה חיובי).");
+                report.signal("CMF", "BUY");
             } else if (latestCMF < 0.0) {
-                System.out.println("🔴 אות CMF: מכירה (פיזור - לחץ מכירה שלילי).");
+                report.println("🔴 אות CMF: מכירה (פיזור - לחץ מכירה שלילי).");
+                report.signal("CMF", "SELL");
             } else {
-                System.out.println("⚪️ אות CMF: ניטרלי.");
+                report.println("⚪️ אות CMF: ניטרלי.");
+                report.signal("CMF", "NEUTRAL");
             }
-            System.out.println(RLM + "הסבר: ערך חיובי מצביע על צבירה (כסף ‘נשאר’ במניה), ערך שלילי על פיזור. ככל שהערך קיצוני יותר – האיתות חזק יותר.");
+            report.println(RLM + "הסבר: ערך חיובי מצביע על צבירה (כסף ‘נשאר’ במניה), ערך שלילי על פיזור. ככל שהערך קיצוני יותר – האיתות חזק יותר.");
         }
 
         // --- 12. ניתוח טכני חדש: Pivot Points ---
@@ -481,20 +547,24 @@ public class Main {
         Double pp = pivotLevels.get("PP");
         Double s1 = pivotLevels.get("S1");
         Double r1 = pivotLevels.get("R1");
+        report.indicator("Pivot_PP", pp).indicator("Pivot_S1", s1).indicator("Pivot_R1", r1);
 
-        System.out.println("\n--- 📝 מודל Pivot Points (מחיר הוגן טכני) ---");
-        System.out.println("--- 📊 ניתוח טכני: Pivot Points ---");
-        System.out.printf("נקודת ציר (PP, הוגן): $%.2f%n", pp);
-        System.out.printf("תמיכה 1 (S1): $%.2f%n", s1);
-        System.out.printf(RLM + "הסבר: PP משמשת ‘מחיר הוגן’ יומי טכני. נסחר מתחת ל-PP = נטייה לירידות/תמחור זול; מעל = נטייה לעליות/תמחור יקר. השוואה למחיר נוכחי: $%.2f.%n", currentPrice);
+        report.println("\n--- 📝 מודל Pivot Points (מחיר הוגן טכני) ---");
+        report.println("--- 📊 ניתוח טכני: Pivot Points ---");
+        report.printf("נקודת ציר (PP, הוגן): $%.2f%n", pp);
+        report.printf("תמיכה 1 (S1): $%.2f%n", s1);
+        report.printf(RLM + "הסבר: PP משמשת ‘מחיר הוגן’ יומי טכני. נסחר מתחת ל-PP = נטייה לירידות/תמחור זול; מעל = נטייה לעליות/תמחור יקר. השוואה למחיר נוכחי: $%.2f.%n", currentPrice);
 
 // לוגיקת המלצה: מחיר זול לקנייה
         if (currentPrice < pp) {
-            System.out.printf("🟢 אות קנייה: המחיר ($%.2f) נסחר מתחת לנקודת הציר. יעד קנייה אופטימלי: $%.2f (S1).", currentPrice, s1);
+            report.printf("🟢 אות קנייה: המחיר ($%.2f) נסחר מתחת לנקודת הציר. יעד קנייה אופטימלי: $%.2f (S1).", currentPrice, s1);
+            report.signal("Pivot", "BUY");
         } else if (currentPrice > r1) {
-            System.out.printf("🔴 אות מכירה: המחיר נסחר מעל התנגדות 1. סיכון גבוה לכניסה.", currentPrice);
+            report.printf("🔴 אות מכירה: המחיר נסחר מעל התנגדות 1. סיכון גבוה לכניסה.", currentPrice);
+            report.signal("Pivot", "SELL");
         } else {
-            System.out.println("⚪️ אות ניטרלי: המחיר נסחר בין PP ל-R1.");
+            report.println("⚪️ אות ניטרלי: המחיר נסחר בין PP ל-R1.");
+            report.signal("Pivot", "NEUTRAL");
         }
 
         // --- 13. ניתוח טכני חדש: Fibonacci Retracement ---
@@ -513,49 +583,56 @@ public class Main {
             Double r50 = fibLevels.get("R50");
             Double r61 = fibLevels.get("R61");
 
-            System.out.println("\n--- 📝 מודל Fibonacci Retracement (רמות כניסה) ---");
-            System.out.println("--- 📊 ניתוח טכני: Fibonacci Retracement ---");
-            System.out.printf("רמת קנייה אופטימלית (R50): $%.2f%n", r50);
-            System.out.printf("רמת קנייה חזקה (R61): $%.2f%n", r61);
+            report.println("\n--- 📝 מודל Fibonacci Retracement (רמות כניסה) ---");
+            report.println("--- 📊 ניתוח טכני: Fibonacci Retracement ---");
+            report.printf("רמת קנייה אופטימלית (R50): $%.2f%n", r50);
+            report.printf("רמת קנייה חזקה (R61): $%.2f%n", r61);
 
             // לוגיקת המלצה: קנייה כאשר המחיר נוגע ברמות הנסיגה
             if (currentPrice > r61 && currentPrice < r50) {
-                System.out.println("🟢 אות קנייה: המחיר נסוג לאזור ה-50%-61.8% (Deep Dip). כניסה מומלצת!");
+                report.println("🟢 אות קנייה: המחיר נסוג לאזור ה-50%-61.8% (Deep Dip). כניסה מומלצת!");
+                report.signal("Fibonacci", "BUY");
             } else {
-                System.out.println("⚪️ אות ניטרלי: המחיר לא נמצא כרגע באזור קנייה פיבונאצ'י.");
+                report.println("⚪️ אות ניטרלי: המחיר לא נמצא כרגע באזור קנייה פיבונאצ'י.");
+                report.signal("Fibonacci", "NEUTRAL");
             }
-            System.out.printf(RLM + "הסבר: רמות %s ו-%s משמשות אזורי כניסה פופולריים לאחר תיקון. מחיר נוכחי: $%.2f.%n", "50%", "61.8%", currentPrice);
+            report.printf(RLM + "הסבר: רמות %s ו-%s משמשות אזורי כניסה פופולריים לאחר תיקון. מחיר נוכחי: $%.2f.%n", "50%", "61.8%", currentPrice);
         }
 
         // -------------------------------------------------------------------
         // --- 14. ניתוח טכני חדש: Accumulation/Distribution Line (A/D Line) ---
 
-        if (volumeData != null && !volumeData.isEmpty()) {
-            // 1. חישוב קו A/D Line היומי המצטבר
-            List<Double> adLineResults = ADLine.calculateADLine(highPrices, lowPrices, historicalPrices, volumeData);
+        if (volumeArr != null && volumeArr.length > 0) {
+            // 1. קו A/D Line היומי המצטבר (חושב כבר ב-IndicatorPipeline)
+            double[] adLineResults = ind.adLine();
 
             // דרושות מספיק נקודות כדי לחשב ממוצעים נעים
-            if (adLineResults != null && adLineResults.size() >= 60) {
+            if (adLineResults.length >= 60) {
                 // 2. חישוב ממוצע נע על ה-A/D Line לטווחים שונים
-                List<Double> adl_sma20 = TechnicalAnalysisModel.calculateSMA(adLineResults, 20); // חודש
-                List<Double> adl_sma60 = TechnicalAnalysisModel.calculateSMA(adLineResults, 60); // 3 חודשים
+                double[] adl_sma20 = new double[adLineResults.length]; // חודש
+                double[] adl_sma60 = new double[adLineResults.length]; // 3 חודשים
+                TechnicalAnalysisModel.calculateSMA(adLineResults, 20, adl_sma20);
+                TechnicalAnalysisModel.calculateSMA(adLineResults, 60, adl_sma60);
 
-                if (!adl_sma20.isEmpty() && !adl_sma60.isEmpty()) {
-                    Double latestADLSMA20 = adl_sma20.get(adl_sma20.size() - 1);
-                    Double latestADLSMA60 = adl_sma60.get(adl_sma60.size() - 1);
+                double latestADLSMA20 = IndicatorPipeline.last(adl_sma20);
+                double latestADLSMA60 = IndicatorPipeline.last(adl_sma60);
+                if (!Double.isNaN(latestADLSMA20) && !Double.isNaN(latestADLSMA60)) {
 
-                    System.out.println("\n--- 📝 מודל A/D Line (לחץ קנייה מצטבר) ---");
-                    System.out.println("--- 📊 ניתוח טכני: A/D Line (צבירה/פיזור) ---");
-                    System.out.printf("A/D Line (ממוצע 20 יום): %.2f%n", latestADLSMA20);
-                    System.out.printf("A/D Line (ממוצע 60 יום): %.2f%n", latestADLSMA60);
+                    report.println("\n--- 📝 מודל A/D Line (לחץ קנייה מצטבר) ---");
+                    report.println("--- 📊 ניתוח טכני: A/D Line (צבירה/פיזור) ---");
+                    report.printf("A/D Line (ממוצע 20 יום): %.2f%n", latestADLSMA20);
+                    report.printf("A/D Line (ממוצע 60 יום): %.2f%n", latestADLSMA60);
 
                     // לוגיקת המלצה: הממוצע של A/D Line צריך להיות חיובי או עולה.
                     if (latestADLSMA20 > latestADLSMA60) {
-                        System.out.println("🟢 אות A/D: קנייה (לחץ הצבירה הקצר טווח מתגבר על הארוך).");
+                        report.println("🟢 אות A/D: קנייה (לחץ הצבירה הקצר טווח מתגבר על הארוך).");
+                        report.signal("A/D", "BUY");
                     } else if (latestADLSMA20 < 0 && latestADLSMA60 < 0) {
-                        System.out.println("🔴 אות A/D: מכירה (פיזור מתמשך בטווח הבינוני והארוך).");
+                        report.println("🔴 אות A/D: מכירה (פיזור מתמשך בטווח הבינוני והארוך).");
+                        report.signal("A/D", "SELL");
                     } else {
-                        System.out.println("⚪️ אות A/D: ניטרלי.");
+                        report.println("⚪️ אות A/D: ניטרלי.");
+                        report.signal("A/D", "NEUTRAL");
                     }
                 }
             }
@@ -585,19 +662,24 @@ public class Main {
                 dummyNI, dummyROA, dummyCFO, dummyROAPrev, dummyNIPRev,
                 dummyDebtAssets, dummyDebtAssetsPrev, dummyCurrentRatio, dummyCurrentRatioPrev,
                 dummyShares, dummySharesPrev);
+        report.indicator("F_score", fScore);
 
-        System.out.println("\n--- 📝 מודל Piotroski F-Score (איכות ובריאות פיננסית) ---");
-        System.out.println("--- 💰 ניתוח פונדמנטלי: Piotroski F-Score ---");
-        System.out.printf("ציון Piotroski אחרון: %d / 9%n", fScore);
+        report.println("\n--- 📝 מודל Piotroski F-Score (איכות ובריאות פיננסית) ---");
+        report.println("--- 💰 ניתוח פונדמנטלי: Piotroski F-Score ---");
+        report.printf("ציון Piotroski אחרון: %d / 9%n", fScore);
 
         if (fScore >= 8) {
-            System.out.println("🌟 אות F-Score: קנייה חזקה (בריאות פיננסית מעולה).");
+            report.println("🌟 אות F-Score: קנייה חזקה (בריאות פיננסית מעולה).");
+            report.signal("F-Score", "STRONG BUY");
         } else if (fScore >= 6) {
-            System.out.println("🟢 אות F-Score: קנייה (יסודות טובים).");
+            report.println("🟢 אות F-Score: קנייה (יסודות טובים).");
+            report.signal("F-Score", "BUY");
         } else if (fScore <= 3) {
-            System.out.println("🔴 אות F-Score: מכירה/הימנעות (איכות ירודה ומינוף גבוה).");
+            report.println("🔴 אות F-Score: מכירה/הימנעות (איכות ירודה ומינוף גבוה).");
+            report.signal("F-Score", "SELL");
         } else {
-            System.out.println("⚪️ אות F-Score: ניטרלי.");
+            report.println("⚪️ אות F-Score: ניטרלי.");
+            report.signal("F-Score", "NEUTRAL");
         }
 
         // בתוך Main.java (כניתוח טכני חדש):
@@ -608,19 +690,22 @@ public class Main {
 // --- 16. ניתוח טכני חדש: Commodity Channel Index (CCI) ---
         int cciPeriod = 20; // תקופה נפוצה
 
-        List<Double> cciResults = CCI.calculateCCI(highPrices, lowPrices, historicalPrices, cciPeriod);
-        Double latestCCI = cciResults.get(cciResults.size() - 1);
+        double latestCCI = IndicatorPipeline.last(ind.cci());
+        report.indicator("CCI_" + cciPeriod, latestCCI);
 
-        System.out.println("\n--- 📝 מודל CCI מודד מומנטום קיצוני והיפוך במגמה חזקה. ---");
-        System.out.println("--- 📊 ניתוח טכני: CCI ---");
-        System.out.printf("CCI-%d אחרון: %.2f%n", cciPeriod, latestCCI);
+        report.println("\n--- 📝 מודל CCI מודד מומנטום קיצוני והיפוך במגמה חזקה. ---");
+        report.println("--- 📊 ניתוח טכני: CCI ---");
+        report.printf("CCI-%d אחרון: %.2f%n", cciPeriod, latestCCI);
 
         if (latestCCI > 100.0) {
-            System.out.println("🚨 אות CCI: מכירה (Overbought קיצוני – כניסה למומנטום מעבר לממוצע).");
+            report.println("🚨 אות CCI: מכירה (Overbought קיצוני – כניסה למומנטום מעבר לממוצע).");
+            report.signal("CCI", "SELL");
         } else if (latestCCI < -100.0) {
-            System.out.println("🌟 אות CCI: קנייה (Oversold קיצוני – לחץ מכירה חזק מדי).");
+            report.println("🌟 אות CCI: קנייה (Oversold קיצוני – לחץ מכירה חזק מדי).");
+            report.signal("CCI", "BUY");
         } else {
-            System.out.println("⚪️ אות CCI: ניטרלי.");
+            report.println("⚪️ אות CCI: ניטרלי.");
+            report.signal("CCI", "NEUTRAL");
         }
 
         // בתוך Main.java או analyzeSingleStock ב-StockScannerRunner:
@@ -638,24 +723,128 @@ public class Main {
 
         double evSalesRatio = EVSales.calculateEVSalesRatio(
                 dummyMarketCap, dummyTotalDebt, dummyCash, dummyRevenue);
+        report.indicator("EV_Sales", evSalesRatio);
 
-        System.out.println("\n--- 📝 מודל EV/Sales (שווי חברות צמיחה/הפסדיות) ---");
-        System.out.println("--- 💰 ניתוח פונדמנטלי: EV/Sales Ratio ---");
-        System.out.printf("יחס EV/Sales אחרון: %.2f%n", evSalesRatio);
+        report.println("\n--- 📝 מודל EV/Sales (שווי חברות צמיחה/הפסדיות) ---");
+        report.println("--- 💰 ניתוח פונדמנטלי: EV/Sales Ratio ---");
+        report.printf("יחס EV/Sales אחרון: %.2f%n", evSalesRatio);
 
         // פרשנות: יחס נמוך יותר הוא טוב יותר (יחסית לתעשייה).
         // קריטריון גס: יחס מתחת 3.0 נחשב זול מאוד לחברות טכנולוגיה צומחות.
         if (evSalesRatio < 3.0) {
-            System.out.println("🌟 אות EV/Sales: קנייה חזקה (זול ביחס להכנסות).");
+            report.println("🌟 אות EV/Sales: קנייה חזקה (זול ביחס להכנסות).");
+            report.signal("EV/Sales", "STRONG BUY");
         } else if (evSalesRatio > 8.0) {
-            System.out.println("🔴 אות EV/Sales: מכירה/הימנעות (יקר ביחס להכנסות).");
+            report.println("🔴 אות EV/Sales: מכירה/הימנעות (יקר ביחס להכנסות).");
+            report.signal("EV/Sales", "SELL");
         } else {
-            System.out.println("⚪️ אות EV/Sales: ניטרלי.");
+            report.println("⚪️ אות EV/Sales: ניטרלי.");
+            report.signal("EV/Sales", "NEUTRAL");
         }
 
 
 
 // ... המשך הניתוח ...
 
+        return report;
+    }
+
+    // Threads for the per-symbol API calls; they spend their time waiting on the network and the rate limiter
+    private static final ExecutorService FETCH_POOL = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger id = new AtomicInteger();
+        @Override public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "analysis-fetch-" + id.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    // How long an analysis waits for all of its calls together (ANALYSIS_FETCH_TIMEOUT_SEC, default 90s;
+    // on the free tier the rate limiter alone spaces five calls ~48s apart)
+    private static final long FETCH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(fetchTimeoutSeconds());
+
+    private static long fetchTimeoutSeconds() {
+        try {
+            String v = System.getenv("ANALYSIS_FETCH_TIMEOUT_SEC");
+            if (v != null && !v.isBlank()) return Math.max(1, Long.parseLong(v.trim()));
+        } catch (Exception ignore) {}
+        return 90;
+    }
+
+    /**
+     * The independent API calls of one analysis (daily series, news, earnings, estimates, overview), all issued
+     * at once so the analysis waits about as long as the slowest call instead of the sum of all of them.
+     * A call that fails or is still running at the shared deadline reads as null (daily bars: an IOException).
+     */
+    public static final class Fetches {
+        private final Future<BarSeries> daily;
+        private final Future<String> news;
+        private final Future<String> earnings;
+        private final Future<String> estimates;
+        private final Future<String> overview;
+        private final long deadlineNanos;
+
+        private Fetches(String symbol, DataFetcher data) {
+            this.deadlineNanos = System.nanoTime() + FETCH_TIMEOUT_NANOS;
+            // Plain executor Futures: cancel(true) interrupts the call still waiting on the limiter or the network
+            // (a CompletableFuture would only be marked cancelled and keep its thread and rate-limit slot)
+            this.daily = FETCH_POOL.submit(() -> BarStore.shared().tail(symbol, data, BarStore.ANALYSIS_BARS));
+            this.news = FETCH_POOL.submit(() -> data.fetchNewsSentiment(symbol));
+            this.earnings = FETCH_POOL.submit(() -> data.fetchEarnings(symbol));
+            this.estimates = FETCH_POOL.submit(() -> data.fetchEarningsEstimates(symbol));
+            this.overview = FETCH_POOL.submit(() -> data.fetchCompanyOverview(symbol));
+        }
+
+        public static Fetches start(String symbol, DataFetcher data) {
+            return new Fetches(symbol, data);
+        }
+
+        /**
+         * Daily bars from the BarStore; the failure (Alpha Vantage note, timeout) is thrown with its message.
+         */
+        public BarSeries dailyBars() throws IOException {
+            try {
+                return daily.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                daily.cancel(true);
+                throw new IOException("no TIME_SERIES_DAILY response within the analysis timeout");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(String.valueOf(cause.getMessage()), cause);
+            }
+        }
+
+        public String news() {
+            return await(news);
+        }
+
+        public String earnings() {
+            return await(earnings);
+        }
+
+        public String earningsEstimates() {
+            return await(estimates);
+        }
+
+        public String overview() {
+            return await(overview);
+        }
+
+        private String await(Future<String> f) {
+            try {
+                return f.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                f.cancel(true);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                return null;
+            }
+        }
     }
-}
\ No newline at end of file
+}
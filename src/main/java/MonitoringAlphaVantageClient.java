@@ -3,22 +3,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class MonitoringAlphaVantageClient {
-    private final HttpClient http;
     private final ObjectMapper om;
     private final String apiKey;
 
     public MonitoringAlphaVantageClient(String apiKey) {
-        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
-        this.om = new ObjectMapper();
+        this.om = PriceJsonParser.MAPPER;
         this.apiKey = apiKey;
     }
 
@@ -34,6 +30,11 @@ public class MonitoringAlphaVantageClient {
     }
 
     public JsonNode query(Map<String, String> params) throws Exception {
+        return om.readTree(queryRaw(params));
+    }
+
+    // Raw response body, for callers that stream-parse large payloads instead of building a tree
+    public String queryRaw(Map<String, String> params) throws Exception {
         if (apiKey == null || apiKey.isBlank()) {
             throw new IllegalStateException("Missing AlphaVantage api key");
         }
@@ -46,11 +47,11 @@ public class MonitoringAlphaVantageClient {
         }
         String url = "https://www.alphavantage.co/query?" + qs;
         HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-        HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> resp = ApiHttpClient.send(req);
         if (resp.statusCode() != 200) {
             throw new RuntimeException("AlphaVantage http " + resp.statusCode());
         }
-        return om.readTree(resp.body());
+        return resp.body();
     }
 
     public JsonNode newsSentiment(String symbol) throws Exception {
@@ -77,6 +78,16 @@ public class MonitoringAlphaVantageClient {
         return query(Map.of("function", "TIME_SERIES_DAILY", "symbol", symbol.toUpperCase()));
     }
 
+    public String timeSeriesDailyRaw(String symbol) throws Exception {
+        return queryRaw(Map.of("function", "TIME_SERIES_DAILY", "symbol", symbol.toUpperCase()));
+    }
+
+    // Recent daily history from the shared BarStore, refreshed with this client's key; two years, since the
+    // weekly indicators are resampled from it and need ~30 weeks to settle
+    public BarSeries dailyBars(String symbol) throws Exception {
+        return BarStore.shared().tail(symbol, new DataFetcher(apiKey), 2 * BarStore.ANALYSIS_BARS);
+    }
+
     public JsonNode timeSeriesIntraday(String symbol, String interval) throws Exception {
         String iv = (interval == null || interval.isBlank()) ? "5min" : interval;
         return query(Map.of(
@@ -1,6 +1,7 @@
 import com.fasterxml.jackson.databind.JsonNode;
 
 import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -10,21 +11,44 @@ import java.util.Map;
 
 public class MonitoringAnalyzer {
     private final MonitoringAlphaVantageClient client;
+    private final MonitoringStore store;
+    private final boolean localIndicators;
 
     public MonitoringAnalyzer(MonitoringAlphaVantageClient client) {
+        this(client, null);
+    }
+
+    /**
+     * @param store when set, local daily indicators are kept as an incremental checkpoint in the store,
+     *              so a refresh only processes the bars added since the previous run
+     */
+    public MonitoringAnalyzer(MonitoringAlphaVantageClient client, MonitoringStore store) {
+        this(client, store, !"remote".equalsIgnoreCase(String.valueOf(System.getenv("MONITORING_INDICATORS")).trim()));
+    }
+
+    /**
+     * @param localIndicators true: TEMA, SAR, ATR, BBANDS, A/D and OBV are computed from the daily series
+     *                        (weekly ones on bars resampled from it), so a symbol costs the daily fetch plus
+     *                        overview and news; false: one Alpha Vantage indicator call each (MONITORING_INDICATORS=remote)
+     */
+    public MonitoringAnalyzer(MonitoringAlphaVantageClient client, MonitoringStore store, boolean localIndicators) {
         this.client = client;
+        this.store = store;
+        this.localIndicators = localIndicators;
     }
 
     public MonitoringSnapshot analyze(String symbol) throws Exception {
         String sym = symbol == null ? "" : symbol.trim().toUpperCase();
         if (sym.isEmpty()) throw new IllegalArgumentException("symbol required");
 
-        JsonNode daily = client.timeSeriesDaily(sym);
-        List<Double> closes = extractCloses(daily);
+        BarSeries bars = client.dailyBars(sym);
+        List<Double> closes = bars.closeList();
         if (closes.size() < 6) {
             throw new RuntimeException("insufficient daily data");
         }
+        IndicatorState local = advanceIndicatorState(sym, bars);
         double lastClose = closes.get(closes.size() - 1);
+        BarSeries weekly = localIndicators ? bars.toWeekly() : null;
 
         Map<String, Double> returns = new LinkedHashMap<>();
         Map<String, Double> scores = new LinkedHashMap<>();
@@ -42,7 +66,9 @@ public class MonitoringAnalyzer {
         Map<String, Double> indicatorValues = new LinkedHashMap<>();
         Map<String, String> indicatorNotes = new LinkedHashMap<>();
 
-        double[] temaPair = latestAndPrevFromSeries(client.temaWeeklyOpen(sym, 10), "Technical Analysis: TEMA", "TEMA");
+        double[] temaPair = localIndicators
+                ? localTema(weekly.opens(), 10)
+                : latestAndPrevFromSeries(client.temaWeeklyOpen(sym, 10), "Technical Analysis: TEMA", "TEMA");
         Double tema = temaPair == null ? null : temaPair[0];
         if (tema != null) {
             indicatorValues.put("TEMA_10_weekly_open", tema);
@@ -55,7 +81,9 @@ public class MonitoringAnalyzer {
             );
         }
 
-        double[] sarPair = latestAndPrevFromSeries(client.sarWeekly(sym, 0.05, 0.25), "Technical Analysis: SAR", "SAR");
+        double[] sarPair = localIndicators
+                ? localSar(weekly, 0.05, 0.25)
+                : latestAndPrevFromSeries(client.sarWeekly(sym, 0.05, 0.25), "Technical Analysis: SAR", "SAR");
         Double sar = sarPair == null ? null : sarPair[0];
         if (sar != null) {
             indicatorValues.put("SAR_weekly", sar);
@@ -68,8 +96,11 @@ public class MonitoringAnalyzer {
             );
         }
 
-        double[] atrPair = latestAndPrevFromSeries(client.atrDaily(sym, 14), "Technical Analysis: ATR", "ATR");
+        double[] atrPair = localIndicators
+                ? (local == null ? localAtr(bars, 14) : null) // the checkpointed ATR 14 below is the same value
+                : latestAndPrevFromSeries(client.atrDaily(sym, 14), "Technical Analysis: ATR", "ATR");
         Double atr = atrPair == null ? null : atrPair[0];
+        if (atr == null && local != null) atr = finiteOrNull(local.atr().value()); // ATR endpoint failed: use the local value
         if (atr != null) {
             indicatorValues.put("ATR_14_daily", atr);
             double atrPct = lastClose > 0 ? (atr / lastClose) * 100.0 : 0.0;
@@ -81,10 +112,18 @@ public class MonitoringAnalyzer {
             );
         }
 
-        JsonNode bb = client.bbandsWeeklyClose(sym, 5, 3);
-        Double bbUpper = latestFromSeries(bb, "Technical Analysis: BBANDS", "Real Upper Band");
-        Double bbLower = latestFromSeries(bb, "Technical Analysis: BBANDS", "Real Lower Band");
-        Double bbMid = latestFromSeries(bb, "Technical Analysis: BBANDS", "Real Middle Band");
+        Double bbUpper, bbLower, bbMid;
+        if (localIndicators) {
+            double[] band = localBands(weekly.closes(), 5, 3);
+            bbUpper = band == null ? null : finiteOrNull(band[0]);
+            bbMid = band == null ? null : finiteOrNull(band[1]);
+            bbLower = band == null ? null : finiteOrNull(band[2]);
+        } else {
+            JsonNode bb = client.bbandsWeeklyClose(sym, 5, 3);
+            bbUpper = latestFromSeries(bb, "Technical Analysis: BBANDS", "Real Upper Band");
+            bbLower = latestFromSeries(bb, "Technical Analysis: BBANDS", "Real Lower Band");
+            bbMid = latestFromSeries(bb, "Technical Analysis: BBANDS", "Real Middle Band");
+        }
         if (bbUpper != null) indicatorValues.put("BBANDS_upper", bbUpper);
         if (bbLower != null) indicatorValues.put("BBANDS_lower", bbLower);
         if (bbMid != null) indicatorValues.put("BBANDS_mid", bbMid);
@@ -103,7 +142,9 @@ public class MonitoringAnalyzer {
             );
         }
 
-        double[] adPair = latestAndPrevFromSeries(client.adDaily(sym), "Technical Analysis: Chaikin A/D", "Chaikin A/D");
+        double[] adPair = localIndicators
+                ? localAd(bars)
+                : latestAndPrevFromSeries(client.adDaily(sym), "Technical Analysis: Chaikin A/D", "Chaikin A/D");
         Double ad = adPair == null ? null : adPair[0];
         if (ad != null) {
             indicatorValues.put("AD_daily", ad);
@@ -116,7 +157,9 @@ public class MonitoringAnalyzer {
             );
         }
 
-        double[] obvPair = latestAndPrevFromSeries(client.obvWeekly(sym), "Technical Analysis: OBV", "OBV");
+        double[] obvPair = localIndicators
+                ? localObv(weekly)
+                : latestAndPrevFromSeries(client.obvWeekly(sym), "Technical Analysis: OBV", "OBV");
         Double obv = obvPair == null ? null : obvPair[0];
         if (obv != null) {
             indicatorValues.put("OBV_weekly", obv);
@@ -129,6 +172,33 @@ public class MonitoringAnalyzer {
             );
         }
 
+        if (local != null) {
+            Double rsi = finiteOrNull(local.rsi().value());
+            if (rsi != null) {
+                indicatorValues.put("RSI_14_daily", rsi);
+                indicatorNotes.put(
+                        "RSI_14_daily",
+                        "RSI (Relative Strength Index) measures the speed of recent gains vs losses on a 0-100 scale. " +
+                                "Above 70 is commonly read as overbought, below 30 as oversold."
+                );
+            }
+            Double macd = finiteOrNull(local.macd().value());
+            Double macdSignal = finiteOrNull(local.macd().signal());
+            if (macd != null) indicatorValues.put("MACD_daily", macd);
+            if (macdSignal != null) indicatorValues.put("MACD_signal_daily", macdSignal);
+            if (macd != null && macdSignal != null) {
+                indicatorNotes.put(
+                        "MACD_daily",
+                        "MACD (EMA12 - EMA26) vs its 9-day signal line. MACD above the signal suggests improving momentum. " +
+                                "Current: " + (macd > macdSignal ? "ABOVE" : "BELOW") + " signal."
+                );
+            }
+            Double adx = finiteOrNull(local.adx().value());
+            if (adx != null) indicatorValues.put("ADX_14_daily", adx);
+            Double sma = finiteOrNull(local.sma().value());
+            if (sma != null) indicatorValues.put("SMA_20_daily", sma);
+        }
+
         Map<String, String> fundamentals = new LinkedHashMap<>();
         try {
             JsonNode ov = client.overview(sym);
@@ -139,6 +209,8 @@ public class MonitoringAnalyzer {
             putIfText(fundamentals, "PERatio", ov, "PERatio");
             putIfText(fundamentals, "PriceToBookRatio", ov, "PriceToBookRatio");
             putIfText(fundamentals, "DividendYield", ov, "DividendYield");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // timed out: let the rest of the analysis see it
         } catch (Exception ignore) {
         }
 
@@ -183,6 +255,8 @@ public class MonitoringAnalyzer {
                     topNews.add(row);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception ignore) {
         }
 
@@ -261,24 +335,77 @@ public class MonitoringAnalyzer {
         return Math.max(lo, Math.min(hi, v));
     }
 
-    private static List<Double> extractCloses(JsonNode daily) {
-        List<Double> closes = new ArrayList<>();
-        JsonNode ts = daily == null ? null : daily.get("Time Series (Daily)");
-        if (ts == null || !ts.isObject()) return closes;
-        List<Map.Entry<String, JsonNode>> items = new ArrayList<>();
-        ts.fields().forEachRemaining(items::add);
-        items.sort(Map.Entry.comparingByKey());
-        for (Map.Entry<String, JsonNode> e : items) {
-            JsonNode day = e.getValue();
-            JsonNode c = day.get("4. close");
-            if (c != null && c.isTextual()) {
-                try {
-                    closes.add(Double.parseDouble(c.asText()));
-                } catch (Exception ignore) {
-                }
+    // Loads the symbol's checkpoint, feeds only the completed sessions after it, and writes it back;
+    // a bar of the session in progress is applied to a copy that is returned but never saved
+    private IndicatorState advanceIndicatorState(String sym, BarSeries bars) {
+        if (store == null) return null;
+        IndicatorState state = store.loadIndicatorState(sym);
+        if (state == null) state = IndicatorState.defaults();
+        try {
+            int published = (int) NyseCalendar.lastPublishedSession(ZonedDateTime.now(NyseCalendar.NY)).toEpochDay();
+            if (state.advance(bars, published) > 0) store.saveIndicatorState(sym, state);
+            if (bars.epochDay(bars.size() - 1) > published) {
+                IndicatorState live = state.copy();
+                live.advance(bars);
+                return live;
             }
+        } catch (Exception ignore) {
+            return null;
         }
-        return closes;
+        return state;
+    }
+
+    private static Double finiteOrNull(double v) {
+        return Double.isNaN(v) || Double.isInfinite(v) ? null : v;
+    }
+
+    // ---- indicators from the daily series: [latest, previous or NaN] like latestAndPrevFromSeries, null if not enough bars ----
+
+    private static double[] localTema(double[] prices, int period) {
+        double[] out = new double[prices.length];
+        TEMA.calculateTEMA(prices, period, out);
+        return lastTwo(out);
+    }
+
+    private static double[] localSar(BarSeries bars, double acceleration, double maximum) {
+        double[] out = new double[bars.size()];
+        ParabolicSAR.calculateSAR(bars.highs(), bars.lows(), acceleration, maximum, out);
+        return lastTwo(out);
+    }
+
+    private static double[] localAtr(BarSeries bars, int period) {
+        double[] out = new double[bars.size()];
+        ATR.calculateATR(bars.highs(), bars.lows(), bars.closes(), period, out);
+        return lastTwo(out);
+    }
+
+    // [upper, middle, lower] of the latest bar
+    private static double[] localBands(double[] prices, int period, double numStdDevs) {
+        int n = prices.length;
+        if (n == 0) return null;
+        double[] upper = new double[n], middle = new double[n], lower = new double[n];
+        BollingerBands.calculateBands(prices, period, numStdDevs, upper, middle, lower);
+        return new double[]{upper[n - 1], middle[n - 1], lower[n - 1]};
+    }
+
+    private static double[] localAd(BarSeries bars) {
+        double[] out = new double[bars.size()];
+        ADLine.calculateADLine(bars.highs(), bars.lows(), bars.closes(), bars.volumes(), out);
+        return lastTwo(out);
+    }
+
+    private static double[] localObv(BarSeries bars) {
+        long[] out = new long[bars.size()];
+        OBV.calculateOBV(bars.closes(), bars.volumes(), out);
+        int n = out.length;
+        if (n == 0) return null;
+        return new double[]{out[n - 1], n > 1 ? out[n - 2] : Double.NaN};
+    }
+
+    private static double[] lastTwo(double[] series) {
+        int n = series.length;
+        if (n == 0 || finiteOrNull(series[n - 1]) == null) return null;
+        return new double[]{series[n - 1], n > 1 ? series[n - 2] : Double.NaN};
     }
 
     private static Double latestFromSeries(JsonNode root, String seriesKey, String valueKey) {
@@ -0,0 +1,311 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only snapshot history per symbol, next to the latest snapshot in the monitoring cache directory:
+ *   SYM.history.jsonl  one compact JSON snapshot per line, in the order they were saved
+ *   SYM.history.idx    20 bytes per line: asOfEpochMillis (long), byte offset (long), length without newline (int)
+ *
+ * The index is loaded once per symbol and kept in memory sorted by time, so a range query binary-searches it and
+ * reads only the matching lines. A missing or damaged index is rebuilt from the log, and lines appended after the
+ * last indexed one (a crash between the two writes) are re-indexed on load.
+ *
+ * Compaction keeps every snapshot of the last FULL_DAYS days and the last snapshot of each New York day before that.
+ * It runs when at least COMPACT_SLACK older snapshots could be dropped, or on demand (compact).
+ */
+public final class MonitoringHistory {
+
+    private static final ZoneId NY = ZoneId.of("America/New_York");
+    private static final int ENTRY_BYTES = 20;
+    static final int FULL_DAYS = 30;
+    static final int COMPACT_SLACK = 64;
+
+    private record Entry(long asOf, long offset, int length) {
+    }
+
+    private final Path dir;
+    private final ObjectMapper om;
+    private final Map<String, List<Entry>> indexes = new HashMap<>();
+
+    public MonitoringHistory(Path dir, ObjectMapper om) {
+        this.dir = dir;
+        this.om = om;
+    }
+
+    private Path logPath(String sym) {
+        return dir.resolve(sym + ".history.jsonl");
+    }
+
+    private Path indexPath(String sym) {
+        return dir.resolve(sym + ".history.idx");
+    }
+
+    public synchronized boolean exists(String sym) {
+        return Files.exists(logPath(sym));
+    }
+
+    /**
+     * Appends the snapshot to the symbol's log and index; compacts the log when enough old snapshots pile up.
+     */
+    public synchronized void append(String sym, MonitoringSnapshot snapshot) throws IOException {
+        List<Entry> index = index(sym);
+        byte[] line = (om.writeValueAsString(snapshot) + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(dir);
+        long offset;
+        try (FileChannel log = FileChannel.open(logPath(sym), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            offset = log.size();
+            if (offset > 0) {
+                // a line torn by a crash must not swallow this one
+                ByteBuffer last = ByteBuffer.allocate(1);
+                log.read(last, offset - 1);
+                if (last.get(0) != '\n') {
+                    log.write(ByteBuffer.wrap(new byte[]{'\n'}), offset);
+                    offset++;
+                }
+            }
+            writeFully(log, ByteBuffer.wrap(line), offset);
+        }
+        Entry e = new Entry(snapshot.asOfEpochMillis(), offset, line.length - 1);
+        try (FileChannel idx = FileChannel.open(indexPath(sym), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeFully(idx, encode(List.of(e)));
+        }
+        insertSorted(index, e);
+
+        if (droppable(index, System.currentTimeMillis()) >= COMPACT_SLACK) compact(sym);
+    }
+
+    public synchronized int size(String sym) {
+        try {
+            return index(sym).size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Snapshots with from <= asOf < to, oldest first.
+     */
+    public synchronized List<MonitoringSnapshot> range(String sym, long fromMillis, long toMillis) throws IOException {
+        List<MonitoringSnapshot> out = new ArrayList<>();
+        if (!exists(sym)) return out;
+        List<Entry> index = index(sym);
+        int i = lowerBound(index, fromMillis);
+        if (i >= index.size() || index.get(i).asOf() >= toMillis) return out;
+        try (FileChannel log = FileChannel.open(logPath(sym), StandardOpenOption.READ)) {
+            for (; i < index.size() && index.get(i).asOf() < toMillis; i++) {
+                Entry e = index.get(i);
+                ByteBuffer buf = ByteBuffer.allocate(e.length());
+                while (buf.hasRemaining() && log.read(buf, e.offset() + buf.position()) > 0) {
+                }
+                try {
+                    out.add(om.readValue(buf.array(), 0, buf.position(), MonitoringSnapshot.class));
+                } catch (Exception ignore) {
+                    // damaged line: skipped (and dropped by the next compaction)
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Snapshots taken on New York dates from..to (both inclusive), oldest first.
+     */
+    public List<MonitoringSnapshot> range(String sym, LocalDate from, LocalDate to) throws IOException {
+        return range(sym, from.atStartOfDay(NY).toInstant().toEpochMilli(),
+                to.plusDays(1).atStartOfDay(NY).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Rewrites the log with the snapshots compaction keeps (temp files + atomic move) and reloads the index.
+     */
+    public synchronized void compact(String sym) throws IOException {
+        if (!exists(sym)) return;
+        List<Entry> index = index(sym);
+        List<Entry> keep = kept(index, System.currentTimeMillis());
+        Path log = logPath(sym);
+        Path logTmp = dir.resolve(sym + ".history.jsonl.tmp");
+        Path idxTmp = dir.resolve(sym + ".history.idx.tmp");
+        List<Entry> rewritten = new ArrayList<>(keep.size());
+        try (FileChannel in = FileChannel.open(log, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(logTmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry e : keep) {
+                ByteBuffer buf = ByteBuffer.allocate(e.length() + 1);
+                buf.limit(e.length());
+                while (buf.hasRemaining() && in.read(buf, e.offset() + buf.position()) > 0) {
+                }
+                if (buf.hasRemaining() || !parses(buf.array(), e.length())) continue;
+                buf.limit(e.length() + 1);
+                buf.put((byte) '\n').flip();
+                rewritten.add(new Entry(e.asOf(), out.position(), e.length()));
+                writeFully(out, buf);
+            }
+            out.force(false);
+        }
+        Files.write(idxTmp, encode(rewritten).array());
+        Files.move(logTmp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(idxTmp, indexPath(sym), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexes.put(sym, rewritten);
+    }
+
+    // ---- index ----
+
+    private List<Entry> index(String sym) throws IOException {
+        List<Entry> index = indexes.get(sym);
+        if (index == null) {
+            index = load(sym);
+            indexes.put(sym, index);
+        }
+        return index;
+    }
+
+    private List<Entry> load(String sym) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Path log = logPath(sym);
+        if (!Files.exists(log)) return entries;
+        long logSize = Files.size(log);
+
+        Path idx = indexPath(sym);
+        long indexedEnd = 0;
+        if (Files.exists(idx) && Files.size(idx) % ENTRY_BYTES == 0) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(idx));
+            while (buf.hasRemaining()) {
+                Entry e = new Entry(buf.getLong(), buf.getLong(), buf.getInt());
+                if (e.offset() < indexedEnd || e.offset() + e.length() + 1 > logSize) {
+                    entries.clear(); // does not describe this log: rebuild
+                    indexedEnd = 0;
+                    break;
+                }
+                entries.add(e);
+                indexedEnd = e.offset() + e.length() + 1;
+            }
+            if (!entries.isEmpty() && !describes(log, entries.get(entries.size() - 1))) {
+                entries.clear(); // e.g. left from before a compaction that was interrupted
+                indexedEnd = 0;
+            }
+        }
+        if (indexedEnd < logSize) {
+            boolean rebuilt = entries.isEmpty();
+            List<Entry> tail = scan(log, indexedEnd);
+            entries.addAll(tail);
+            if (rebuilt) Files.write(idx, encode(entries).array());
+            else try (FileChannel ch = FileChannel.open(idx, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                writeFully(ch, encode(tail));
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a.asOf(), b.asOf())); // stable: equal times keep log order
+        return entries;
+    }
+
+    // Indexes the complete lines from the given offset; lines that do not parse are left out
+    private List<Entry> scan(Path log, long from) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        byte[] bytes;
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) (ch.size() - from));
+            while (buf.hasRemaining() && ch.read(buf, from + buf.position()) > 0) {
+            }
+            bytes = buf.array();
+        }
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            try {
+                long asOf = om.readTree(bytes, start, i - start).path("asOfEpochMillis").asLong(0);
+                out.add(new Entry(asOf, from + start, i - start));
+            } catch (Exception ignore) {
+            }
+            start = i + 1;
+        }
+        return out;
+    }
+
+    // The entry's line is where it says and carries its timestamp
+    private boolean describes(Path log, Entry e) {
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(e.length() + 1);
+            while (buf.hasRemaining() && ch.read(buf, e.offset() + buf.position()) > 0) {
+            }
+            if (buf.hasRemaining() || buf.get(e.length()) != '\n') return false;
+            return om.readTree(buf.array(), 0, e.length()).path("asOfEpochMillis").asLong(0) == e.asOf();
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private static void insertSorted(List<Entry> index, Entry e) {
+        int i = index.size();
+        while (i > 0 && index.get(i - 1).asOf() > e.asOf()) i--;
+        index.add(i, e);
+    }
+
+    private static int lowerBound(List<Entry> index, long asOf) {
+        int lo = 0, hi = index.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (index.get(mid).asOf() < asOf) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // ---- compaction ----
+
+    private static List<Entry> kept(List<Entry> index, long nowMillis) {
+        long fullFrom = nowMillis - TimeUnit.DAYS.toMillis(FULL_DAYS);
+        List<Entry> keep = new ArrayList<>(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            Entry e = index.get(i);
+            boolean lastOfDay = i + 1 == index.size() || !day(index.get(i + 1)).equals(day(e));
+            if (e.asOf() >= fullFrom || lastOfDay) keep.add(e);
+        }
+        return keep;
+    }
+
+    private static int droppable(List<Entry> index, long nowMillis) {
+        return index.size() - kept(index, nowMillis).size();
+    }
+
+    private static LocalDate day(Entry e) {
+        return Instant.ofEpochMilli(e.asOf()).atZone(NY).toLocalDate();
+    }
+
+    private boolean parses(byte[] bytes, int length) {
+        try {
+            om.readTree(bytes, 0, length);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer encode(List<Entry> entries) {
+        ByteBuffer buf = ByteBuffer.allocate(entries.size() * ENTRY_BYTES);
+        for (Entry e : entries) buf.putLong(e.asOf()).putLong(e.offset()).putInt(e.length());
+        buf.flip();
+        return buf;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) position += ch.write(buf, position);
+    }
+}
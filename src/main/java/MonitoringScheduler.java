@@ -1,4 +1,3 @@
-import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -6,11 +5,18 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MonitoringScheduler {
     private final ScheduledExecutorService exec;
@@ -25,6 +31,15 @@ public class MonitoringScheduler {
     private volatile ZonedDateTime lastRunNy;
     private volatile String lastError;
 
+    // One refresh at a time: scheduled runs and triggerNowAsync skip while one is in progress
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile RefreshRun currentRun;
+
+    // Symbols analyzed in parallel (upstream calls still go through the shared ApiHttpClient limiter) and the
+    // time one symbol may take once it has started
+    private static final int CONCURRENCY = envInt("MONITORING_CONCURRENCY", 4);
+    private static final long SYMBOL_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(envInt("MONITORING_SYMBOL_TIMEOUT_SEC", 300));
+
     public MonitoringScheduler(MonitoringStore store, MonitoringAnalyzer analyzer) {
         this.exec = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r);
@@ -53,13 +68,36 @@ public class MonitoringScheduler {
         return lastError;
     }
 
+    public boolean isRefreshing() {
+        return refreshing.get();
+    }
+
+    /**
+     * Progress of the running refresh, or the result of the last one; null before the first refresh.
+     */
+    public RefreshStatus getRefreshStatus() {
+        RefreshRun run = currentRun;
+        return run == null ? null : run.status();
+    }
+
     public void startTwiceDaily(int hour1, int hour2) {
         scheduleAt(hour1);
         scheduleAt(hour2);
     }
 
-    public void triggerNowAsync() {
-        exec.execute(this::refreshAllSafe);
+    /**
+     * Starts a refresh on the scheduler thread.
+     * @return false when a refresh is already running (nothing is queued then)
+     */
+    public boolean triggerNowAsync() {
+        if (!refreshing.compareAndSet(false, true)) return false;
+        try {
+            exec.execute(this::refreshAllClaimed);
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            throw e;
+        }
+        return true;
     }
 
     private void scheduleAt(int hour) {
@@ -69,23 +107,98 @@ public class MonitoringScheduler {
     }
 
     private void refreshAllSafe() {
+        if (!refreshing.compareAndSet(false, true)) {
+            System.out.println("[MonitoringScheduler] refresh already running, skipped");
+            return;
+        }
+        refreshAllClaimed();
+    }
+
+    // Runs with the refreshing flag already taken and always releases it
+    private void refreshAllClaimed() {
+        try {
+            refreshAll();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void refreshAll() {
         lastError = null;
         lastRunNy = ZonedDateTime.now(NY);
         System.out.println("[MonitoringScheduler] refresh started at " + lastRunNy);
+        RefreshRun run = null;
         try {
             List<String> tickers = store.loadTickers();
-            for (String t : tickers) {
-                try {
-                    MonitoringSnapshot s = analyzer.analyze(t);
-                    store.saveSnapshot(s);
-                } catch (Exception ignore) {
-                }
-            }
+            run = new RefreshRun(lastRunNy, tickers);
+            currentRun = run;
+            runAll(run);
+            RefreshStatus st = run.status();
+            if (st.failed() > 0) lastError = st.failed() + " of " + st.total() + " symbols failed";
         } catch (Exception ignore) {
             lastError = ignore.getMessage();
             System.out.println("[MonitoringScheduler] refresh error: " + ignore.getMessage());
+        } finally {
+            if (run != null) run.finishedNy = ZonedDateTime.now(NY);
+        }
+        System.out.println("[MonitoringScheduler] refresh finished" + (run == null ? "" : ": " + run.status().summary()));
+    }
+
+    // Analyzes the symbols on a bounded pool; a symbol that fails or exceeds its timeout is recorded and skipped
+    private void runAll(RefreshRun run) throws InterruptedException {
+        if (run.symbols.isEmpty()) return;
+        int threads = Math.min(CONCURRENCY, run.symbols.size());
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "monitoring-refresh-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (SymbolProgress p : run.symbols) {
+                futures.add(pool.submit(() -> refreshOne(p)));
+            }
+            awaitAll(run.symbols, futures);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void refreshOne(SymbolProgress p) {
+        p.start();
+        try {
+            MonitoringSnapshot s = analyzer.analyze(p.symbol);
+            // Saved only while the symbol is still running: once it timed out the result is stale, even if the
+            // analysis swallowed the interrupt
+            synchronized (p) {
+                if (!p.isRunning()) return;
+                store.saveSnapshot(s);
+                p.finish(SymbolState.DONE, null);
+            }
+        } catch (Exception e) {
+            p.finish(SymbolState.FAILED, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    // Waits for all symbols in submission order, cancelling any that runs longer than the timeout (counted from
+    // its start, not from when it was queued behind the others)
+    private static void awaitAll(List<SymbolProgress> symbols, List<Future<?>> futures) throws InterruptedException {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(SYMBOL_TIMEOUT_MS);
+        for (int i = 0; i < futures.size(); i++) {
+            SymbolProgress p = symbols.get(i);
+            Future<?> f = futures.get(i);
+            p.started.await();
+            long remaining = timeoutNanos - (System.nanoTime() - p.startedNanos);
+            try {
+                f.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                p.finish(SymbolState.TIMEOUT, "no result after " + TimeUnit.MILLISECONDS.toSeconds(SYMBOL_TIMEOUT_MS) + " s");
+                f.cancel(true); // after finish: the interrupted task must not record a failure first
+            } catch (ExecutionException | CancellationException ignore) {
+                // refreshOne records its own failures
+            }
         }
-        System.out.println("[MonitoringScheduler] refresh finished");
     }
 
     private void runNyseAndReschedule() {
@@ -109,7 +222,8 @@ public class MonitoringScheduler {
     }
 
     private static ZonedDateTime nextNyseRunTime(ZonedDateTime nowNy) {
-        // NYSE regular hours: 09:30–16:00 ET. We run at 09:30, 11:30, 13:30, 15:30.
+        // NYSE regular hours: 09:30–16:00 ET. We run at 09:30, 11:30, 13:30, 15:30 on trading days
+        // (NyseCalendar: holidays skipped, no slots after a 13:00 early close).
         List<LocalTime> slots = List.of(
                 LocalTime.of(9, 30),
                 LocalTime.of(11, 30),
@@ -117,35 +231,126 @@ public class MonitoringScheduler {
                 LocalTime.of(15, 30)
         );
 
-        ZonedDateTime candidate = null;
         LocalDate date = nowNy.toLocalDate();
 
         for (int i = 0; i < 14; i++) { // search up to 2 weeks ahead
-            DayOfWeek dow = date.getDayOfWeek();
-            boolean weekday = dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY;
-            if (weekday) {
-                List<ZonedDateTime> candidates = new ArrayList<>();
+            LocalTime close = NyseCalendar.closeTime(date);
+            if (close != null) {
                 for (LocalTime t : slots) {
-                    candidates.add(ZonedDateTime.of(date, t, NY));
+                    if (!t.isBefore(close)) break;
+                    ZonedDateTime c = ZonedDateTime.of(date, t, NY);
+                    if (c.isAfter(nowNy)) return c;
                 }
-                candidates.sort(Comparator.naturalOrder());
-                for (ZonedDateTime c : candidates) {
-                    if (c.isAfter(nowNy)) {
-                        candidate = c;
-                        break;
-                    }
-                }
-                if (candidate != null) break;
             }
             date = date.plusDays(1);
         }
 
-        if (candidate == null) {
-            // Should never happen; default to next day at 09:30
-            LocalDate next = nowNy.toLocalDate().plusDays(1);
-            return ZonedDateTime.of(next, LocalTime.of(9, 30), NY);
+        // Should never happen; default to the next trading day at 09:30
+        return ZonedDateTime.of(NyseCalendar.nextTradingDay(nowNy.toLocalDate()), NyseCalendar.OPEN, NY);
+    }
+
+    private static int envInt(String name, int def) {
+        try {
+            String v = System.getenv(name);
+            if (v != null && !v.isBlank()) return Math.max(1, Integer.parseInt(v.trim()));
+        } catch (Exception ignore) {
+        }
+        return def;
+    }
+
+    // ---- refresh progress ----
+
+    public enum SymbolState { PENDING, RUNNING, DONE, FAILED, TIMEOUT }
+
+    public record SymbolStatus(String symbol, SymbolState state, long millis, String error) {
+    }
+
+    /**
+     * Point-in-time copy of a refresh: per-symbol state and duration (running symbols: time so far).
+     */
+    public record RefreshStatus(ZonedDateTime startedNy, ZonedDateTime finishedNy, List<SymbolStatus> symbols) {
+        public boolean running() {
+            return finishedNy == null;
+        }
+
+        public int total() {
+            return symbols.size();
+        }
+
+        public int done() {
+            return count(SymbolState.DONE);
+        }
+
+        public int failed() {
+            return count(SymbolState.FAILED) + count(SymbolState.TIMEOUT);
+        }
+
+        public int pending() {
+            return count(SymbolState.PENDING) + count(SymbolState.RUNNING);
+        }
+
+        public String summary() {
+            return "done " + done() + ", failed " + failed() + ", pending " + pending() + " of " + total();
+        }
+
+        private int count(SymbolState state) {
+            int n = 0;
+            for (SymbolStatus s : symbols) if (s.state() == state) n++;
+            return n;
+        }
+    }
+
+    private static final class RefreshRun {
+        final ZonedDateTime startedNy;
+        final List<SymbolProgress> symbols = new ArrayList<>();
+        volatile ZonedDateTime finishedNy;
+
+        RefreshRun(ZonedDateTime startedNy, List<String> tickers) {
+            this.startedNy = startedNy;
+            for (String t : tickers) symbols.add(new SymbolProgress(t));
+        }
+
+        RefreshStatus status() {
+            List<SymbolStatus> out = new ArrayList<>(symbols.size());
+            for (SymbolProgress p : symbols) out.add(p.status());
+            return new RefreshStatus(startedNy, finishedNy, List.copyOf(out));
+        }
+    }
+
+    private static final class SymbolProgress {
+        final String symbol;
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile long startedNanos;
+        private SymbolState state = SymbolState.PENDING;
+        private long millis;
+        private String error;
+
+        SymbolProgress(String symbol) {
+            this.symbol = symbol;
+        }
+
+        synchronized void start() {
+            startedNanos = System.nanoTime();
+            state = SymbolState.RUNNING;
+            started.countDown();
+        }
+
+        synchronized boolean isRunning() {
+            return state == SymbolState.RUNNING;
+        }
+
+        // The first final state wins (a timed-out symbol stays TIMEOUT when its task ends later)
+        synchronized void finish(SymbolState result, String message) {
+            if (state != SymbolState.PENDING && state != SymbolState.RUNNING) return;
+            state = result;
+            error = message;
+            millis = startedNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        }
+
+        synchronized SymbolStatus status() {
+            long ms = state == SymbolState.RUNNING ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos) : millis;
+            return new SymbolStatus(symbol, state, ms, error);
         }
-        return candidate;
     }
 
     private static long computeDelayToNext(int hour) {
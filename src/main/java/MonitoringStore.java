@@ -1,11 +1,16 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -14,19 +19,34 @@ import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Monitored tickers and their latest snapshots. Both are kept in memory and written through to disk; reads come
+ * from memory without taking the lock (a snapshot is read from disk once, on its first request). The lock only
+ * orders writers, which assumes this store is the only writer of its directory.
+ */
 public class MonitoringStore {
     private final Object lock = new Object();
     private final Path baseDir;
     private final Path tickersPath;
     private final Path snapshotsDir;
     private final ObjectMapper om;
+    private final MonitoringHistory history;
+
+    private volatile List<String> tickers; // immutable; null until first read
+    private final ConcurrentHashMap<String, Cached> snapshots = new ConcurrentHashMap<>();
+
+    // snapshot null: the symbol has none on disk
+    private record Cached(MonitoringSnapshot snapshot, Instant updatedAt) {
+    }
 
     public MonitoringStore(Path baseDir, Path tickersPath, Path snapshotsDir) {
         this.baseDir = baseDir;
         this.tickersPath = tickersPath;
         this.snapshotsDir = snapshotsDir;
         this.om = new ObjectMapper();
+        this.history = new MonitoringHistory(snapshotsDir, om);
         try {
             Files.createDirectories(this.snapshotsDir);
         } catch (Exception ignore) {
@@ -84,50 +104,72 @@ public class MonitoringStore {
     }
 
     public List<String> loadTickers() {
+        return new ArrayList<>(cachedTickers());
+    }
+
+    private List<String> cachedTickers() {
+        List<String> t = tickers;
+        if (t != null) return t;
         synchronized (lock) {
-            LinkedHashSet<String> out = new LinkedHashSet<>();
-            try {
-                if (Files.exists(tickersPath)) {
-                    for (String line : Files.readAllLines(tickersPath, StandardCharsets.UTF_8)) {
-                        String t = line == null ? "" : line.trim().toUpperCase();
-                        if (!t.isEmpty() && t.matches("[A-Z0-9.:-]{1,10}")) out.add(t);
-                    }
+            if (tickers == null) tickers = readTickers();
+            return tickers;
+        }
+    }
+
+    private List<String> readTickers() {
+        LinkedHashSet<String> out = new LinkedHashSet<>();
+        try {
+            if (Files.exists(tickersPath)) {
+                for (String line : Files.readAllLines(tickersPath, StandardCharsets.UTF_8)) {
+                    String t = line == null ? "" : line.trim().toUpperCase();
+                    if (!t.isEmpty() && t.matches("[A-Z0-9.:-]{1,10}")) out.add(t);
                 }
-            } catch (Exception ignore) {
             }
-            return new ArrayList<>(out);
+        } catch (Exception ignore) {
         }
+        return List.copyOf(out);
     }
 
     public boolean addTicker(String ticker) {
         String t = ticker == null ? "" : ticker.trim().toUpperCase();
         if (t.isEmpty() || !t.matches("[A-Z0-9.:-]{1,10}")) return false;
         synchronized (lock) {
-            List<String> current = loadTickers();
+            List<String> current = new ArrayList<>(cachedTickers());
             if (current.contains(t)) return false;
             current.add(t);
-            persistTickers(current);
-            return true;
+            return persistTickers(current);
         }
     }
 
     public boolean removeTicker(String ticker) {
         String t = ticker == null ? "" : ticker.trim().toUpperCase();
         synchronized (lock) {
-            List<String> current = loadTickers();
+            List<String> current = new ArrayList<>(cachedTickers());
             boolean removed = current.removeIf(x -> x.equalsIgnoreCase(t));
-            if (removed) persistTickers(current);
-            return removed;
+            return removed && persistTickers(current);
         }
     }
 
-    public void persistTickers(List<String> tickers) {
+    /**
+     * Writes the ticker list; the cached list changes only once the file was replaced.
+     * @return false if the write failed (the stored and cached lists are unchanged then)
+     */
+    public boolean persistTickers(List<String> tickers) {
+        List<String> list = List.copyOf(new LinkedHashSet<>(tickers));
         synchronized (lock) {
+            Path tmp = tickersPath.resolveSibling(tickersPath.getFileName().toString() + ".tmp");
             try {
-                Path tmp = tickersPath.resolveSibling(tickersPath.getFileName().toString() + ".tmp");
-                Files.write(tmp, (String.join("\n", tickers) + "\n").getBytes(StandardCharsets.UTF_8));
+                Files.write(tmp, (String.join("\n", list) + "\n").getBytes(StandardCharsets.UTF_8));
                 Files.move(tmp, tickersPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                this.tickers = list;
+                return true;
             } catch (Exception ignore) {
+                return false;
+            } finally {
+                try {
+                    Files.deleteIfExists(tmp); // left behind only by a failed write or move
+                } catch (Exception ignore) {
+                }
             }
         }
     }
@@ -140,15 +182,91 @@ public class MonitoringStore {
                 Files.createDirectories(snapshotsDir);
                 Path p = snapshotsDir.resolve(sym + ".json");
                 Path tmp = snapshotsDir.resolve(sym + ".json.tmp");
-                om.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), snapshot);
+                om.writeValue(tmp.toFile(), snapshot);
+                MonitoringSnapshot previous = history.exists(sym) ? null : loadSnapshot(sym);
                 Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                snapshots.put(sym, new Cached(snapshot, Instant.now()));
+                appendHistory(sym, previous, snapshot);
+
+                // the text report is rendered on demand (loadTextReport); drop the one of the previous snapshot
+                Files.deleteIfExists(snapshotsDir.resolve(sym + ".txt"));
+            } catch (Exception ignore) {
+            }
+        }
+    }
 
-                Path txt = snapshotsDir.resolve(sym + ".txt");
+    // The first history entry of a symbol also takes the snapshot saved before the history existed
+    private void appendHistory(String sym, MonitoringSnapshot previous, MonitoringSnapshot snapshot) {
+        try {
+            if (previous != null && previous.asOfEpochMillis() < snapshot.asOfEpochMillis()) history.append(sym, previous);
+            history.append(sym, snapshot);
+        } catch (Exception ignore) {
+        }
+    }
+
+    /**
+     * Saved snapshots of the symbol taken at from <= asOf < to, oldest first (the latest one is loadSnapshot).
+     */
+    public List<MonitoringSnapshot> loadHistory(String symbol, Instant from, Instant to) {
+        if (symbol == null || symbol.isBlank()) return List.of();
+        try {
+            return history.range(symbol.trim().toUpperCase(), from.toEpochMilli(), to.toEpochMilli());
+        } catch (Exception ignore) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Saved snapshots of the symbol taken on New York dates from..to (both inclusive), oldest first.
+     */
+    public List<MonitoringSnapshot> loadHistory(String symbol, LocalDate from, LocalDate to) {
+        if (symbol == null || symbol.isBlank()) return List.of();
+        try {
+            return history.range(symbol.trim().toUpperCase(), from, to);
+        } catch (Exception ignore) {
+            return List.of();
+        }
+    }
+
+    public int historySize(String symbol) {
+        if (symbol == null || symbol.isBlank()) return 0;
+        return history.size(symbol.trim().toUpperCase());
+    }
+
+    /**
+     * Compacts the symbol's history now instead of waiting for enough old snapshots to pile up.
+     */
+    public void compactHistory(String symbol) {
+        if (symbol == null || symbol.isBlank()) return;
+        try {
+            history.compact(symbol.trim().toUpperCase());
+        } catch (Exception ignore) {
+        }
+    }
+
+    /**
+     * Plain-text report of the latest snapshot: rendered on the first request after a save and kept as SYM.txt
+     * until the next save. A SYM.txt written by older versions together with the JSON is returned as is.
+     */
+    public String loadTextReport(String symbol) {
+        if (symbol == null || symbol.isBlank()) return null;
+        String sym = symbol.trim().toUpperCase();
+        synchronized (lock) {
+            Path txt = snapshotsDir.resolve(sym + ".txt");
+            try {
+                if (Files.exists(txt)) return Files.readString(txt, StandardCharsets.UTF_8);
+            } catch (Exception ignore) {
+            }
+            MonitoringSnapshot s = loadSnapshot(sym);
+            if (s == null) return null;
+            String text = buildTextReport(s);
+            try {
                 Path txtTmp = snapshotsDir.resolve(sym + ".txt.tmp");
-                Files.writeString(txtTmp, buildTextReport(snapshot), StandardCharsets.UTF_8);
+                Files.writeString(txtTmp, text, StandardCharsets.UTF_8);
                 Files.move(txtTmp, txt, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             } catch (Exception ignore) {
             }
+            return text;
         }
     }
 
@@ -224,29 +342,68 @@ public class MonitoringStore {
     }
 
     public MonitoringSnapshot loadSnapshot(String symbol) {
+        Cached c = cachedSnapshot(symbol);
+        return c == null ? null : c.snapshot();
+    }
+
+    // From memory; the first request of a symbol reads its file (SYM.json is replaced atomically, so no lock)
+    private Cached cachedSnapshot(String symbol) {
+        if (symbol == null || symbol.isBlank()) return null;
+        String sym = symbol.trim().toUpperCase();
+        Cached c = snapshots.get(sym);
+        if (c != null) return c;
+        Cached read = new Cached(null, null);
+        try {
+            Path p = snapshotsDir.resolve(sym + ".json");
+            if (Files.exists(p)) {
+                Instant updatedAt = Files.getLastModifiedTime(p).toInstant();
+                read = new Cached(om.readValue(p.toFile(), MonitoringSnapshot.class), updatedAt);
+            }
+        } catch (Exception ignore) {
+            return null; // unreadable right now: not cached, the next request tries again
+        }
+        c = snapshots.putIfAbsent(sym, read); // a concurrent save wins
+        return c == null ? read : c;
+    }
+
+    /**
+     * Incremental indicator checkpoint for the symbol (SYM.state next to the snapshot), or null if there is
+     * none or it was written by an incompatible version - callers then start from a fresh state.
+     */
+    public IndicatorState loadIndicatorState(String symbol) {
         if (symbol == null || symbol.isBlank()) return null;
         String sym = symbol.trim().toUpperCase();
         synchronized (lock) {
-            try {
-                Path p = snapshotsDir.resolve(sym + ".json");
-                if (!Files.exists(p)) return null;
-                MonitoringSnapshot s = om.readValue(p.toFile(), MonitoringSnapshot.class);
-                if (s == null) return null;
-                return s;
+            Path p = snapshotsDir.resolve(sym + ".state");
+            if (!Files.exists(p)) return null;
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(p)))) {
+                Object o = in.readObject();
+                return o instanceof IndicatorState ? (IndicatorState) o : null;
             } catch (Exception ignore) {
                 return null;
             }
         }
     }
 
-    public Instant snapshotUpdatedAt(String symbol) {
-        if (symbol == null || symbol.isBlank()) return null;
-        try {
-            Path p = snapshotsDir.resolve(symbol.trim().toUpperCase() + ".json");
-            if (!Files.exists(p)) return null;
-            return Files.getLastModifiedTime(p).toInstant();
-        } catch (Exception ignore) {
-            return null;
+    public void saveIndicatorState(String symbol, IndicatorState state) {
+        if (symbol == null || symbol.isBlank() || state == null) return;
+        String sym = symbol.trim().toUpperCase();
+        synchronized (lock) {
+            try {
+                Files.createDirectories(snapshotsDir);
+                Path p = snapshotsDir.resolve(sym + ".state");
+                Path tmp = snapshotsDir.resolve(sym + ".state.tmp");
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeObject(state);
+                }
+                Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (Exception ignore) {
+            }
         }
     }
+
+    public Instant snapshotUpdatedAt(String symbol) {
+        Cached c = cachedSnapshot(symbol);
+        return c == null ? null : c.updatedAt();
+    }
 }
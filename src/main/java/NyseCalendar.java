@@ -0,0 +1,175 @@
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * NYSE trading calendar in America/New_York: weekends, exchange holidays (with the observed-day rules)
+ * and the 13:00 early closes. Holidays are computed from the rules, so there is no table to maintain;
+ * one-off closures (national days of mourning, hurricanes) are not known.
+ *
+ * Used for the market-hours checks, the monitoring schedule and the expiry of cached daily series.
+ */
+public final class NyseCalendar {
+
+    public static final ZoneId NY = ZoneId.of("America/New_York");
+    public static final LocalTime OPEN = LocalTime.of(9, 30);
+    public static final LocalTime CLOSE = LocalTime.of(16, 0);
+    public static final LocalTime EARLY_CLOSE = LocalTime.of(13, 0);
+
+    // Daily bars of a session show up at the data providers a little after the close
+    public static final Duration DAILY_PUBLISH_DELAY = Duration.ofMinutes(20);
+
+    private static final Map<Integer, Set<LocalDate>> HOLIDAYS = new ConcurrentHashMap<>();
+
+    private NyseCalendar() {
+    }
+
+    public static boolean isTradingDay(LocalDate date) {
+        DayOfWeek dow = date.getDayOfWeek();
+        if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) return false;
+        return !isHoliday(date);
+    }
+
+    public static boolean isHoliday(LocalDate date) {
+        return HOLIDAYS.computeIfAbsent(date.getYear(), NyseCalendar::holidaysOf).contains(date);
+    }
+
+    /**
+     * Trading days that close at 13:00: July 3 (when the 4th is a weekday holiday), the day after Thanksgiving
+     * and Christmas Eve.
+     */
+    public static boolean isEarlyClose(LocalDate date) {
+        if (!isTradingDay(date)) return false;
+        if (date.getMonth() == Month.JULY && date.getDayOfMonth() == 3) {
+            DayOfWeek july4 = date.plusDays(1).getDayOfWeek();
+            return july4 != DayOfWeek.SATURDAY && july4 != DayOfWeek.SUNDAY;
+        }
+        if (date.getMonth() == Month.NOVEMBER && date.minusDays(1).equals(thanksgiving(date.getYear()))) return true;
+        return date.getMonth() == Month.DECEMBER && date.getDayOfMonth() == 24;
+    }
+
+    /**
+     * Session close of a trading day (16:00, or 13:00 on early-close days); null if the market is closed that day.
+     */
+    public static LocalTime closeTime(LocalDate date) {
+        if (!isTradingDay(date)) return null;
+        return isEarlyClose(date) ? EARLY_CLOSE : CLOSE;
+    }
+
+    /**
+     * True during the regular session (open inclusive, close exclusive).
+     */
+    public static boolean isRegularHours(ZonedDateTime time) {
+        ZonedDateTime ny = time.withZoneSameInstant(NY);
+        LocalTime close = closeTime(ny.toLocalDate());
+        if (close == null) return false;
+        LocalTime t = ny.toLocalTime();
+        return !t.isBefore(OPEN) && t.isBefore(close);
+    }
+
+    public static boolean isRegularHoursNow() {
+        return isRegularHours(ZonedDateTime.now(NY));
+    }
+
+    public static LocalDate nextTradingDay(LocalDate date) {
+        LocalDate d = date.plusDays(1);
+        while (!isTradingDay(d)) d = d.plusDays(1);
+        return d;
+    }
+
+    public static LocalDate previousTradingDay(LocalDate date) {
+        LocalDate d = date.minusDays(1);
+        while (!isTradingDay(d)) d = d.minusDays(1);
+        return d;
+    }
+
+    /**
+     * First moment after now at which a new daily bar is available: the next session close plus the publish delay.
+     */
+    public static ZonedDateTime nextDailyBarTime(ZonedDateTime now) {
+        ZonedDateTime ny = now.withZoneSameInstant(NY);
+        LocalDate d = ny.toLocalDate();
+        if (!isTradingDay(d)) d = nextTradingDay(d);
+        while (true) {
+            ZonedDateTime t = ZonedDateTime.of(d, closeTime(d), NY).plus(DAILY_PUBLISH_DELAY);
+            if (t.isAfter(ny)) return t;
+            d = nextTradingDay(d);
+        }
+    }
+
+    /**
+     * The most recent session whose daily bar should already be published at the given time.
+     */
+    public static LocalDate lastPublishedSession(ZonedDateTime now) {
+        ZonedDateTime ny = now.withZoneSameInstant(NY);
+        LocalDate d = ny.toLocalDate();
+        if (!isTradingDay(d)) d = previousTradingDay(d);
+        while (ZonedDateTime.of(d, closeTime(d), NY).plus(DAILY_PUBLISH_DELAY).isAfter(ny)) {
+            d = previousTradingDay(d);
+        }
+        return d;
+    }
+
+    // ---- holiday rules ----
+
+    private static Set<LocalDate> holidaysOf(int year) {
+        Set<LocalDate> s = new TreeSet<>();
+        // New Year's Day: on a Sunday observed Monday; on a Saturday not observed (no Friday Dec 31 closure)
+        LocalDate newYear = LocalDate.of(year, 1, 1);
+        if (newYear.getDayOfWeek() == DayOfWeek.SUNDAY) s.add(newYear.plusDays(1));
+        else if (newYear.getDayOfWeek() != DayOfWeek.SATURDAY) s.add(newYear);
+        s.add(nthWeekday(year, Month.JANUARY, DayOfWeek.MONDAY, 3));   // Martin Luther King Jr. Day
+        s.add(nthWeekday(year, Month.FEBRUARY, DayOfWeek.MONDAY, 3));  // Washington's Birthday
+        s.add(easterSunday(year).minusDays(2));                        // Good Friday
+        s.add(LocalDate.of(year, Month.MAY, 1).with(TemporalAdjusters.lastInMonth(DayOfWeek.MONDAY))); // Memorial Day
+        if (year >= 2022) s.add(observed(LocalDate.of(year, Month.JUNE, 19)));                          // Juneteenth
+        s.add(observed(LocalDate.of(year, Month.JULY, 4)));
+        s.add(nthWeekday(year, Month.SEPTEMBER, DayOfWeek.MONDAY, 1)); // Labor Day
+        s.add(thanksgiving(year));
+        s.add(observed(LocalDate.of(year, Month.DECEMBER, 25)));
+        return s;
+    }
+
+    // Saturday holidays are observed on Friday, Sunday holidays on Monday
+    private static LocalDate observed(LocalDate d) {
+        if (d.getDayOfWeek() == DayOfWeek.SATURDAY) return d.minusDays(1);
+        if (d.getDayOfWeek() == DayOfWeek.SUNDAY) return d.plusDays(1);
+        return d;
+    }
+
+    private static LocalDate thanksgiving(int year) {
+        return nthWeekday(year, Month.NOVEMBER, DayOfWeek.THURSDAY, 4);
+    }
+
+    private static LocalDate nthWeekday(int year, Month month, DayOfWeek dow, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, dow));
+    }
+
+    // Anonymous Gregorian algorithm
+    private static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = ((h + l - 7 * m + 114) % 31) + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -12,34 +12,45 @@ public class OBV {
      */
     public static List<Long> calculateOBV(List<Double> closingPrices, List<Long> volumeData) {
 
-        List<Long> obvValues = new ArrayList<>();
-
         if (closingPrices == null || volumeData == null || closingPrices.size() != volumeData.size() || closingPrices.isEmpty()) {
-            return obvValues;
+            return new ArrayList<>();
+        }
+        long[] out = new long[closingPrices.size()];
+        calculateOBV(IndicatorArrays.toArray(closingPrices), IndicatorArrays.toLongArray(volumeData), out);
+        return IndicatorArrays.toLongList(out);
+    }
+
+    /**
+     * גרסה פרימיטיבית של OBV: כותבת למערך הפלט של הקורא (ל-OBV אין תקופת חימום).
+     * @param closingPrices מחירי הסגירה.
+     * @param volumeData נפחי המסחר (ווליום), באותו אורך.
+     * @param out מערך פלט באורך closingPrices.length לפחות.
+     */
+    public static void calculateOBV(double[] closingPrices, long[] volumeData, long[] out) {
+        int n = closingPrices.length;
+        IndicatorArrays.requireOutput(out, n);
+        if (n == 0) {
+            return;
         }
 
         // OBV מתחיל עם נפח המסחר של היום הראשון
-        long currentOBV = volumeData.get(0);
-        obvValues.add(currentOBV);
+        long currentOBV = volumeData[0];
+        out[0] = currentOBV;
 
-        // חישוב OBV לכל יום לאחר היום הראשון
-        for (int i = 1; i < closingPrices.size(); i++) {
-            double currentPrice = closingPrices.get(i);
-            double previousPrice = closingPrices.get(i - 1);
-            long currentVolume = volumeData.get(i);
+        for (int i = 1; i < n; i++) {
+            double currentPrice = closingPrices[i];
+            double previousPrice = closingPrices[i - 1];
 
             if (currentPrice > previousPrice) {
                 // אם המחיר עלה: מוסיפים את הווליום הנוכחי ל-OBV
-                currentOBV += currentVolume;
+                currentOBV += volumeData[i];
             } else if (currentPrice < previousPrice) {
                 // אם המחיר ירד: מחסירים את הווליום הנוכחי מה-OBV
-                currentOBV -= currentVolume;
+                currentOBV -= volumeData[i];
             }
             // אם המחיר לא השתנה, OBV נשאר אותו הדבר
 
-            obvValues.add(currentOBV);
+            out[i] = currentOBV;
         }
-
-        return obvValues;
     }
-}
\ No newline at end of file
+}
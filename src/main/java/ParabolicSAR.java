@@ -0,0 +1,83 @@
+import java.util.List;
+
+public class ParabolicSAR {
+
+    /**
+     * מחשב את אינדיקטור Parabolic SAR (Stop And Reverse) של Wilder.
+     * @param highPrices רשימת מחירי שיא.
+     * @param lowPrices רשימת מחירי שפל.
+     * @param acceleration מקדם התאוצה ההתחלתי וגודל הצעד (לרוב 0.02).
+     * @param maximum מקדם התאוצה המקסימלי (לרוב 0.2).
+     * @return רשימה של ערכי SAR (null לנר הראשון).
+     */
+    public static List<Double> calculateSAR(List<Double> highPrices, List<Double> lowPrices, double acceleration, double maximum) {
+        double[] out = new double[highPrices.size()];
+        calculateSAR(IndicatorArrays.toArray(highPrices), IndicatorArrays.toArray(lowPrices), acceleration, maximum, out);
+        return IndicatorArrays.toList(out);
+    }
+
+    /**
+     * גרסה פרימיטיבית של Parabolic SAR: out[i] הוא ה-SAR שבתוקף בנר i (NaN לנר הראשון).
+     * כיוון ההתחלה נקבע מהתנועה הכיוונית של שני הנרות הראשונים (כמו ב-TA-Lib): ירידה גדולה מעלייה = מגמה יורדת.
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param acceleration מקדם התאוצה ההתחלתי וגודל הצעד.
+     * @param maximum מקדם התאוצה המקסימלי.
+     * @param out מערך פלט באורך highPrices.length לפחות.
+     */
+    public static void calculateSAR(double[] highPrices, double[] lowPrices, double acceleration, double maximum, double[] out) {
+        int n = highPrices.length;
+        IndicatorArrays.requireOutput(out, n);
+        if (n == 0) return;
+        out[0] = Double.NaN;
+        if (n < 2) return;
+
+        double upMove = highPrices[1] - highPrices[0];
+        double downMove = lowPrices[0] - lowPrices[1];
+        boolean isLong = !(downMove > 0 && downMove > upMove);
+
+        double af = acceleration;
+        // נקודת הקיצון (EP) ו-SAR התחלתיים מהנר הראשון
+        double ep = isLong ? highPrices[0] : lowPrices[0];
+        double sar = isLong ? lowPrices[0] : highPrices[0];
+
+        for (int i = 1; i < n; i++) {
+            double high = highPrices[i];
+            double low = lowPrices[i];
+
+            if (isLong) {
+                // SAR לא יכול להיות מעל השפל של שני הנרות הקודמים
+                sar = Math.min(sar, lowPrices[i - 1]);
+                if (i >= 2) sar = Math.min(sar, lowPrices[i - 2]);
+                if (low < sar) {
+                    // היפוך למגמה יורדת: ה-SAR קופץ ל-EP (ולא מתחת לשיא של הנר הנוכחי והקודם)
+                    isLong = false;
+                    sar = Math.max(ep, Math.max(high, highPrices[i - 1]));
+                    ep = low;
+                    af = acceleration;
+                } else if (high > ep) {
+                    ep = high;
+                    af = Math.min(af + acceleration, maximum);
+                }
+            } else {
+                // SAR לא יכול להיות מתחת לשיא של שני הנרות הקודמים
+                sar = Math.max(sar, highPrices[i - 1]);
+                if (i >= 2) sar = Math.max(sar, highPrices[i - 2]);
+                if (high > sar) {
+                    // היפוך למגמה עולה (ולא מעל השפל של הנר הנוכחי והקודם)
+                    isLong = true;
+                    sar = Math.min(ep, Math.min(low, lowPrices[i - 1]));
+                    ep = high;
+                    af = acceleration;
+                } else if (low < ep) {
+                    ep = low;
+                    af = Math.min(af + acceleration, maximum);
+                }
+            }
+            out[i] = sar;
+
+            // SAR לנר הבא
+            sar = sar + af * (ep - sar);
+        }
+    }
+}
@@ -7,18 +7,9 @@ public class PortfolioWeeklySummary {
             "GOOG", "SPY", "C", "JPM", "XOM", "PLTR", "EBAY", "AMZN", "UNH", "IGV"
     ));
 
-    // Alpha Vantage free tier is 5 requests/min. Throttle between tickers.
-    private static boolean ENABLE_THROTTLE = true;
-    private static long THROTTLE_MS = 12_500; // ~5 req/min
-
     // Allow limiting the number of tickers for faster web runs
     private static int MAX_TICKERS = -1; // -1 means use full portfolio
 
-    public static void configureThrottle(boolean enable, long throttleMs) {
-        ENABLE_THROTTLE = enable;
-        THROTTLE_MS = Math.max(0, throttleMs);
-    }
-
     public static void setMaxTickers(int max) {
         MAX_TICKERS = max;
     }
@@ -103,52 +94,35 @@ public class PortfolioWeeklySummary {
     }
 
     private static ForecastResult analyzeAndForecast(String ticker) throws Exception {
-        // Fetch data
-        DataFetcher.setTicker(ticker);
-        String json = DataFetcher.fetchStockData();
-
-        // Parse series
-        List<Double> closes = PriceJsonParser.extractClosingPrices(json);
-        List<Double> highs = PriceJsonParser.extractHighPrices(json);
-        List<Double> lows = PriceJsonParser.extractLowPrices(json);
-        List<Long> volume = null;
-        try { volume = PriceJsonParser.extractVolumeData(json); } catch (Exception ignore) {}
-
-        if (closes == null || closes.size() < 30) {
+        // Recent daily bars from the local store (compact refresh at most)
+        BarSeries bars = BarStore.shared().tail(ticker, BarStore.ANALYSIS_BARS);
+        List<Double> closes = bars.closeList();
+
+        // High/Low are always aligned with Close here (missing values already fall back to Close)
+        if (closes.size() < 30) {
             throw new Exception("Insufficient data (<30 bars)");
         }
-        if (highs == null || highs.isEmpty() || lows == null || lows.isEmpty()) {
-            highs = closes;
-            lows = closes;
-        }
 
         double lastClose = closes.get(closes.size() - 1);
 
         // Momentum (12-1) and Max Drawdown
-        double momentum12mPct = calculateMomentum12m(closes);
-        double maxDrawdownPct = calculateMaxDrawdownPct(closes);
-
-        // Indicators
-        List<Double> rsi = RSI.calculateRSI(closes, 14);
-        double latestRSI = rsi.get(rsi.size() - 1);
-
-        List<Double[]> macd = MACD.calculateMACD(closes);
-        Double[] latestMacd = macd.get(macd.size() - 1);
-        double macdLine = latestMacd[0];
-        double macdSignal = latestMacd[1];
-
-        List<Double> atr = ATR.calculateATR(highs, lows, closes, 14);
-        double atr14 = atr.get(atr.size() - 1);
-
-        List<Double[]> adxList = ADX.calculateADX(highs, lows, closes, 14);
-        Double[] latestAdx = adxList.get(adxList.size() - 1);
-        double adx = latestAdx[0];
-        double plusDI = latestAdx[1];
-        double minusDI = latestAdx[2];
+        // Over the last ~100 bars (the compact window they were computed on before the BarStore)
+        List<Double> metricWindow = closes.subList(Math.max(0, closes.size() - METRICS_WINDOW), closes.size());
+        double momentum12mPct = calculateMomentum12m(metricWindow);
+        double maxDrawdownPct = calculateMaxDrawdownPct(metricWindow);
+
+        // Indicators (single pass over the bars)
+        IndicatorPipeline.Result ind = new IndicatorPipeline().rsi(14).macd().atr(14).adx(14).sma(20).compute(bars);
+        double latestRSI = IndicatorPipeline.last(ind.rsi());
+        double macdLine = IndicatorPipeline.last(ind.macd());
+        double macdSignal = IndicatorPipeline.last(ind.macdSignal());
+        double atr14 = IndicatorPipeline.last(ind.atr());
+        double adx = IndicatorPipeline.last(ind.adx());
+        double plusDI = IndicatorPipeline.last(ind.plusDI());
+        double minusDI = IndicatorPipeline.last(ind.minusDI());
 
         // SMA for context
-        List<Double> sma20 = TechnicalAnalysisModel.calculateSMA(closes, 20);
-        double latestSMA = sma20.get(sma20.size() - 1);
+        double latestSMA = IndicatorPipeline.last(ind.sma(20));
 
         // Technical signal (aligned with your runner logic)
         String technicalSignal = "NEUTRAL";
@@ -204,12 +178,34 @@ public class PortfolioWeeklySummary {
     }
 
     public static void main(String[] args) {
-        System.out.println("\n=== 📊 Portfolio Weekly Summary (Next Week Forecast) ===\n");
-        System.out.println("פורמט תצוגה: שורה-לפי-מניה (ללא טבלה)\n");
+        report(AnalysisReport.echoingTo("Portfolio Weekly Summary", System.out));
+    }
+
+    /**
+     * Weekly summary of the whole portfolio: the text report plus one structured child report per ticker.
+     */
+    public static AnalysisReport report() {
+        return report(MAX_TICKERS);
+    }
+
+    /**
+     * Same, limited to the first maxTickers of the portfolio (-1: all) for this call only, leaving setMaxTickers alone.
+     */
+    public static AnalysisReport report(int maxTickers) {
+        return report(new AnalysisReport("Portfolio Weekly Summary"), maxTickers);
+    }
+
+    static AnalysisReport report(AnalysisReport report) {
+        return report(report, MAX_TICKERS);
+    }
+
+    static AnalysisReport report(AnalysisReport report, int maxTickers) {
+        report.println("\n=== 📊 Portfolio Weekly Summary (Next Week Forecast) ===\n");
+        report.println("פורמט תצוגה: שורה-לפי-מניה (ללא טבלה)\n");
 
         Map<String, ForecastResult> results = new LinkedHashMap<>();
 
-        int limit = (MAX_TICKERS > 0) ? Math.min(MAX_TICKERS, PORTFOLIO.size()) : PORTFOLIO.size();
+        int limit = (maxTickers > 0) ? Math.min(maxTickers, PORTFOLIO.size()) : PORTFOLIO.size();
         LAST_TICKERS = new ArrayList<>();
         for (int i = 0; i < limit; i++) {
             String ticker = PORTFOLIO.get(i);
@@ -217,44 +213,54 @@ public class PortfolioWeeklySummary {
             try {
                 ForecastResult r = analyzeAndForecast(ticker);
                 results.put(ticker, r);
-
-                System.out.println("------------------------------------------------------------");
-                System.out.println("מניה: " + ticker);
-                System.out.printf("מחיר נוכחי: $%.2f%n", r.lastClose);
-                System.out.println("כיוון (Bias): " + r.directionBias);
-                System.out.printf("תחזית לשבוע הבא (Low-High): $%.2f - $%.2f%n", r.nextWeekLow, r.nextWeekHigh);
-                System.out.println("פסק-דין סופי: " + r.finalVerdict);
-                System.out.printf("ADX: %.2f%n", r.adx);
-                System.out.println("איתות טכני: " + r.technicalSignal);
-                System.out.println("איתות פונדמנטלי: " + r.fundamentalSignal);
-                System.out.printf("מומנטום 12-1: %.2f%%%n", r.momentum12mPct);
-                System.out.printf("שיא ירידה (Max Drawdown): %.2f%%%n", r.maxDrawdownPct);
-                System.out.println();
+                report.child(new AnalysisReport(ticker)
+                        .indicator("price", r.lastClose)
+                        .indicator("ATR_14", r.atr14)
+                        .indicator("next_week_low", r.nextWeekLow)
+                        .indicator("next_week_high", r.nextWeekHigh)
+                        .indicator("ADX", r.adx)
+                        .indicator("momentum_12_1_pct", r.momentum12mPct)
+                        .indicator("max_drawdown_pct", r.maxDrawdownPct)
+                        .signal("bias", r.directionBias)
+                        .signal("technical", r.technicalSignal)
+                        .signal("fundamental", r.fundamentalSignal)
+                        .verdict(r.finalVerdict));
+
+                report.println("------------------------------------------------------------");
+                report.println("מניה: " + ticker);
+                report.printf("מחיר נוכחי: $%.2f%n", r.lastClose);
+                report.println("כיוון (Bias): " + r.directionBias);
+                report.printf("תחזית לשבוע הבא (Low-High): $%.2f - $%.2f%n", r.nextWeekLow, r.nextWeekHigh);
+                report.println("פסק-דין סופי: " + r.finalVerdict);
+                report.printf("ADX: %.2f%n", r.adx);
+                report.println("איתות טכני: " + r.technicalSignal);
+                report.println("איתות פונדמנטלי: " + r.fundamentalSignal);
+                report.printf("מומנטום 12-1: %.2f%%%n", r.momentum12mPct);
+                report.printf("שיא ירידה (Max Drawdown): %.2f%%%n", r.maxDrawdownPct);
+                report.println();
 
             } catch (Exception e) {
-                System.out.println(String.format("%-6s | %s", ticker, "Error: " + e.getMessage()));
+                report.error(String.format("%-6s | %s", ticker, "Error: " + e.getMessage()));
             }
 
-            if (ENABLE_THROTTLE && i < limit - 1) {
-                try { Thread.sleep(THROTTLE_MS); } catch (InterruptedException ignored) {}
-            }
         }
 
         // Portfolio rollup
-        System.out.println("\n--- 📈 Portfolio Rollup ---");
+        report.println("\n--- 📈 Portfolio Rollup ---");
         long up = results.values().stream().filter(r -> r.directionBias.equals("Up")).count();
         long down = results.values().stream().filter(r -> r.directionBias.equals("Down")).count();
         long neutral = results.values().stream().filter(r -> r.directionBias.equals("Neutral")).count();
-        System.out.println("Bias counts -> Up: " + up + ", Down: " + down + ", Neutral: " + neutral);
+        report.println("Bias counts -> Up: " + up + ", Down: " + down + ", Neutral: " + neutral);
 
         double avgAtr = results.values().stream().mapToDouble(r -> r.atr14).average().orElse(0.0);
         double avgMom = results.values().stream().mapToDouble(r -> r.momentum12mPct).average().orElse(0.0);
         double avgDD = results.values().stream().mapToDouble(r -> r.maxDrawdownPct).average().orElse(0.0);
-        System.out.printf("Average ATR(14): %.2f\n", avgAtr);
-        System.out.printf("Average Momentum 12-1: %.2f%%%n", avgMom);
-        System.out.printf("Average Max Drawdown: %.2f%%%n", avgDD);
+        report.printf("Average ATR(14): %.2f\n", avgAtr);
+        report.printf("Average Momentum 12-1: %.2f%%%n", avgMom);
+        report.printf("Average Max Drawdown: %.2f%%%n", avgDD);
 
-        System.out.println("\nDone.\n");
+        report.println("\nDone.\n");
+        return report;
     }
 
     private static String truncate(String s, int max) {
@@ -263,6 +269,9 @@ public class PortfolioWeeklySummary {
     }
 
     // Momentum 12-1: price change from ~12 months ago to ~1 month ago (skip recent month)
+    // Momentum 12-1 and Max Drawdown use the last METRICS_WINDOW closes (the compact series they were defined on)
+    private static final int METRICS_WINDOW = 100;
+
     private static double calculateMomentum12m(List<Double> closes) {
         if (closes == null || closes.size() < 40) {
             // fallback: use last N vs N-20 (~1 month)
@@ -1,3 +1,6 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -6,246 +9,310 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 public class PriceJsonParser {
 
-    // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns closing prices ordered by date ascending
-    public static List<Double> extractClosingPrices(String json) throws Exception {
+    // Shared, thread-safe once configured; creating a mapper per call costs more than parsing a compact payload
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON = MAPPER.getFactory();
+
+    // Series keys in order of preference (matches the old root.get(...) fallback chain)
+    private static final String[] SERIES_KEYS = {
+            "Time Series (Daily)", "Time Series (Digital Currency Daily)", "Time Series (5min)"
+    };
+
+    /**
+     * Parses Alpha Vantage TIME_SERIES_DAILY JSON into a columnar series ordered by date ascending.
+     * Streams the tokens once and writes values straight into primitive buffers; no JsonNode tree is built.
+     * A bar is kept when its close parses; missing open/high/low fall back to the close and a missing volume to 0.
+     */
+    public static BarSeries parseDailyBars(String json) throws Exception {
         if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
-
-        // Alpha Vantage key typically: "Time Series (Daily)"
-        JsonNode series = root.get("Time Series (Daily)");
-        if (series == null || !series.isObject()) {
-            // Sometimes error payloads or different keys; try a couple of alternatives
-            JsonNode alt1 = root.get("Time Series (Digital Currency Daily)");
-            JsonNode alt2 = root.get("Time Series (5min)");
-            series = series != null ? series : (alt1 != null ? alt1 : alt2);
-        }
-        if (series == null || !series.isObject()) {
-            return Collections.emptyList();
+            return BarSeries.empty();
         }
-
-        // Use TreeMap to sort dates ascending
-        Map<String, Double> byDate = new TreeMap<>();
-
-        Iterator<String> dates = series.fieldNames();
-        while (dates.hasNext()) {
-            String date = dates.next();
-            JsonNode day = series.get(date);
-            if (day != null && day.isObject()) {
-                // Alpha Vantage uses keys like "4. close"
-                JsonNode closeNode = day.get("4. close");
-                if (closeNode == null) {
-                    // Some endpoints for intraday can use "4. close" as well; keep as null if missing
-                    // Try a fallback commonly seen
-                    closeNode = day.get("4a. close (USD)");
-                }
-                if (closeNode != null && closeNode.isTextual()) {
-                    try {
-                        double close = Double.parseDouble(closeNode.asText());
-                        byDate.put(date, close);
-                    } catch (NumberFormatException ignore) {
-                        // skip malformed values
-                    }
+        try (JsonParser p = JSON.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return BarSeries.empty();
+            }
+            BarBuffer best = null;
+            int bestRank = Integer.MAX_VALUE;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                int rank = seriesRank(p.getCurrentName());
+                JsonToken t = p.nextToken();
+                if (rank < bestRank && t == JsonToken.START_OBJECT) {
+                    best = readSeries(p);
+                    bestRank = rank;
+                } else {
+                    p.skipChildren();
                 }
             }
+            return best == null ? BarSeries.empty() : best.toSeries();
         }
+    }
 
-        List<Double> prices = new ArrayList<>(byDate.size());
-        for (Double v : byDate.values()) {
-            prices.add(v);
+    private static int seriesRank(String name) {
+        for (int i = 0; i < SERIES_KEYS.length; i++) {
+            if (SERIES_KEYS[i].equals(name)) return i;
         }
-        return prices;
+        return Integer.MAX_VALUE;
     }
 
-    public static Map<String, Double> extractCloseByDate(String json) throws Exception {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
-        JsonNode series = root.get("Time Series (Daily)");
-        if (series == null || !series.isObject()) {
-            JsonNode alt1 = root.get("Time Series (Digital Currency Daily)");
-            JsonNode alt2 = root.get("Time Series (5min)");
-            series = series != null ? series : (alt1 != null ? alt1 : alt2);
-        }
-        if (series == null || !series.isObject()) {
-            return Collections.emptyMap();
-        }
-        Map<String, Double> byDate = new TreeMap<>();
-        Iterator<String> dates = series.fieldNames();
-        while (dates.hasNext()) {
-            String date = dates.next();
-            JsonNode day = series.get(date);
-            if (day != null && day.isObject()) {
-                JsonNode closeNode = day.get("4. close");
-                if (closeNode == null) {
-                    closeNode = day.get("4a. close (USD)");
+    // Parser is positioned on the series START_OBJECT; returns positioned on its END_OBJECT
+    private static BarBuffer readSeries(JsonParser p) throws Exception {
+        BarBuffer buf = new BarBuffer(128);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            long key = parseSortKey(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            double o = Double.NaN, h = Double.NaN, l = Double.NaN, c = Double.NaN;
+            double oAlt = Double.NaN, hAlt = Double.NaN, lAlt = Double.NaN, cAlt = Double.NaN;
+            long v = 0L;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String f = p.getCurrentName();
+                JsonToken vt = p.nextToken();
+                if (vt == JsonToken.START_OBJECT || vt == JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
                 }
-                if (closeNode != null && closeNode.isTextual()) {
-                    try {
-                        double close = Double.parseDouble(closeNode.asText());
-                        byDate.put(date, close);
-                    } catch (NumberFormatException ignore) {
-                    }
+                // Alpha Vantage uses keys like "4. close"; crypto endpoints use "4a. close (USD)"
+                switch (f) {
+                    case "1. open": o = numberValue(p, vt); break;
+                    case "2. high": h = numberValue(p, vt); break;
+                    case "3. low": l = numberValue(p, vt); break;
+                    case "4. close": c = numberValue(p, vt); break;
+                    case "5. volume": v = volumeValue(p, vt); break;
+                    case "1a. open (USD)": oAlt = numberValue(p, vt); break;
+                    case "2a. high (USD)": hAlt = numberValue(p, vt); break;
+                    case "3a. low (USD)": lAlt = numberValue(p, vt); break;
+                    case "4a. close (USD)": cAlt = numberValue(p, vt); break;
+                    default: break;
                 }
             }
-        }
-        return byDate;
+            if (Double.isNaN(c)) c = cAlt;
+            if (Double.isNaN(c) || key == Long.MIN_VALUE) continue;
+            if (Double.isNaN(o)) o = Double.isNaN(oAlt) ? c : oAlt;
+            if (Double.isNaN(h)) h = Double.isNaN(hAlt) ? c : hAlt;
+            if (Double.isNaN(l)) l = Double.isNaN(lAlt) ? c : lAlt;
+            buf.add(key, o, h, l, c, v);
+        }
+        return buf;
     }
 
-    // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns high prices ordered by date ascending
-    public static List<Double> extractHighPrices(String json) throws Exception {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
+    /**
+     * "yyyy-MM-dd" or "yyyy-MM-dd HH:mm:ss" -> epochDay * 86400 + secondOfDay, Long.MIN_VALUE when malformed.
+     * Read straight from the parser's char buffer so date keys never become Strings.
+     */
+    private static long parseSortKey(char[] ch, int off, int len) {
+        if (len < 10 || ch[off + 4] != '-' || ch[off + 7] != '-') return Long.MIN_VALUE;
+        int y = digits(ch, off, 4);
+        int m = digits(ch, off + 5, 2);
+        int d = digits(ch, off + 8, 2);
+        if (y < 0 || m < 1 || m > 12 || d < 1 || d > 31) return Long.MIN_VALUE;
+        long secs = 0;
+        if (len >= 19 && ch[off + 13] == ':' && ch[off + 16] == ':') {
+            int hh = digits(ch, off + 11, 2);
+            int mm = digits(ch, off + 14, 2);
+            int ss = digits(ch, off + 17, 2);
+            if (hh >= 0 && mm >= 0 && ss >= 0) secs = hh * 3600L + mm * 60L + ss;
+        }
+        return epochDay(y, m, d) * 86400L + secs;
+    }
+
+    private static int digits(char[] ch, int off, int count) {
+        int v = 0;
+        for (int i = off; i < off + count; i++) {
+            int dgt = ch[i] - '0';
+            if (dgt < 0 || dgt > 9) return -1;
+            v = v * 10 + dgt;
         }
+        return v;
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
+    // Proleptic Gregorian days since 1970-01-01 (same result as LocalDate.of(y, m, d).toEpochDay())
+    private static long epochDay(int y, int m, int d) {
+        long yy = m <= 2 ? y - 1 : y;
+        long era = Math.floorDiv(yy, 400);
+        long yoe = yy - era * 400;
+        long doy = (153L * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
 
-        JsonNode series = root.get("Time Series (Daily)");
-        if (series == null || !series.isObject()) {
-            JsonNode alt1 = root.get("Time Series (Digital Currency Daily)");
-            JsonNode alt2 = root.get("Time Series (5min)");
-            series = series != null ? series : (alt1 != null ? alt1 : alt2);
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Numeric value of the current token (Alpha Vantage sends numbers as strings, e.g. "213.8800").
+     * Plain decimals with at most 15 significant digits are parsed from the char buffer: the mantissa
+     * and 10^k are both exact doubles, so one division gives the same correctly rounded result as
+     * Double.parseDouble. Anything else falls back to Double.parseDouble.
+     */
+    private static double numberValue(JsonParser p, JsonToken t) throws Exception {
+        if (t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) return p.getDoubleValue();
+        if (t != JsonToken.VALUE_STRING) return Double.NaN;
+        char[] ch = p.getTextCharacters();
+        int off = p.getTextOffset();
+        int end = off + p.getTextLength();
+        int i = off;
+        boolean neg = false;
+        if (i < end && (ch[i] == '-' || ch[i] == '+')) {
+            neg = ch[i] == '-';
+            i++;
+        }
+        long mant = 0;
+        int sig = 0;
+        int frac = -1;
+        boolean any = false;
+        for (; i < end; i++) {
+            char c = ch[i];
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (mant != 0 || c != '0') sig++;
+                if (sig > 15) break;
+                mant = mant * 10 + (c - '0');
+                if (frac >= 0) frac++;
+            } else if (c == '.' && frac < 0) {
+                frac = 0;
+            } else {
+                break;
+            }
         }
-        if (series == null || !series.isObject()) {
-            return Collections.emptyList();
+        if (i == end && any && frac < POW10.length) {
+            double v = frac > 0 ? mant / POW10[frac] : mant;
+            return neg ? -v : v;
         }
-
-        Map<String, Double> byDate = new TreeMap<>();
-        Iterator<String> dates = series.fieldNames();
-        while (dates.hasNext()) {
-            String date = dates.next();
-            JsonNode day = series.get(date);
-            if (day != null && day.isObject()) {
-                JsonNode highNode = day.get("2. high");
-                if (highNode == null) {
-                    highNode = day.get("2a. high (USD)");
-                }
-                if (highNode != null && highNode.isTextual()) {
-                    try {
-                        double high = Double.parseDouble(highNode.asText());
-                        byDate.put(date, high);
-                    } catch (NumberFormatException ignore) {
-                    }
-                }
-            }
+        try {
+            return Double.parseDouble(p.getText());
+        } catch (NumberFormatException ignore) {
+            return Double.NaN;
         }
+    }
 
-        List<Double> prices = new ArrayList<>(byDate.size());
-        for (Double v : byDate.values()) {
-            prices.add(v);
-        }
-        return prices;
+    private static long volumeValue(JsonParser p, JsonToken t) throws Exception {
+        if (t == JsonToken.VALUE_NUMBER_INT) return p.getLongValue();
+        if (t == JsonToken.VALUE_NUMBER_FLOAT) return (long) p.getDoubleValue();
+        if (t != JsonToken.VALUE_STRING) return 0L;
+        char[] ch = p.getTextCharacters();
+        int off = p.getTextOffset();
+        int end = off + p.getTextLength();
+        long v = 0;
+        boolean any = false;
+        for (int i = off; i < end; i++) {
+            char c = ch[i];
+            if (c == ',') continue;
+            if (c < '0' || c > '9' || v > (Long.MAX_VALUE - 9) / 10) return 0L;
+            v = v * 10 + (c - '0');
+            any = true;
+        }
+        return any ? v : 0L;
     }
 
-    // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns low prices ordered by date ascending
-    public static List<Double> extractLowPrices(String json) throws Exception {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
+    // Growable primitive columns filled during streaming, ordered by date on completion
+    private static final class BarBuffer {
+        long[] keys;
+        double[] open, high, low, close;
+        long[] volume;
+        int n;
+
+        BarBuffer(int cap) {
+            keys = new long[cap];
+            open = new double[cap];
+            high = new double[cap];
+            low = new double[cap];
+            close = new double[cap];
+            volume = new long[cap];
+        }
+
+        void add(long key, double o, double h, double l, double c, long v) {
+            if (n == keys.length) {
+                int cap = n * 2;
+                keys = java.util.Arrays.copyOf(keys, cap);
+                open = java.util.Arrays.copyOf(open, cap);
+                high = java.util.Arrays.copyOf(high, cap);
+                low = java.util.Arrays.copyOf(low, cap);
+                close = java.util.Arrays.copyOf(close, cap);
+                volume = java.util.Arrays.copyOf(volume, cap);
+            }
+            keys[n] = key;
+            open[n] = o;
+            high[n] = h;
+            low[n] = l;
+            close[n] = c;
+            volume[n] = v;
+            n++;
+        }
+
+        // Alpha Vantage returns newest first, so the common case is a plain reversal; anything else is sorted by key
+        BarSeries toSeries() {
+            if (n == 0) return BarSeries.empty();
+            boolean ascending = true;
+            boolean descending = true;
+            for (int i = 1; i < n && (ascending || descending); i++) {
+                if (keys[i - 1] >= keys[i]) ascending = false;
+                if (keys[i - 1] <= keys[i]) descending = false;
+            }
+            int[] order = new int[n];
+            if (descending) {
+                for (int i = 0; i < n; i++) order[i] = n - 1 - i;
+            } else if (ascending) {
+                for (int i = 0; i < n; i++) order[i] = i;
+            } else {
+                Integer[] idx = new Integer[n];
+                for (int i = 0; i < n; i++) idx[i] = i;
+                java.util.Arrays.sort(idx, (a, b) -> Long.compare(keys[a], keys[b]));
+                for (int i = 0; i < n; i++) order[i] = idx[i];
+            }
+            int[] days = new int[n];
+            double[] o = new double[n];
+            double[] h = new double[n];
+            double[] l = new double[n];
+            double[] c = new double[n];
+            long[] v = new long[n];
+            for (int i = 0; i < n; i++) {
+                int k = order[i];
+                days[i] = (int) Math.floorDiv(keys[k], 86400L);
+                o[i] = open[k];
+                h[i] = high[k];
+                l[i] = low[k];
+                c[i] = close[k];
+                v[i] = volume[k];
+            }
+            return new BarSeries(days, o, h, l, c, v);
         }
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
+    // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns closing prices ordered by date ascending
+    public static List<Double> extractClosingPrices(String json) throws Exception {
+        return parseDailyBars(json).closeList();
+    }
 
-        JsonNode series = root.get("Time Series (Daily)");
-        if (series == null || !series.isObject()) {
-            JsonNode alt1 = root.get("Time Series (Digital Currency Daily)");
-            JsonNode alt2 = root.get("Time Series (5min)");
-            series = series != null ? series : (alt1 != null ? alt1 : alt2);
-        }
-        if (series == null || !series.isObject()) {
-            return Collections.emptyList();
-        }
+    public static Map<String, Double> extractCloseByDate(String json) throws Exception {
+        return parseDailyBars(json).closeByDate();
+    }
 
-        Map<String, Double> byDate = new TreeMap<>();
-        Iterator<String> dates = series.fieldNames();
-        while (dates.hasNext()) {
-            String date = dates.next();
-            JsonNode day = series.get(date);
-            if (day != null && day.isObject()) {
-                JsonNode lowNode = day.get("3. low");
-                if (lowNode == null) {
-                    lowNode = day.get("3a. low (USD)");
-                }
-                if (lowNode != null && lowNode.isTextual()) {
-                    try {
-                        double low = Double.parseDouble(lowNode.asText());
-                        byDate.put(date, low);
-                    } catch (NumberFormatException ignore) {
-                    }
-                }
-            }
-        }
+    // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns high prices ordered by date ascending
+    public static List<Double> extractHighPrices(String json) throws Exception {
+        return parseDailyBars(json).highList();
+    }
 
-        List<Double> prices = new ArrayList<>(byDate.size());
-        for (Double v : byDate.values()) {
-            prices.add(v);
-        }
-        return prices;
+    // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns low prices ordered by date ascending
+    public static List<Double> extractLowPrices(String json) throws Exception {
+        return parseDailyBars(json).lowList();
     }
 
     // Parses Alpha Vantage TIME_SERIES_DAILY JSON and returns volumes ordered by date ascending
     public static List<Long> extractVolumeData(String json) throws Exception {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
-
-        JsonNode series = root.get("Time Series (Daily)");
-        if (series == null || !series.isObject()) {
-            JsonNode alt1 = root.get("Time Series (Digital Currency Daily)");
-            JsonNode alt2 = root.get("Time Series (5min)");
-            series = series != null ? series : (alt1 != null ? alt1 : alt2);
-        }
-        if (series == null || !series.isObject()) {
-            return Collections.emptyList();
-        }
-
-        Map<String, Long> byDate = new TreeMap<>();
-        Iterator<String> dates = series.fieldNames();
-        while (dates.hasNext()) {
-            String date = dates.next();
-            JsonNode day = series.get(date);
-            if (day != null && day.isObject()) {
-                // Alpha Vantage uses keys like "5. volume"
-                JsonNode volNode = day.get("5. volume");
-                if (volNode == null) {
-                    // Some crypto endpoints use different keys; try a common alternative
-                    volNode = day.get("5. volume");
-                }
-                if (volNode != null && volNode.isTextual()) {
-                    try {
-                        long vol = Long.parseLong(volNode.asText().replace(",", ""));
-                        byDate.put(date, vol);
-                    } catch (NumberFormatException ignore) {
-                    }
-                }
-            }
-        }
-
-        List<Long> volumes = new ArrayList<>(byDate.size());
-        for (Long v : byDate.values()) {
-            volumes.add(v);
-        }
-        return volumes;
+        return parseDailyBars(json).volumeList();
     }
 
     // בתוך JsonParser.java
     public static List<Long> extractVolumeDataLng(String jsonData) throws Exception {
 
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode rootNode = mapper.readTree(jsonData);
+        JsonNode rootNode = MAPPER.readTree(jsonData);
 
         // ניגש לאזור המכיל את נתוני סדרת הזמן (Time Series)
         JsonNode timeSeriesNode = rootNode.get("Time Series (Daily)");
@@ -285,81 +352,109 @@ public class PriceJsonParser {
         return volumeValues;
     }
 
-    private static List<Double> extractFinnhubDoubleSeries(String json, String field) throws Exception {
+    /**
+     * Parses Finnhub stock/candle JSON (arrays t,o,h,l,c,v) into a columnar series in one pass.
+     * Bars whose close is not numeric are dropped; Finnhub already returns them oldest first, so order is kept.
+     */
+    public static BarSeries parseFinnhubBars(String json) throws Exception {
         if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
+            return BarSeries.empty();
         }
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
+        JsonNode root = MAPPER.readTree(json);
         JsonNode status = root.get("s");
         if (status == null || !status.isTextual() || !"ok".equalsIgnoreCase(status.asText())) {
-            return Collections.emptyList();
-        }
-        JsonNode arr = root.get(field);
-        if (arr == null || !arr.isArray() || arr.size() == 0) {
-            return Collections.emptyList();
-        }
-        List<Double> out = new ArrayList<>(arr.size());
-        for (int i = 0; i < arr.size(); i++) {
-            JsonNode v = arr.get(i);
-            if (v != null && v.isNumber()) {
-                out.add(v.asDouble());
-            }
-        }
-        return out;
+            return BarSeries.empty();
+        }
+        JsonNode c = root.get("c");
+        if (c == null || !c.isArray() || c.size() == 0) {
+            return BarSeries.empty();
+        }
+        JsonNode t = root.get("t");
+        JsonNode o = root.get("o");
+        JsonNode h = root.get("h");
+        JsonNode l = root.get("l");
+        JsonNode v = root.get("v");
+
+        int cap = c.size();
+        int[] days = new int[cap];
+        double[] open = new double[cap];
+        double[] high = new double[cap];
+        double[] low = new double[cap];
+        double[] close = new double[cap];
+        long[] volume = new long[cap];
+        int n = 0;
+        for (int i = 0; i < cap; i++) {
+            JsonNode ci = c.get(i);
+            if (ci == null || !ci.isNumber()) continue;
+            double cv = ci.asDouble();
+            days[n] = (int) Math.floorDiv(arrayLong(t, i, 0L), 86400L);
+            close[n] = cv;
+            open[n] = arrayDouble(o, i, cv);
+            high[n] = arrayDouble(h, i, cv);
+            low[n] = arrayDouble(l, i, cv);
+            volume[n] = arrayLong(v, i, 0L);
+            n++;
+        }
+        if (n == cap) {
+            return new BarSeries(days, open, high, low, close, volume);
+        }
+        return new BarSeries(java.util.Arrays.copyOf(days, n), java.util.Arrays.copyOf(open, n),
+                java.util.Arrays.copyOf(high, n), java.util.Arrays.copyOf(low, n),
+                java.util.Arrays.copyOf(close, n), java.util.Arrays.copyOf(volume, n));
+    }
+
+    private static double arrayDouble(JsonNode arr, int i, double fallback) {
+        if (arr == null || !arr.isArray() || i >= arr.size()) return fallback;
+        JsonNode n = arr.get(i);
+        return n != null && n.isNumber() ? n.asDouble() : fallback;
+    }
+
+    private static long arrayLong(JsonNode arr, int i, long fallback) {
+        if (arr == null || !arr.isArray() || i >= arr.size()) return fallback;
+        JsonNode n = arr.get(i);
+        return n != null && n.isNumber() ? n.asLong() : fallback;
     }
 
     public static List<Double> extractClosingPricesFromFinnhub(String json) throws Exception {
-        return extractFinnhubDoubleSeries(json, "c");
+        return parseFinnhubBars(json).closeList();
     }
 
     public static List<Double> extractHighPricesFromFinnhub(String json) throws Exception {
-        return extractFinnhubDoubleSeries(json, "h");
+        return parseFinnhubBars(json).highList();
     }
 
     public static List<Double> extractLowPricesFromFinnhub(String json) throws Exception {
-        return extractFinnhubDoubleSeries(json, "l");
+        return parseFinnhubBars(json).lowList();
     }
 
     public static List<Long> extractVolumeFromFinnhub(String json) throws Exception {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
-        JsonNode status = root.get("s");
-        if (status == null || !status.isTextual() || !"ok".equalsIgnoreCase(status.asText())) {
-            return Collections.emptyList();
-        }
-        JsonNode arr = root.get("v");
-        if (arr == null || !arr.isArray() || arr.size() == 0) {
-            return Collections.emptyList();
-        }
-        List<Long> out = new ArrayList<>(arr.size());
-        for (int i = 0; i < arr.size(); i++) {
-            JsonNode v = arr.get(i);
-            if (v != null && v.isNumber()) {
-                out.add(v.asLong());
-            }
-        }
-        return out;
+        return parseFinnhubBars(json).volumeList();
     }
 
-    // Extracts service-level messages like rate-limit notes or error messages from Alpha Vantage JSON
+    // Extracts service-level messages like rate-limit notes or error messages from Alpha Vantage JSON.
+    // Only top-level fields are inspected, so large series objects are skipped without being parsed into a tree.
     public static String extractServiceMessage(String json) {
         if (json == null || json.isEmpty()) return null;
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(json);
-            String[] keys = new String[]{"Note", "Information", "Error Message", "message"};
-            for (String k : keys) {
-                JsonNode n = root.get(k);
-                if (n != null && n.isTextual()) {
-                    return n.asText();
+        String[] keys = new String[]{"Note", "Information", "Error Message", "message"};
+        String[] found = new String[keys.length];
+        try (JsonParser p = JSON.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                JsonToken t = p.nextToken();
+                if (t == JsonToken.VALUE_STRING) {
+                    for (int i = 0; i < keys.length; i++) {
+                        if (keys[i].equals(name)) found[i] = p.getText();
+                    }
+                } else {
+                    p.skipChildren();
                 }
             }
         } catch (Exception ignore) {
         }
+        for (String f : found) {
+            if (f != null) return f;
+        }
         return null;
     }
 }
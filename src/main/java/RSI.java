@@ -13,49 +13,53 @@ public class RSI {
         if (prices == null || prices.size() < period + 1) {
             return new ArrayList<>();
         }
+        double[] out = new double[prices.size()];
+        calculateRSI(IndicatorArrays.toArray(prices), period, out);
+        return IndicatorArrays.toList(out);
+    }
 
-        List<Double> rsiValues = new ArrayList<>();
-        // מוסיף ערכי Null עבור התקופה הראשונית שבה אין מספיק נתונים
-        for (int i = 0; i < period; i++) {
-            rsiValues.add(null);
+    /**
+     * גרסה פרימיטיבית של RSI: כותבת למערך הפלט של הקורא, NaN בתקופת החימום (period הערכים הראשונים).
+     * @param prices מחירי הסגירה.
+     * @param period תקופת החישוב (לרוב 14 ימים).
+     * @param out מערך פלט באורך prices.length לפחות.
+     */
+    public static void calculateRSI(double[] prices, int period, double[] out) {
+        int n = prices.length;
+        IndicatorArrays.requireOutput(out, n);
+        java.util.Arrays.fill(out, 0, n, Double.NaN);
+        if (n < period + 1) {
+            return;
         }
 
         // חישוב ממוצע עליות וירידות ראשוני (Simple Average)
-        double initialAvgGain = 0;
-        double initialAvgLoss = 0;
-
+        double avgGain = 0;
+        double avgLoss = 0;
         for (int i = 1; i <= period; i++) {
-            double change = prices.get(i) - prices.get(i - 1);
+            double change = prices[i] - prices[i - 1];
             if (change > 0) {
-                initialAvgGain += change;
+                avgGain += change;
             } else {
-                initialAvgLoss += Math.abs(change);
+                avgLoss += Math.abs(change);
             }
         }
-        initialAvgGain /= period;
-        initialAvgLoss /= period;
+        avgGain /= period;
+        avgLoss /= period;
 
-        // חישוב ה-RSI הראשון
-        double rs = initialAvgLoss == 0 ? 99.99 : initialAvgGain / initialAvgLoss;
-        rsiValues.add(100.0 - (100.0 / (1.0 + rs)));
+        double rs = avgLoss == 0 ? 99.99 : avgGain / avgLoss;
+        out[period] = 100.0 - (100.0 / (1.0 + rs));
 
         // חישוב החלקה עוקב (Wilder's Smoothing)
-        double currentAvgGain = initialAvgGain;
-        double currentAvgLoss = initialAvgLoss;
-
-        for (int i = period + 1; i < prices.size(); i++) {
-            double change = prices.get(i) - prices.get(i - 1);
+        for (int i = period + 1; i < n; i++) {
+            double change = prices[i] - prices[i - 1];
             double gain = change > 0 ? change : 0;
             double loss = change < 0 ? Math.abs(change) : 0;
 
-            // החלקה (Exponential Moving Average)
-            currentAvgGain = (currentAvgGain * (period - 1) + gain) / period;
-            currentAvgLoss = (currentAvgLoss * (period - 1) + loss) / period;
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
 
-            rs = currentAvgLoss == 0 ? 99.99 : currentAvgGain / currentAvgLoss;
-            rsiValues.add(100.0 - (100.0 / (1.0 + rs)));
+            rs = avgLoss == 0 ? 99.99 : avgGain / avgLoss;
+            out[i] = 100.0 - (100.0 / (1.0 + rs));
         }
-
-        return rsiValues;
     }
-}
\ No newline at end of file
+}
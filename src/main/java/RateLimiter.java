@@ -0,0 +1,60 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket: refills at permitsPerMinute and saves up at most burst unused permits.
+ * acquire() reserves its permit under the lock (the bucket may go into debt) and sleeps outside it,
+ * so concurrent callers are spaced exactly at the configured rate, and time spent on the request itself
+ * counts toward the interval instead of being added on top of a fixed sleep.
+ */
+public final class RateLimiter {
+
+    private final double permitsPerMinute;
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerMinute, int burst) {
+        if (!(permitsPerMinute > 0)) throw new IllegalArgumentException("permitsPerMinute must be positive");
+        this.permitsPerMinute = permitsPerMinute;
+        this.permitsPerNano = permitsPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public double permitsPerMinute() {
+        return permitsPerMinute;
+    }
+
+    /**
+     * Blocks until a permit is available.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill(System.nanoTime());
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a permit only if one is available right now.
+     */
+    public synchronized boolean tryAcquire() {
+        refill(System.nanoTime());
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+}
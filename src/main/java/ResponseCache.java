@@ -0,0 +1,345 @@
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Two-tier cache of upstream API responses (Alpha Vantage, Finnhub), used by ApiHttpClient for every GET.
+ *
+ * Tier 1 is an in-memory LRU bounded by total body size (API_CACHE_MEMORY_MB, default 32).
+ * Tier 2 is a directory of files (API_CACHE_DIR, default api-cache/), one per resource, written atomically
+ * (tmp file + move) so a crash never leaves a half-written entry. Disk hits are promoted to memory.
+ *
+ * The TTL depends on the endpoint (see ttlFor): daily series until the next NYSE close (NyseCalendar), OVERVIEW 24h,
+ * NEWS_SENTIMENT 15 min, ... Endpoints without a TTL are not cached. Only successful responses are stored;
+ * HTTP errors, Alpha Vantage "Note"/"Information" (rate limit) bodies and Finnhub errors never are.
+ */
+public final class ResponseCache {
+
+    private static final ZoneId NY = NyseCalendar.NY;
+    // A daily series fetched after a close but without that session's bar is retried soon, not kept until the next close
+    private static final Duration MISSING_CLOSE_RETRY = Duration.ofMinutes(10);
+    private static final Pattern ISO_DATE = Pattern.compile("\"(\\d{4}-\\d{2}-\\d{2})");
+
+    private static final ResponseCache SHARED = new ResponseCache(
+            Paths.get(envOr("API_CACHE_DIR", "api-cache")),
+            memoryLimitMb() * 1024 * 1024);
+
+    private final Path dir;
+    private final long maxMemoryBytes;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final String body;
+        final long expiresAtMillis;
+
+        Entry(String body, long expiresAtMillis) {
+            this.body = body;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        long bytes() {
+            return 2L * body.length();
+        }
+    }
+
+    public ResponseCache(Path dir, long maxMemoryBytes) {
+        this.dir = dir;
+        this.maxMemoryBytes = Math.max(0, maxMemoryBytes);
+    }
+
+    public static ResponseCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Cached body for the resource, or null on a miss (or an expired entry).
+     */
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            Entry e = memory.get(key);
+            if (e != null) {
+                if (e.expiresAtMillis > now) {
+                    memoryHits.incrementAndGet();
+                    return e.body;
+                }
+                removeFromMemory(key);
+            }
+        }
+        Entry e = readDisk(key, now);
+        if (e != null) {
+            diskHits.incrementAndGet();
+            putMemory(key, e);
+            return e.body;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores a fresh successful body with the endpoint's TTL; does nothing for uncached endpoints or error bodies.
+     */
+    public void put(String key, URI uri, String body) {
+        ZonedDateTime now = ZonedDateTime.now(NY);
+        Duration ttl = ttlFor(uri, now);
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || !isCacheable(body)) return;
+        if (isDailySeries(uri) && lacksLastClose(body, now) && ttl.compareTo(MISSING_CLOSE_RETRY) > 0) {
+            ttl = MISSING_CLOSE_RETRY;
+        }
+        Entry e = new Entry(body, System.currentTimeMillis() + ttl.toMillis());
+        putMemory(key, e);
+        writeDisk(key, e);
+        stores.incrementAndGet();
+    }
+
+    public void invalidate(String key) {
+        synchronized (memory) {
+            removeFromMemory(key);
+        }
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (Exception ignore) {
+        }
+    }
+
+    public String stats() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        int entries;
+        long bytes;
+        synchronized (memory) {
+            entries = memory.size();
+            bytes = memoryBytes;
+        }
+        return String.format("hits=%d (memory=%d, disk=%d) misses=%d hitRate=%.1f%% stores=%d evictions=%d memoryEntries=%d memoryKB=%d",
+                hits, memoryHits.get(), diskHits.get(), misses.get(), total == 0 ? 0.0 : 100.0 * hits / total,
+                stores.get(), evictions.get(), entries, bytes / 1024);
+    }
+
+    // ---- TTL policy ----
+
+    /**
+     * How long a response of this endpoint stays valid, or null if it must not be cached.
+     */
+    static Duration ttlFor(URI uri, ZonedDateTime nowNy) {
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        if (host.endsWith("alphavantage.co")) {
+            Map<String, String> q = query(uri);
+            String function = q.getOrDefault("function", "").toUpperCase();
+            switch (function) {
+                case "TIME_SERIES_DAILY":
+                case "TIME_SERIES_DAILY_ADJUSTED":
+                case "TIME_SERIES_WEEKLY":
+                case "TIME_SERIES_MONTHLY":
+                    return untilNextDailyRefresh(nowNy);
+                case "TIME_SERIES_INTRADAY":
+                    return Duration.ofMinutes(1);
+                case "OVERVIEW":
+                case "DIVIDENDS":
+                case "INCOME_STATEMENT":
+                case "CASH_FLOW":
+                case "BALANCE_SHEET":
+                    return Duration.ofHours(24);
+                case "EARNINGS":
+                case "EARNINGS_ESTIMATES":
+                    return Duration.ofHours(12);
+                case "NEWS_SENTIMENT":
+                case "TOP_GAINERS_LOSERS":
+                    return Duration.ofMinutes(15);
+                default:
+                    // Technical indicators: daily/weekly/monthly bars only change after the close
+                    String interval = q.getOrDefault("interval", "").toLowerCase();
+                    if (interval.equals("daily") || interval.equals("weekly") || interval.equals("monthly")) {
+                        return untilNextDailyRefresh(nowNy);
+                    }
+                    if (interval.endsWith("min")) return Duration.ofMinutes(5);
+                    return null;
+            }
+        }
+        if (host.endsWith("finnhub.io")) {
+            if (path.endsWith("/stock/candle")) return untilNextDailyRefresh(nowNy);
+            if (path.endsWith("/stock/recommendation") || path.endsWith("/stock/price-target")) return Duration.ofHours(24);
+            return null;
+        }
+        return null;
+    }
+
+    // Until the next session's daily bar is published (NYSE calendar: weekends, holidays, early closes)
+    static Duration untilNextDailyRefresh(ZonedDateTime nowNy) {
+        return Duration.between(nowNy, NyseCalendar.nextDailyBarTime(nowNy));
+    }
+
+    // Endpoints whose TTL runs until the next daily bar
+    static boolean isDailySeries(URI uri) {
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        if (host.endsWith("finnhub.io")) return uri.getPath() != null && uri.getPath().endsWith("/stock/candle");
+        if (!host.endsWith("alphavantage.co")) return false;
+        Map<String, String> q = query(uri);
+        String function = q.getOrDefault("function", "").toUpperCase();
+        if (function.startsWith("TIME_SERIES_")) return !function.equals("TIME_SERIES_INTRADAY");
+        String interval = q.getOrDefault("interval", "").toLowerCase();
+        return interval.equals("daily") || interval.equals("weekly") || interval.equals("monthly");
+    }
+
+    /**
+     * True if an Alpha Vantage daily body ends before the last session that should already be published
+     * (the provider is late). Alpha Vantage puts "Last Refreshed" and the newest bars first, so the head is enough.
+     * Bodies without recognizable dates are trusted.
+     */
+    static boolean lacksLastClose(String body, ZonedDateTime nowNy) {
+        Matcher m = ISO_DATE.matcher(body.length() > 4096 ? body.substring(0, 4096) : body);
+        LocalDate latest = null;
+        while (m.find()) {
+            try {
+                LocalDate d = LocalDate.parse(m.group(1));
+                if (latest == null || d.isAfter(latest)) latest = d;
+            } catch (Exception ignore) {
+            }
+        }
+        return latest != null && latest.isBefore(NyseCalendar.lastPublishedSession(nowNy));
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> q = new LinkedHashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) return q;
+        for (String part : raw.split("&")) {
+            int eq = part.indexOf('=');
+            if (eq <= 0) continue;
+            q.put(part.substring(0, eq).toLowerCase(), java.net.URLDecoder.decode(part.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return q;
+    }
+
+    static boolean isCacheable(String body) {
+        if (body == null || body.isBlank()) return false;
+        String head = body.stripLeading();
+        if (!(head.startsWith("{") || head.startsWith("["))) return false;
+        if (head.startsWith("{\"error\"")) return false; // Finnhub error
+        return PriceJsonParser.extractServiceMessage(body) == null; // Alpha Vantage Note / Information / Error Message
+    }
+
+    // ---- memory tier ----
+
+    private void putMemory(String key, Entry e) {
+        if (e.bytes() > maxMemoryBytes) return;
+        synchronized (memory) {
+            removeFromMemory(key);
+            memory.put(key, e);
+            memoryBytes += e.bytes();
+            Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                memoryBytes -= eldest.getValue().bytes();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // caller holds the memory lock
+    private void removeFromMemory(String key) {
+        Entry old = memory.remove(key);
+        if (old != null) memoryBytes -= old.bytes();
+    }
+
+    // ---- disk tier ----
+    // File layout: "<expiresAtMillis>\n<key>\n<body>"; the key line guards against hash collisions
+
+    private Path fileFor(String key) {
+        return dir.resolve(sha256(key) + ".json");
+    }
+
+    private Entry readDisk(String key, long now) {
+        Path file = fileFor(key);
+        try {
+            if (!Files.exists(file)) return null;
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int first = content.indexOf('\n');
+            int second = first < 0 ? -1 : content.indexOf('\n', first + 1);
+            if (second < 0) return null;
+            long expiresAt = Long.parseLong(content.substring(0, first).trim());
+            if (!key.equals(content.substring(first + 1, second))) return null;
+            if (expiresAt <= now) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return new Entry(content.substring(second + 1), expiresAt);
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, Entry e) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(dir);
+            Path file = fileFor(key);
+            tmp = Files.createTempFile(dir, "entry", ".tmp");
+            Files.writeString(tmp, e.expiresAtMillis + "\n" + key + "\n" + e.body, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception ignore) {
+        } finally {
+            // Left behind only when the write or the move failed (disk full, ...)
+            try {
+                if (tmp != null) Files.deleteIfExists(tmp);
+            } catch (Exception ignore) {
+            }
+        }
+    }
+
+    private static String sha256(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(d.length * 2);
+            for (byte b : d) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long memoryLimitMb() {
+        try {
+            return Long.parseLong(envOr("API_CACHE_MEMORY_MB", "32"));
+        } catch (Exception ignore) {
+            return 32;
+        }
+    }
+
+    private static String envOr(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+
+    /**
+     * A cache hit in the shape of an HTTP 200 response, so callers of ApiHttpClient.send need no special case.
+     */
+    static HttpResponse<String> asResponse(HttpRequest request, String body) {
+        return ApiHttpClient.response(request, 200, body, "HIT");
+    }
+}
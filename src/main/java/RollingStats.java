@@ -0,0 +1,106 @@
+/**
+ * Fixed-window rolling mean / population variance in O(1) per value (sliding-window Welford update).
+ * Keeps the window in a ring buffer so it can resynchronise exactly:
+ * every RESYNC_INTERVAL updates, and whenever the variance collapses to rounding noise
+ * (a flat window must give exactly 0, not 1e-14, or CCI divides noise by noise).
+ */
+public final class RollingStats implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int RESYNC_INTERVAL = 1024;
+    // Variance below this fraction of mean^2 is indistinguishable from accumulated rounding error
+    private static final double NOISE_FLOOR = 64 * Math.ulp(1.0);
+
+    private final double[] window;
+    private int head;
+    private int count;
+    private double mean;
+    private double m2;
+    private int sinceResync;
+
+    public RollingStats(int window) {
+        if (window <= 0) throw new IllegalArgumentException("window must be positive");
+        this.window = new double[window];
+    }
+
+    /**
+     * Adds a value; once the window is full the oldest value is evicted.
+     */
+    public void add(double x) {
+        int w = window.length;
+        if (count < w) {
+            window[(head + count) % w] = x;
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        } else {
+            double old = window[head];
+            window[head] = x;
+            head = (head + 1) % w;
+            double oldMean = mean;
+            mean += (x - old) / w;
+            m2 += (x - old) * ((x - mean) + (old - oldMean));
+        }
+        // !(m2 > floor) also catches NaN, so a bad value stops poisoning the stats once it leaves the window
+        if (++sinceResync >= RESYNC_INTERVAL || !(m2 > NOISE_FLOOR * count * mean * mean)) {
+            resync();
+        }
+    }
+
+    // Exact recomputation over the current window: corrected two-pass mean and sum of squares,
+    // the same scheme as commons-math Mean/Variance, so a flat window gives exactly that value and 0
+    private void resync() {
+        sinceResync = 0;
+        int w = window.length;
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) sum += window[(head + i) % w];
+        double xbar = sum / count;
+        double correction = 0.0;
+        for (int i = 0; i < count; i++) correction += window[(head + i) % w] - xbar;
+        double mu = xbar + correction / count;
+        double acc = 0.0;
+        double acc2 = 0.0;
+        for (int i = 0; i < count; i++) {
+            double d = window[(head + i) % w] - mu;
+            acc += d * d;
+            acc2 += d;
+        }
+        mean = mu;
+        m2 = acc - (acc2 * acc2 / count);
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+        mean = 0.0;
+        m2 = 0.0;
+        sinceResync = 0;
+    }
+
+    public int window() {
+        return window.length;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == window.length;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Population variance (divides by the count, like the band/CCI code always did)
+    public double variance() {
+        return count == 0 ? Double.NaN : Math.max(0.0, m2) / count;
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+}
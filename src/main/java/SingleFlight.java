@@ -0,0 +1,67 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request coalescing: while a call for a key is in flight, other callers with the same key wait for it and
+ * get the same result (or the same exception) instead of issuing their own call.
+ * A call that ends because its own thread was interrupted (a cancelled fetch, a timed-out symbol) is not shared:
+ * the waiting callers were not interrupted, so one of them takes over and makes the call again.
+ * Nothing is kept after the call completes - this is not a cache.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong shared = new AtomicLong();
+
+    public V run(K key, Callable<V> call) throws Exception {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+            if (leader == null) return lead(key, mine, call);
+            shared.incrementAndGet();
+            try {
+                return leader.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof LeaderInterrupted) {
+                    inFlight.remove(key, leader);
+                    continue; // the leader's interrupt is not ours: retry, possibly as the new leader
+                }
+                if (cause instanceof Exception) throw (Exception) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> mine, Callable<V> call) throws Exception {
+        try {
+            V value = call.call();
+            inFlight.remove(key, mine);
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            inFlight.remove(key, mine);
+            boolean interrupted = t instanceof InterruptedException || Thread.currentThread().isInterrupted();
+            mine.completeExceptionally(interrupted ? new LeaderInterrupted() : t);
+            throw t;
+        }
+    }
+
+    // Completes the followers of a leader that was interrupted; they retry instead of failing
+    private static final class LeaderInterrupted extends Exception {
+        LeaderInterrupted() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Number of calls that were answered by another caller's in-flight call.
+     */
+    public long sharedCalls() {
+        return shared.get();
+    }
+}
@@ -1,5 +1,3 @@
-
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,47 +18,54 @@ public class Stochastic {
         if (prices.size() < kPeriod) {
             return Collections.emptyList();
         }
+        double[] k = new double[prices.size()];
+        double[] d = new double[prices.size()];
+        calculateStochastic(IndicatorArrays.toArray(prices), IndicatorArrays.toArray(highPrices),
+                IndicatorArrays.toArray(lowPrices), kPeriod, dPeriod, k, d);
+        return IndicatorArrays.toRows(k, d);
+    }
 
-        List<Double> kValues = new ArrayList<>();
-
-        // חישוב %K
-        for (int i = 0; i < prices.size(); i++) {
-            if (i < kPeriod - 1) {
-                kValues.add(null);
-                continue;
-            }
-
-            // מציאת המחיר הגבוה והנמוך ביותר בחלון של kPeriod
-            double highestHigh = highPrices.subList(i - kPeriod + 1, i + 1).stream().mapToDouble(v -> v).max().getAsDouble();
-            double lowestLow = lowPrices.subList(i - kPeriod + 1, i + 1).stream().mapToDouble(v -> v).min().getAsDouble();
-            double currentPrice = prices.get(i);
-
-            double k = 100.0 * ((currentPrice - lowestLow) / (highestHigh - lowestLow));
-            kValues.add(k);
+    /**
+     * גרסה פרימיטיבית של הסטוקסטיק: כותבת את %K ו-%D למערכי הפלט של הקורא, NaN בתקופת החימום.
+     * @param prices מחירי הסגירה.
+     * @param highPrices מחירי שיא.
+     * @param lowPrices מחירי שפל.
+     * @param kPeriod תקופת החישוב של %K (לרוב 14).
+     * @param dPeriod תקופת החישוב של %D (לרוב 3).
+     * @param kOut מערך פלט ל-%K.
+     * @param dOut מערך פלט ל-%D.
+     */
+    public static void calculateStochastic(double[] prices, double[] highPrices, double[] lowPrices, int kPeriod, int dPeriod,
+                                           double[] kOut, double[] dOut) {
+        int n = prices.length;
+        IndicatorArrays.requireOutput(kOut, n);
+        IndicatorArrays.requireOutput(dOut, n);
+        java.util.Arrays.fill(kOut, 0, n, Double.NaN);
+        java.util.Arrays.fill(dOut, 0, n, Double.NaN);
+        if (n < kPeriod) {
+            return;
         }
 
-        // חישוב %D (ממוצע נע פשוט של %K)
-        List<Double> dValues = new ArrayList<>();
-
-        for (int i = 0; i < kValues.size(); i++) {
-            if (kValues.get(i) == null || i < kPeriod + dPeriod - 2) {
-                dValues.add(null);
-                continue;
+        for (int i = kPeriod - 1; i < n; i++) {
+            // מציאת המחיר הגבוה והנמוך ביותר בחלון של kPeriod
+            int from = i - kPeriod + 1;
+            double highestHigh = highPrices[from];
+            double lowestLow = lowPrices[from];
+            for (int j = from + 1; j <= i; j++) {
+                highestHigh = Math.max(highestHigh, highPrices[j]);
+                lowestLow = Math.min(lowestLow, lowPrices[j]);
             }
+            kOut[i] = 100.0 * ((prices[i] - lowestLow) / (highestHigh - lowestLow));
 
-            // חישוב SMA עבור D-Period של ערכי %K
-            double sumK = 0.0;
-            int startIndex = i - dPeriod + 1;
-            for (int j = 0; j < dPeriod; j++) {
-                sumK += kValues.get(startIndex + j);
+            // %D: ממוצע נע פשוט של %K
+            if (i >= kPeriod + dPeriod - 2) {
+                double sumK = 0.0;
+                int startIndex = i - dPeriod + 1;
+                for (int j = 0; j < dPeriod; j++) {
+                    sumK += kOut[startIndex + j];
+                }
+                dOut[i] = sumK / dPeriod;
             }
-            dValues.add(sumK / dPeriod);
-        }
-
-        List<Double[]> results = new ArrayList<>();
-        for (int i = 0; i < kValues.size(); i++) {
-            results.add(new Double[]{kValues.get(i), dValues.get(i)});
         }
-        return results;
     }
-}
\ No newline at end of file
+}
@@ -25,4 +25,16 @@ public class StockAnalysisResult {
         return String.format("| %-5s | $%-8.2f | %-15s | %-15s | ADX: %.2f |",
                 ticker, price, technicalSignal, fundamentalSignal, adxStrength);
     }
-}
\ No newline at end of file
+
+    // התוצאה כדוח מובנה (משמש כרשומת-בן בדוחות של כמה מניות)
+    public AnalysisReport toReport() {
+        return new AnalysisReport(ticker)
+                .indicator("price", price)
+                .indicator("DCF_fair_value", dcfFairValue)
+                .indicator("ADX", adxStrength)
+                .signal("technical", technicalSignal)
+                .signal("fundamental", fundamentalSignal)
+                .verdict(finalVerdict)
+                .println(toString());
+    }
+}
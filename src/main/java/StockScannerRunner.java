@@ -37,36 +37,38 @@ public class StockScannerRunner {
     // (הלוגיקה הזו הועברה ממתודת main המקורית של הקלאס Main)
     // ----------------------------------------------------------------------------------
     public static StockAnalysisResult analyzeSingleStock(String ticker) throws Exception {
-        // *** הערה: יש לוודא שהקלאס DataFetcher מכיל מתודה סטטית setTicker(String) ***
-        // *** או שתשנה את הקריאה לדרך שבה אתה מגדיר את ה-Ticker ב-DataFetcher. ***
-        DataFetcher.setTicker(ticker);
+        // 1. משיכת הנרות האחרונים מה-BarStore (הסימול מועבר ישירות - בטוח לקריאה מכמה threads במקביל)
+        return analyzeSingleStock(ticker, BarStore.shared().tail(ticker, BarStore.ANALYSIS_BARS));
+    }
 
-        // 1. משיכת נתונים
-        String jsonData = DataFetcher.fetchStockData();
-        List<Double> historicalPrices = PriceJsonParser.extractClosingPrices(jsonData);
-        List<Double> highPrices = PriceJsonParser.extractHighPrices(jsonData);
-        List<Double> lowPrices = PriceJsonParser.extractLowPrices(jsonData);
+    /**
+     * ניתוח מתוך תשובת TIME_SERIES_DAILY שכבר נמשכה, ללא גישה לרשת (משמש גם את הבנצ'מרקים).
+     */
+    public static StockAnalysisResult analyzeSingleStock(String ticker, String jsonData) throws Exception {
+        return analyzeSingleStock(ticker, PriceJsonParser.parseDailyBars(jsonData));
+    }
 
-        if (historicalPrices.size() < 30) {
+    /**
+     * ניתוח מתוך סדרת נרות יומיים קיימת, ללא גישה לרשת.
+     */
+    public static StockAnalysisResult analyzeSingleStock(String ticker, BarSeries bars) throws Exception {
+        if (bars.size() < 30) {
             throw new Exception("חסר נתונים לחישובים מורכבים עבור " + ticker);
         }
 
-        Double currentPrice = historicalPrices.get(historicalPrices.size() - 1);
+        Double currentPrice = bars.lastClose();
 
-        // 2. חישוב אינדיקטורים עיקריים
-        List<Double> smaResults = TechnicalAnalysisModel.calculateSMA(historicalPrices, 20);
-        List<Double> rsiResults = RSI.calculateRSI(historicalPrices, 14);
-        List<Double[]> macdResults = MACD.calculateMACD(historicalPrices);
-        List<Double[]> adxResults = ADX.calculateADX(highPrices, lowPrices, historicalPrices, 14);
+        // 2. חישוב אינדיקטורים עיקריים (במעבר יחיד על הסדרה)
+        IndicatorPipeline.Result ind = new IndicatorPipeline().sma(20).rsi(14).macd().adx(14).compute(bars);
 
         // 3. מיצוי הנתונים העיקריים (האחרונים)
-        Double latestSMA = smaResults.get(smaResults.size() - 1);
-        Double latestRSI = rsiResults.get(rsiResults.size() - 1);
-        Double latestMACD = macdResults.get(macdResults.size() - 1)[0];
-        Double latestSignalLine = macdResults.get(macdResults.size() - 1)[1];
-        Double latestADX = adxResults.get(adxResults.size() - 1)[0];
-        Double latestPlusDI = adxResults.get(adxResults.size() - 1)[1];
-        Double latestMinusDI = adxResults.get(adxResults.size() - 1)[2];
+        double latestSMA = IndicatorPipeline.last(ind.sma(20));
+        double latestRSI = IndicatorPipeline.last(ind.rsi());
+        double latestMACD = IndicatorPipeline.last(ind.macd());
+        double latestSignalLine = IndicatorPipeline.last(ind.macdSignal());
+        double latestADX = IndicatorPipeline.last(ind.adx());
+        double latestPlusDI = IndicatorPipeline.last(ind.plusDI());
+        double latestMinusDI = IndicatorPipeline.last(ind.minusDI());
 
         // 4. ניתוח פונדמנטלי (דורש נתונים דינמיים! כאן נתונים דמיוניים לבדיקה)
         double fairValue = DCFModel.calculateFairValue(500000000.0, 0.04, 0.12, 5, 0.02);
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+import java.util.List;
+
+public class TEMA {
+
+    /**
+     * מחשב את אינדיקטור Triple Exponential Moving Average (TEMA).
+     * @param prices רשימת מחירים (סגירה / פתיחה).
+     * @param period תקופת החישוב.
+     * @return רשימה של ערכי TEMA (null בתקופת החימום).
+     */
+    public static List<Double> calculateTEMA(List<Double> prices, int period) {
+        double[] out = new double[prices.size()];
+        calculateTEMA(IndicatorArrays.toArray(prices), period, out);
+        return IndicatorArrays.toList(out);
+    }
+
+    /**
+     * גרסה פרימיטיבית של TEMA = 3*EMA1 - 3*EMA2 + EMA3, כאשר EMA2 הוא EMA של EMA1 ו-EMA3 הוא EMA של EMA2.
+     * כל EMA מאותחל ב-SMA של התקופה הראשונה שלו (כמו ב-MACD), ולכן TEMA תקף מאינדקס 3*(period-1), לפני כן NaN.
+     * @param prices מחירים.
+     * @param period תקופת החישוב.
+     * @param out מערך פלט באורך prices.length לפחות.
+     */
+    public static void calculateTEMA(double[] prices, int period, double[] out) {
+        int n = prices.length;
+        IndicatorArrays.requireOutput(out, n);
+        Arrays.fill(out, 0, n, Double.NaN);
+        if (period <= 0) return;
+
+        double mult = 2.0 / (period + 1.0);
+        double ema1 = 0, ema2 = 0, ema3 = 0;
+        int first2 = period - 1;       // האינדקס הראשון עם EMA1
+        int first3 = 2 * (period - 1); // האינדקס הראשון עם EMA2
+        int firstTema = 3 * (period - 1);
+
+        for (int i = 0; i < n; i++) {
+            // EMA1 על המחירים
+            if (i < period) {
+                ema1 += prices[i];
+                if (i == period - 1) ema1 /= period;
+                else continue;
+            } else {
+                ema1 = (prices[i] - ema1) * mult + ema1;
+            }
+
+            // EMA2 על ערכי EMA1 התקפים
+            int j = i - first2;
+            if (j < period) {
+                ema2 += ema1;
+                if (j == period - 1) ema2 /= period;
+                else continue;
+            } else {
+                ema2 = (ema1 - ema2) * mult + ema2;
+            }
+
+            // EMA3 על ערכי EMA2 התקפים
+            int k = i - first3;
+            if (k < period) {
+                ema3 += ema2;
+                if (k == period - 1) ema3 /= period;
+                else continue;
+            } else {
+                ema3 = (ema2 - ema3) * mult + ema3;
+            }
+
+            if (i >= firstTema) {
+                out[i] = 3 * ema1 - 3 * ema2 + ema3;
+            }
+        }
+    }
+}
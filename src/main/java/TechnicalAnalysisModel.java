@@ -12,29 +12,43 @@ public class TechnicalAnalysisModel {
      * @return a list of SMA values aligned with input prices length
      */
     public static List<Double> calculateSMA(List<Double> prices, int window) {
-        List<Double> result = new ArrayList<>();
         if (prices == null || prices.isEmpty() || window <= 0) {
-            return result;
+            return new ArrayList<>();
+        }
+        // Treat null prices as 0 to avoid NPE, but keep alignment
+        double[] out = new double[prices.size()];
+        calculateSMA(IndicatorArrays.toArray(prices, 0.0), window, out);
+        return IndicatorArrays.toList(out);
+    }
+
+    /**
+     * Primitive SMA: writes into the caller's output array, NaN for the first (window-1) entries.
+     *
+     * @param prices closing prices
+     * @param window the SMA window size
+     * @param out output array, at least prices.length long
+     */
+    public static void calculateSMA(double[] prices, int window, double[] out) {
+        int n = prices.length;
+        IndicatorArrays.requireOutput(out, n);
+        if (window <= 0) {
+            java.util.Arrays.fill(out, 0, n, Double.NaN);
+            return;
         }
 
         double sum = 0.0;
-        for (int i = 0; i < prices.size(); i++) {
-            Double price = prices.get(i);
-            // Treat null prices as 0 to avoid NPE, but keep alignment
-            double val = price == null ? 0.0 : price;
-            sum += val;
+        for (int i = 0; i < n; i++) {
+            sum += prices[i];
 
             if (i < window - 1) {
                 // Not enough data yet for a full window
-                result.add(null);
+                out[i] = Double.NaN;
             } else {
                 if (i >= window) {
-                    Double oldPrice = prices.get(i - window);
-                    sum -= (oldPrice == null ? 0.0 : oldPrice);
+                    sum -= prices[i - window];
                 }
-                result.add(sum / window);
+                out[i] = sum / window;
             }
         }
-        return result;
     }
 }
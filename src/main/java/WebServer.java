@@ -4,7 +4,6 @@ import com.sun.net.httpserver.HttpServer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
@@ -15,15 +14,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintStream;
 import java.net.InetSocketAddress;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.DayOfWeek;
-import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -32,9 +28,12 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WebServer {
 
@@ -154,14 +153,13 @@ public class WebServer {
                         "\"temperature\":0.3\n"+
                         "}";
 
-                HttpClient client = HttpClient.newHttpClient();
                 HttpRequest req = HttpRequest.newBuilder()
                         .uri(URI.create("https://api.openai.com/v1/chat/completions"))
                         .header("Content-Type", "application/json")
                         .header("Authorization", "Bearer " + key)
                         .POST(HttpRequest.BodyPublishers.ofString(body))
                         .build();
-                HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> resp = ApiHttpClient.send(req, body);
                 if (resp.statusCode() == 200) {
                     ObjectMapper om = new ObjectMapper();
                     JsonNode root = om.readTree(resp.body());
@@ -184,38 +182,14 @@ public class WebServer {
     }
 
     private static boolean isNyseRegularHoursNow() {
-        ZonedDateTime now = ZonedDateTime.now(NY);
-        DayOfWeek dow = now.getDayOfWeek();
-        if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) return false;
-        LocalTime t = now.toLocalTime();
-        LocalTime open = LocalTime.of(9, 30);
-        LocalTime close = LocalTime.of(16, 0);
-        return (!t.isBefore(open)) && (t.isBefore(close));
+        return NyseCalendar.isRegularHoursNow();
     }
 
+    // Full daily history from the BarStore, refreshed at most once per session
     private static Map<String, Double> loadDailyCloseByDateCached(String symbol) {
         try {
             if (symbol == null || symbol.isBlank()) return Map.of();
-            String sym = symbol.trim().toUpperCase();
-            Path dir = Paths.get("finder-cache");
-            Files.createDirectories(dir);
-            Path cacheFile = dir.resolve("daily-" + sym + ".json");
-            String json = null;
-            long now = System.currentTimeMillis();
-            if (Files.exists(cacheFile)) {
-                try {
-                    long age = now - Files.getLastModifiedTime(cacheFile).toMillis();
-                    if (age < 6L * 60 * 60 * 1000) {
-                        json = Files.readString(cacheFile, StandardCharsets.UTF_8);
-                    }
-                } catch (Exception ignore) {}
-            }
-            if (json == null) {
-                DataFetcher.setTicker(sym);
-                json = DataFetcher.fetchStockData();
-                try { Files.writeString(cacheFile, json == null ? "" : json, StandardCharsets.UTF_8); } catch (Exception ignore) {}
-            }
-            return PriceJsonParser.extractCloseByDate(json);
+            return BarStore.shared().bars(symbol).closeByDate();
         } catch (Exception ignore) {
             return Map.of();
         }
@@ -318,13 +292,12 @@ public class WebServer {
             String body = "chat_id=" + java.net.URLEncoder.encode(chat, StandardCharsets.UTF_8) +
                     "&text=" + java.net.URLEncoder.encode(text == null ? "" : text, StandardCharsets.UTF_8) +
                     "&disable_web_page_preview=true";
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest req = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .header("Content-Type", "application/x-www-form-urlencoded")
                     .POST(HttpRequest.BodyPublishers.ofString(body))
                     .build();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> resp = ApiHttpClient.send(req, body);
             return resp.statusCode() == 200;
         } catch (Exception ignore) {
             return false;
@@ -336,36 +309,15 @@ public class WebServer {
             if (symbol == null || symbol.isBlank()) return "";
             String sym = symbol.trim().toUpperCase();
 
-            Path dir = Paths.get("analysts-cache");
-            Files.createDirectories(dir);
-            Path cacheFile = dir.resolve(sym + "-alphavantage.json");
-            String cachedJson = null;
-            long now = System.currentTimeMillis();
-            if (Files.exists(cacheFile)) {
-                try {
-                    long age = now - Files.getLastModifiedTime(cacheFile).toMillis();
-                    if (age < 24L * 60 * 60 * 1000) {
-                        cachedJson = Files.readString(cacheFile, StandardCharsets.UTF_8);
-                    }
-                } catch (Exception ignore) {}
-            }
-
+            // OVERVIEW (24h) and NEWS_SENTIMENT (15 min) are cached by ResponseCache
             ObjectMapper om = new ObjectMapper();
-            JsonNode combined;
-            if (cachedJson == null) {
-                MonitoringAlphaVantageClient av = MonitoringAlphaVantageClient.fromEnv();
-                JsonNode overview = null;
-                JsonNode news = null;
-                try { overview = av.overview(sym); } catch (Exception ignore) {}
-                try { news = av.newsSentiment(sym); } catch (Exception ignore) {}
-                String combinedJson = "{\n\"overview\": " + (overview == null ? "{}" : overview.toString()) + ",\n\"news\": " + (news == null ? "{}" : news.toString()) + "\n}";
-                try { Files.writeString(cacheFile, combinedJson, StandardCharsets.UTF_8); } catch (Exception ignore) {}
-                combined = om.readTree(combinedJson);
-            } else {
-                combined = om.readTree(cachedJson);
-            }
+            MonitoringAlphaVantageClient av = MonitoringAlphaVantageClient.fromEnv();
+            JsonNode overview = null;
+            JsonNode news = null;
+            try { overview = av.overview(sym); } catch (Exception ignore) {}
+            try { news = av.newsSentiment(sym); } catch (Exception ignore) {}
 
-            JsonNode ov = combined.path("overview");
+            JsonNode ov = overview == null ? om.createObjectNode() : overview;
             String name = ov.path("Name").asText("");
             String sector = ov.path("Sector").asText("");
             String peStr = ov.path("PERatio").asText("");
@@ -378,7 +330,7 @@ public class WebServer {
 
             Double newsScore = null;
             try {
-                JsonNode feed = combined.path("news").path("feed");
+                JsonNode feed = (news == null ? om.createObjectNode() : news).path("feed");
                 if (feed != null && feed.isArray()) {
                     double sum = 0.0;
                     int cnt = 0;
@@ -464,7 +416,6 @@ public class WebServer {
     // Call local Ollama server (http://localhost:11434) to summarize text using a small local model
     private static String summarizeWithOllama(String prompt) {
         try {
-            HttpClient client = HttpClient.newHttpClient();
             String body = "{\n"+
                     " \"model\": \"llama3.2\",\n"+
                     " \"prompt\": " + jsonString(prompt) + ",\n"+
@@ -475,7 +426,7 @@ public class WebServer {
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(body))
                     .build();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> resp = ApiHttpClient.send(req, body);
             if (resp.statusCode() != 200) return null;
             ObjectMapper om = new ObjectMapper();
             JsonNode root = om.readTree(resp.body());
@@ -493,7 +444,7 @@ public class WebServer {
         return "\"" + escaped + "\"";
     }
 
-    // -------- Analyst data (Finnhub) with 24h cache ---------
+    // -------- Analyst data (Finnhub), cached 24h by ResponseCache ---------
     private static String buildAnalystCard(String symbol) {
         try {
             if (symbol == null || symbol.isBlank()) return "";
@@ -501,35 +452,19 @@ public class WebServer {
             if (key == null || key.isBlank()) {
                 return "<div class='card'><div class='title'>Analyst Consensus</div><div style='color:#9ca3af'>(Set FINNHUB_API_KEY to enable analyst data)</div></div>";
             }
-            Path dir = Paths.get("analysts-cache");
-            Files.createDirectories(dir);
-            Path cacheFile = dir.resolve(symbol.toUpperCase()+".json");
-            String combinedJson = null;
-            long now = System.currentTimeMillis();
-            if (Files.exists(cacheFile)) {
-                try {
-                    long age = now - Files.getLastModifiedTime(cacheFile).toMillis();
-                    if (age < 24L*60*60*1000) {
-                        combinedJson = Files.readString(cacheFile, StandardCharsets.UTF_8);
-                    }
-                } catch (Exception ignore) {}
-            }
+            // Both endpoints are cached for 24h by ResponseCache
             ObjectMapper om = new ObjectMapper();
             JsonNode combined = null;
-            if (combinedJson == null) {
-                HttpClient client = HttpClient.newHttpClient();
-                String recoUrl = "https://finnhub.io/api/v1/stock/recommendation?symbol="+symbol+"&token="+key;
-                String ptUrl = "https://finnhub.io/api/v1/stock/price-target?symbol="+symbol+"&token="+key;
-                HttpRequest r1 = HttpRequest.newBuilder().uri(URI.create(recoUrl)).build();
-                HttpRequest r2 = HttpRequest.newBuilder().uri(URI.create(ptUrl)).build();
-                HttpResponse<String> h1 = client.send(r1, HttpResponse.BodyHandlers.ofString());
-                HttpResponse<String> h2 = client.send(r2, HttpResponse.BodyHandlers.ofString());
-                String body1 = (h1.statusCode()==200? h1.body(): "[]");
-                String body2 = (h2.statusCode()==200? h2.body(): "{}");
-                // Build combined JSON string
-                combinedJson = "{\n\"recommendation\": "+body1+",\n\"priceTarget\": "+body2+"\n}";
-                try { Files.writeString(cacheFile, combinedJson, StandardCharsets.UTF_8); } catch (Exception ignore) {}
-            }
+            String recoUrl = "https://finnhub.io/api/v1/stock/recommendation?symbol="+symbol+"&token="+key;
+            String ptUrl = "https://finnhub.io/api/v1/stock/price-target?symbol="+symbol+"&token="+key;
+            HttpRequest r1 = HttpRequest.newBuilder().uri(URI.create(recoUrl)).build();
+            HttpRequest r2 = HttpRequest.newBuilder().uri(URI.create(ptUrl)).build();
+            HttpResponse<String> h1 = ApiHttpClient.send(r1);
+            HttpResponse<String> h2 = ApiHttpClient.send(r2);
+            String body1 = (h1.statusCode()==200? h1.body(): "[]");
+            String body2 = (h2.statusCode()==200? h2.body(): "{}");
+            // Build combined JSON string
+            String combinedJson = "{\n\"recommendation\": "+body1+",\n\"priceTarget\": "+body2+"\n}";
             combined = om.readTree(combinedJson);
             JsonNode recArr = combined.path("recommendation");
             String period = "";
@@ -622,20 +557,89 @@ public class WebServer {
         }
     }
 
-    private static String runAndCapture(Runnable r) {
-        PrintStream originalOut = System.out;
-        PrintStream originalErr = System.err;
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        PrintStream capture = new PrintStream(bos, true, StandardCharsets.UTF_8);
+    /**
+     * Request executor, chosen by HTTP_EXECUTOR:
+     *   virtual  (default) one virtual thread per request, when the runtime has them (Java 21+)
+     *   platform bounded pool of HTTP_THREADS threads (default 32); also the fallback on older runtimes
+     */
+    private static ExecutorService createHttpExecutor() {
+        String mode = System.getenv().getOrDefault("HTTP_EXECUTOR", "virtual").trim().toLowerCase();
+        if (!mode.equals("platform")) {
+            try {
+                // Looked up reflectively so the code still compiles for Java 17
+                ExecutorService exec = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                System.out.println("HTTP executor: virtual thread per request");
+                return exec;
+            } catch (Exception e) {
+                System.out.println("HTTP executor: virtual threads not available on this runtime, using a platform pool");
+            }
+        }
+        int threads = 32;
         try {
-            System.setOut(capture);
-            System.setErr(capture);
-            r.run();
-        } finally {
-            System.setOut(originalOut);
-            System.setErr(originalErr);
+            String v = System.getenv("HTTP_THREADS");
+            if (v != null && !v.isBlank()) threads = Math.max(2, Integer.parseInt(v.trim()));
+        } catch (Exception ignore) {}
+        AtomicInteger id = new AtomicInteger();
+        System.out.println("HTTP executor: platform pool of " + threads + " threads");
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-" + id.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Max concurrent requests per heavy route, so slow analyses cannot take over the server while charts and pages
+    // keep being served. Override with HTTP_ROUTE_LIMITS, e.g. "/run-main=3,/chart=8" (0 = unlimited).
+    private static final Map<String, Integer> ROUTE_LIMITS = routeLimitsFromEnv();
+    // How long a request waits for a free slot before getting 503
+    private static final long ROUTE_WAIT_MS = 10_000;
+
+    private static Map<String, Integer> routeLimitsFromEnv() {
+        Map<String, Integer> limits = new HashMap<>();
+        limits.put("/run-main", 2);
+        limits.put("/recommendations", 1);
+        limits.put("/portfolio-weekly", 1);
+        limits.put("/nasdaq-daily-top", 1);
+        limits.put("/monitoring-refresh", 1);
+        limits.put("/analysts", 2);
+        limits.put("/top-gainers-losers", 2);
+        limits.put("/chart", 6);
+        String env = System.getenv("HTTP_ROUTE_LIMITS");
+        if (env != null && !env.isBlank()) {
+            for (String part : env.split(",")) {
+                String[] kv = part.split("=", 2);
+                if (kv.length != 2) continue;
+                try { limits.put(kv[0].trim(), Integer.parseInt(kv[1].trim())); } catch (Exception ignore) {}
+            }
         }
-        return bos.toString(StandardCharsets.UTF_8);
+        return limits;
+    }
+
+    private static HttpHandler limited(String route, HttpHandler handler) {
+        int permits = ROUTE_LIMITS.getOrDefault(route, 0);
+        if (permits <= 0) return handler;
+        Semaphore slots = new Semaphore(permits);
+        return ex -> {
+            boolean acquired;
+            try {
+                acquired = slots.tryAcquire(ROUTE_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                ex.getResponseHeaders().add("Retry-After", "10");
+                respondHtml(ex, htmlPage("<div class='card'><div class='title'>Busy</div>"
+                        + escapeHtml(route) + " is already running at its limit of " + permits
+                        + " concurrent requests, please retry shortly.</div>"), 503);
+                return;
+            }
+            try {
+                handler.handle(ex);
+            } finally {
+                slots.release();
+            }
+        };
     }
 
     public static void main(String[] args) throws Exception {
@@ -704,6 +708,10 @@ public class WebServer {
                         "<form method='post' action='/recommendations'>"+
                         "<button type='submit'>Nasdaq stock Finder (Find randomly 5 stocks from Nasdaq100)</button>"+
                         "</form>"+
+                        "<form method='post' action='/recommendations' style='margin-top:8px'>"+
+                        "<input type='hidden' name='source' value='local'/>"+
+                        "<button type='submit'>Score all locally stored stocks (no network)</button>"+
+                        "</form>"+
                         "<div style='margin-top:8px'><a href='/finder-last'>Open Last Finder Results</a></div>"+
                         "</div>"+
                         "<div class='card'><div class='title'>Daily Nasdaq Top 5 (GREEN)</div>"+
@@ -811,7 +819,7 @@ public class WebServer {
         // ---------------- Monitoring Stocks (separate module) ----------------
         final MonitoringStore monitoringStore = MonitoringStore.defaultStore();
         final MonitoringAlphaVantageClient monitoringClient = MonitoringAlphaVantageClient.fromEnv();
-        final MonitoringAnalyzer monitoringAnalyzer = new MonitoringAnalyzer(monitoringClient);
+        final MonitoringAnalyzer monitoringAnalyzer = new MonitoringAnalyzer(monitoringClient, monitoringStore);
         final MonitoringScheduler monitoringScheduler = new MonitoringScheduler(monitoringStore, monitoringAnalyzer);
         // Run Mon–Fri on New York time at: 09:30, 11:30, 13:30, 15:30 ET
         try {
@@ -849,6 +857,26 @@ public class WebServer {
                      if (err != null && !err.isBlank()) {
                          sb.append("<div style='color:#fca5a5;margin-top:6px;'>Last error: ").append(escapeHtml(err)).append("</div>");
                      }
+                     MonitoringScheduler.RefreshStatus rs = monitoringScheduler.getRefreshStatus();
+                     if (rs != null) {
+                         sb.append("<div style='color:#9ca3af;margin-top:6px;'>")
+                           .append(rs.running() ? "Refresh running: " : "Last refresh: ")
+                           .append(escapeHtml(rs.summary()))
+                           .append(rs.running() ? " · <a href='/monitoring'>reload</a> for progress" : "")
+                           .append("</div>");
+                         if (!rs.symbols().isEmpty()) {
+                             sb.append("<table style='margin-top:6px;color:#9ca3af;font-size:13px'><tr><th align='left'>Symbol</th><th align='left'>State</th><th align='right'>Duration</th><th align='left'>Error</th></tr>");
+                             for (MonitoringScheduler.SymbolStatus st : rs.symbols()) {
+                                 String color = st.state() == MonitoringScheduler.SymbolState.DONE ? "#22c55e"
+                                         : (st.state() == MonitoringScheduler.SymbolState.FAILED || st.state() == MonitoringScheduler.SymbolState.TIMEOUT ? "#fca5a5" : "#93c5fd");
+                                 sb.append("<tr><td>").append(escapeHtml(st.symbol())).append("</td>")
+                                   .append("<td style='color:").append(color).append("'>").append(st.state()).append("</td>")
+                                   .append("<td align='right'>").append(st.state() == MonitoringScheduler.SymbolState.PENDING ? "" : String.format("%.1f s", st.millis() / 1000.0)).append("</td>")
+                                   .append("<td>").append(st.error() == null ? "" : escapeHtml(st.error())).append("</td></tr>");
+                             }
+                             sb.append("</table>");
+                         }
+                     }
                      sb.append("</div>");
                  } catch (Exception ignore) {}
 
@@ -899,6 +927,11 @@ public class WebServer {
                     sb.append("<form method='post' action='/run-main' style='display:inline;margin:0'>")
                       .append("<input type='hidden' name='symbol' value='").append(esc).append("'/>")
                       .append("<button type='submit'>Full Analyze</button></form>");
+                    if (snap != null) {
+                        sb.append("<form method='post' action='/monitoring-report' style='display:inline;margin:0'>")
+                          .append("<input type='hidden' name='symbol' value='").append(esc).append("'/>")
+                          .append("<button type='submit'>Text Report</button></form>");
+                    }
                     sb.append("</div>");
 
                     if (snap == null) {
@@ -1027,14 +1060,32 @@ public class WebServer {
             }
         });
 
-        server.createContext("/monitoring-refresh", new HttpHandler() {
+        server.createContext("/monitoring-refresh", limited("/monitoring-refresh", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (!ex.getRequestMethod().equalsIgnoreCase("POST")) { respondHtml(ex, htmlPage(""), 200); return; }
-                try { monitoringScheduler.triggerNowAsync(); } catch (Exception ignore) {}
-                ex.getResponseHeaders().add("Location", "/monitoring?status=refresh_started");
+                boolean started = false;
+                try { started = monitoringScheduler.triggerNowAsync(); } catch (Exception ignore) {}
+                ex.getResponseHeaders().add("Location", "/monitoring?status=" + (started ? "refresh_started" : "refresh_already_running"));
                 ex.sendResponseHeaders(303, -1);
                 ex.close();
             }
+        }));
+
+        // Text report of the latest monitoring snapshot (rendered on demand by MonitoringStore)
+        server.createContext("/monitoring-report", new HttpHandler() {
+            @Override public void handle(HttpExchange ex) throws IOException {
+                if (!ex.getRequestMethod().equalsIgnoreCase("POST")) { respondHtml(ex, htmlPage(""), 200); return; }
+                Map<String,String> form = parseForm(readBody(ex));
+                String sym = form.getOrDefault("symbol", "").trim().toUpperCase();
+                String txt = sym.isEmpty() ? null : monitoringStore.loadTextReport(sym);
+                String content;
+                if (txt == null) {
+                    content = "<div class='card'><div class='title'>Monitoring Report</div><div style='color:#9ca3af'>No snapshot for "+escapeHtml(sym)+".</div></div>";
+                } else {
+                    content = "<div class='card'><div class='title'>Monitoring Report: "+escapeHtml(sym)+"</div><pre>"+escapeHtml(txt)+"</pre></div>";
+                }
+                respondHtml(ex, htmlPage(content), 200);
+            }
         });
 
         server.createContext("/intraday-alerts", new HttpHandler() {
@@ -1204,6 +1255,17 @@ public class WebServer {
             }
         });
 
+        // Upstream API cache and rate-limit counters
+        server.createContext("/cache-stats", new HttpHandler() {
+            @Override public void handle(HttpExchange ex) throws IOException {
+                String content = "<div class=\"card\"><div class=\"title\">API cache</div><pre>"
+                        + escapeHtml(ResponseCache.shared().stats()) + "\ncoalesced in-flight requests=" + ApiHttpClient.coalescedRequests()
+                        + "\ndata source: " + escapeHtml(ApiHttpClient.dataSource().describe())
+                        + "</pre></div>";
+                respondHtml(ex, htmlPage(content), 200);
+            }
+        });
+
         // ---------------- Favorites (persistent simple file) ----------------
         final Object favLock = new Object();
         final Path favPath = Paths.get("favorites.txt");
@@ -1288,7 +1350,7 @@ public class WebServer {
         });
 
         // Render a simple SVG technical chart for a symbol: close, SMA(20), Bollinger(20,2)
-        server.createContext("/chart", new HttpHandler() {
+        server.createContext("/chart", limited("/chart", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 try {
                     String query = ex.getRequestURI().getQuery();
@@ -1311,12 +1373,16 @@ public class WebServer {
                         return;
                     }
 
-                    // Fetch data
-                    DataFetcher.setTicker(symbol);
-                    String json = DataFetcher.fetchStockData();
-                    List<Double> closes = PriceJsonParser.extractClosingPrices(json);
-                    if (closes == null || closes.size() < 30) {
-                        String msg = PriceJsonParser.extractServiceMessage(json);
+                    // Only the window on screen plus the SMA/Bollinger lookback is decoded from the BarStore
+                    List<Double> closes;
+                    String msg = null;
+                    try {
+                        closes = BarStore.shared().tail(symbol, n + 20).closeList();
+                    } catch (Exception e) {
+                        closes = List.of();
+                        msg = e.getMessage();
+                    }
+                    if (closes.size() < 30) {
                         String label = (msg!=null? escapeHtml(msg): "insufficient data");
                         respondSvg(ex, "<svg xmlns='http://www.w3.org/2000/svg' width='"+w+"' height='"+h+"'><text x='10' y='20' fill='orange'>"+label+"</text></svg>", 200);
                         return;
@@ -1409,9 +1475,9 @@ public class WebServer {
                     respondSvg(ex, "<svg xmlns='http://www.w3.org/2000/svg' width='600' height='120'><text x='10' y='20' fill='red'>"+escapeHtml(e.getMessage())+"</text></svg>", 200);
                 }
             }
-        });
+        }));
 
-        server.createContext("/run-main", new HttpHandler() {
+        server.createContext("/run-main", limited("/run-main", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (!ex.getRequestMethod().equalsIgnoreCase("POST")) {
                     respondHtml(ex, htmlPage(""), 200);
@@ -1427,11 +1493,12 @@ public class WebServer {
                     result = "No symbol provided";
                 } else {
                     try {
-                        DataFetcher.setTicker(symbol);
+                        // All per-symbol API calls go out together; the overview card and the analysis share them
+                        Main.Fetches fetches = Main.Fetches.start(symbol, DataFetcher.defaultClient());
 
                         // Try to fetch company overview (best-effort, independent of pricing data source)
                         try {
-                            String ovJson = DataFetcher.fetchCompanyOverview(symbol);
+                            String ovJson = fetches.overview();
                             ObjectMapper om = new ObjectMapper();
                             JsonNode root = om.readTree(ovJson);
                             JsonNode nameN = root.get("Name");
@@ -1470,7 +1537,7 @@ public class WebServer {
                             }
                         } catch (Exception ignore) { }
                         // Run the full analysis flow (which already handles data sufficiency and Finnhub fallback)
-                        result = runAndCapture(() -> Main.main(new String[]{}));
+                        result = Main.analyze(symbol, DataFetcher.defaultClient(), fetches).toText();
                         showChart = true;
                     } catch (Exception e) {
                         result = "Error: " + e.getMessage();
@@ -1523,9 +1590,9 @@ public class WebServer {
                         + "<script>(function(){try{var AC=window.AudioContext||window.webkitAudioContext;var ctx=new AC();function beep(f,d,t){var o=ctx.createOscillator();var g=ctx.createGain();o.type='sine';o.frequency.value=f;o.connect(g);g.connect(ctx.destination);g.gain.setValueAtTime(0.0001,ctx.currentTime);g.gain.exponentialRampToValueAtTime(0.12,ctx.currentTime+0.02);o.start(t);g.gain.exponentialRampToValueAtTime(0.0001,t+d-0.05);o.stop(t+d);}var now=ctx.currentTime+0.05;beep(880,0.35,now);beep(1320,0.35,now+0.4);}catch(e){}})();</script>");
                 respondHtml(ex, html, 200);
             }
-        });
+        }));
 
-        server.createContext("/nasdaq-daily-top", new HttpHandler() {
+        server.createContext("/nasdaq-daily-top", limited("/nasdaq-daily-top", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (!ex.getRequestMethod().equalsIgnoreCase("POST")) {
                     respondHtml(ex, htmlPage(""), 200);
@@ -1577,7 +1644,7 @@ public class WebServer {
                 );
                 respondHtml(ex, html, 200);
             }
-        });
+        }));
 
         server.createContext("/nasdaq-daily-top-last", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
@@ -1636,7 +1703,7 @@ public class WebServer {
         });
 
         // TOP_GAINERS_LOSERS market-wide movers from Alpha Vantage
-        server.createContext("/top-gainers-losers", new HttpHandler() {
+        server.createContext("/top-gainers-losers", limited("/top-gainers-losers", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (!ex.getRequestMethod().equalsIgnoreCase("POST")) {
                     respondHtml(ex, htmlPage(""), 200);
@@ -1645,7 +1712,7 @@ public class WebServer {
 
                 String json = null;
                 try {
-                    json = DataFetcher.fetchTopGainersLosers();
+                    json = DataFetcher.defaultClient().fetchTopGainersLosers();
                 } catch (Exception ignore) {}
 
                 String content;
@@ -1680,9 +1747,9 @@ public class WebServer {
                 String html = htmlPage(content);
                 respondHtml(ex, html, 200);
             }
-        });
+        }));
 
-        server.createContext("/recommendations", new HttpHandler() {
+        server.createContext("/recommendations", limited("/recommendations", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (!ex.getRequestMethod().equalsIgnoreCase("POST")) {
                     respondHtml(ex, htmlPage(""), 200);
@@ -1690,7 +1757,8 @@ public class WebServer {
                 }
                 String result;
                 try {
-                    result = runAndCapture(() -> LongTermCandidateFinder.main(new String[]{}));
+                    boolean local = "local".equalsIgnoreCase(parseForm(readBody(ex)).getOrDefault("source", ""));
+                    result = (local ? LongTermCandidateFinder.reportOffline(5) : LongTermCandidateFinder.report(5)).toText();
                 } catch (Exception e) {
                     result = "Error: " + e.getMessage();
                 }
@@ -1723,7 +1791,7 @@ public class WebServer {
                         + "<script>(function(){try{var AC=window.AudioContext||window.webkitAudioContext;var ctx=new AC();function beep(f,d,t){var o=ctx.createOscillator();var g=ctx.createGain();o.type='sine';o.frequency.value=f;o.connect(g);g.connect(ctx.destination);g.gain.setValueAtTime(0.0001,ctx.currentTime);g.gain.exponentialRampToValueAtTime(0.12,ctx.currentTime+0.02);o.start(t);g.gain.exponentialRampToValueAtTime(0.0001,t+d-0.05);o.stop(t+d);}var now=ctx.currentTime+0.05;beep(880,0.35,now);beep(1320,0.35,now+0.4);}catch(e){}})();</script>");
                 respondHtml(ex, html, 200);
             }
-        });
+        }));
 
         // View last single-symbol saved report
         server.createContext("/report", new HttpHandler() {
@@ -1783,7 +1851,7 @@ public class WebServer {
         });
 
         // Analysts page: form + results using Finnhub (cached 24h)
-        server.createContext("/analysts", new HttpHandler() {
+        server.createContext("/analysts", limited("/analysts", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (ex.getRequestMethod().equalsIgnoreCase("GET")) {
                     String content = "<div class='card'><div class='title'>Analysts</div>"+
@@ -1831,9 +1899,9 @@ public class WebServer {
                 }
                 respondHtml(ex, htmlPage(formHtml + card), 200);
             }
-        });
+        }));
 
-        server.createContext("/portfolio-weekly", new HttpHandler() {
+        server.createContext("/portfolio-weekly", limited("/portfolio-weekly", new HttpHandler() {
             @Override public void handle(HttpExchange ex) throws IOException {
                 if (!ex.getRequestMethod().equalsIgnoreCase("POST")) {
                     respondHtml(ex, htmlPage(""), 200);
@@ -1867,12 +1935,8 @@ public class WebServer {
                                 result = cached + "\n(הוצג ממטמון קובץ יומי)";
                             } else {
                                 // Compute fresh
-                                String computed = runAndCapture(() -> {
-                                    // Analyze full portfolio (may take longer on free tier)
-                                    PortfolioWeeklySummary.setMaxTickers(-1);
-                                    PortfolioWeeklySummary.configureThrottle(true, 12_500); // ~5 req/min
-                                    PortfolioWeeklySummary.main(new String[]{});
-                                });
+                                // Analyze full portfolio (may take longer on free tier)
+                                String computed = PortfolioWeeklySummary.report(-1).toText();
                                 portfolioCache.text = computed;
                                 portfolioCache.date = today;
                                 result = computed + (force ? "\n(רענון כפוי בוצע בתאריך " + today + ")" : "\n(עודכן במטמון היומי בתאריך " + today + ")");
@@ -1916,9 +1980,9 @@ public class WebServer {
                         + "<script>(function(){try{var AC=window.AudioContext||window.webkitAudioContext;var ctx=new AC();function beep(f,d,t){var o=ctx.createOscillator();var g=ctx.createGain();o.type='sine';o.frequency.value=f;o.connect(g);g.connect(ctx.destination);g.gain.setValueAtTime(0.0001,ctx.currentTime);g.gain.exponentialRampToValueAtTime(0.12,ctx.currentTime+0.02);o.start(t);g.gain.exponentialRampToValueAtTime(0.0001,t+d-0.05);o.stop(t+d);}var now=ctx.currentTime+0.05;beep(880,0.35,now);beep(1320,0.35,now+0.4);}catch(e){}})();</script>");
                 respondHtml(ex, html, 200);
             }
-        });
+        }));
 
-        server.setExecutor(null);
+        server.setExecutor(createHttpExecutor());
         server.start();
         System.out.println("Server running at http://localhost:8099/");
 
@@ -1949,22 +2013,20 @@ public class WebServer {
         List<String> computedTickers;
         String computedError = null;
         try {
-            LongTermCandidateFinder.configureThrottle(true, 12_500);
-            LongTermCandidateFinder.setRandomPoolSize(30);
-            LongTermCandidateFinder.setMaxTickers(30);
-            computedText = runAndCapture(() -> {
-                System.out.println("--- 🎯 Daily Nasdaq Top 5 (GREEN) candidates ---");
-                java.util.List<StockAnalysisResult> topCandidates = LongTermCandidateFinder.findBestLongTermBuys(5);
-                System.out.println("\n| TICKER | PRICE    | טכני (כניסה)    | פונדמנטלי         | ADX (חוזק) |\n" +
-                        "|--------|----------|-----------------|-------------------|-----------|");
-                if (topCandidates.isEmpty()) {
-                    System.out.println("No GREEN candidates found today (based on current filters). Try again later.");
-                } else {
-                    for (StockAnalysisResult r : topCandidates) {
-                        System.out.println(r);
-                    }
+            AnalysisReport report = new AnalysisReport("Daily Nasdaq Top 5");
+            report.println("--- 🎯 Daily Nasdaq Top 5 (GREEN) candidates ---");
+            java.util.List<StockAnalysisResult> topCandidates = LongTermCandidateFinder.findBestLongTermBuys(5, 30, 30, report);
+            report.println("\n| TICKER | PRICE    | טכני (כניסה)    | פונדמנטלי         | ADX (חוזק) |\n" +
+                    "|--------|----------|-----------------|-------------------|-----------|");
+            if (topCandidates.isEmpty()) {
+                report.println("No GREEN candidates found today (based on current filters). Try again later.");
+            } else {
+                for (StockAnalysisResult r : topCandidates) {
+                    report.println(r.toString());
+                    report.child(r.toReport());
                 }
-            });
+            }
+            computedText = report.toText();
             computedTickers = LongTermCandidateFinder.getLastTickers();
         } catch (Exception e) {
             computedText = "Error: " + e.getMessage();
@@ -1972,6 +2034,11 @@ public class WebServer {
             computedError = e.getMessage();
         }
 
+        // An interrupted scan is partial: returned as is, but not cached or persisted as today's picks
+        if (Thread.currentThread().isInterrupted()) {
+            return new DailyPicksComputed(computedText, computedTickers, "scan interrupted, partial result");
+        }
+
         synchronized (dailyPicksLock) {
             dailyPicksCache.date = today;
             dailyPicksCache.text = computedText;